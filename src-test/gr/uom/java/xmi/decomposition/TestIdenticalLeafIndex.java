@@ -0,0 +1,84 @@
+package gr.uom.java.xmi.decomposition;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.refactoringminer.test.RefactoringSamples;
+
+import gr.uom.java.xmi.UMLClass;
+import gr.uom.java.xmi.UMLModel;
+import gr.uom.java.xmi.UMLOperation;
+
+public class TestIdenticalLeafIndex {
+
+	@Test
+	public void testIndexMatchesPairwiseComparison() throws Exception {
+		List<AbstractCodeFragment> leaves1 = leaves(RefactoringSamples.parse(RefactoringSamples.before(), 1));
+		List<AbstractCodeFragment> leaves2 = leaves(RefactoringSamples.parse(RefactoringSamples.after(), 1));
+		UMLOperationBodyMapper.IdenticalLeafIndex leafIndex2 = new UMLOperationBodyMapper.IdenticalLeafIndex(leaves2);
+		int returnsMatchingExpressions = 0;
+		for(AbstractCodeFragment leaf1 : leaves1) {
+			List<AbstractCodeFragment> expected = identicalLeaves(leaf1, leaves2);
+			Assert.assertEquals(leaf1.toString(), expected, leafIndex2.identicalLeaves(leaf1));
+			for(AbstractCodeFragment leaf2 : expected) {
+				if(!leaf1.getArgumentizedString().equals(leaf2.getArgumentizedString())) {
+					returnsMatchingExpressions++;
+				}
+			}
+		}
+		Assert.assertTrue(returnsMatchingExpressions > 0);
+		//the leaves removed from the index are no longer returned
+		List<AbstractCodeFragment> remainingLeaves2 = new ArrayList<AbstractCodeFragment>();
+		for(int i = 0; i < leaves2.size(); i++) {
+			if(i % 2 == 0) {
+				leafIndex2.remove(leaves2.get(i));
+			}
+			else {
+				remainingLeaves2.add(leaves2.get(i));
+			}
+		}
+		for(AbstractCodeFragment leaf1 : leaves1) {
+			Assert.assertEquals(leaf1.toString(), identicalLeaves(leaf1, remainingLeaves2), leafIndex2.identicalLeaves(leaf1));
+		}
+	}
+
+	//the comparison of the exact passes of processLeaves before the index
+	private static List<AbstractCodeFragment> identicalLeaves(AbstractCodeFragment leaf1, List<AbstractCodeFragment> leaves2) {
+		List<AbstractCodeFragment> identicalLeaves = new ArrayList<AbstractCodeFragment>();
+		for(AbstractCodeFragment leaf2 : leaves2) {
+			if(leaf1.getString().equals(leaf2.getString()) || preprocessInput(leaf1, leaf2).equals(preprocessInput(leaf2, leaf1))) {
+				identicalLeaves.add(leaf2);
+			}
+		}
+		return identicalLeaves;
+	}
+
+	private static String preprocessInput(AbstractCodeFragment leaf1, AbstractCodeFragment leaf2) {
+		String argumentizedString = leaf1.getArgumentizedString();
+		if (leaf1 instanceof StatementObject && leaf2 instanceof AbstractExpression) {
+			if (argumentizedString.startsWith("return ") && argumentizedString.endsWith(";\n")) {
+				argumentizedString = argumentizedString.substring("return ".length(), argumentizedString.lastIndexOf(";\n"));
+			}
+		}
+		return argumentizedString;
+	}
+
+	//the statements and the expressions of composite statements, both compared as leaves by processLeaves
+	private static List<AbstractCodeFragment> leaves(UMLModel model) {
+		List<AbstractCodeFragment> leaves = new ArrayList<AbstractCodeFragment>();
+		for(UMLClass umlClass : model.getClassList()) {
+			for(UMLOperation operation : umlClass.getOperations()) {
+				if(operation.getBody() != null) {
+					CompositeStatementObject composite = operation.getBody().getCompositeStatement();
+					leaves.addAll(composite.getLeaves());
+					for(CompositeStatementObject innerNode : composite.getInnerNodes()) {
+						leaves.addAll(innerNode.getExpressions());
+					}
+				}
+			}
+		}
+		return leaves;
+	}
+}
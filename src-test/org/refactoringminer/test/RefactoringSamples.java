@@ -0,0 +1,375 @@
+package org.refactoringminer.test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.refactoringminer.api.Refactoring;
+import org.refactoringminer.api.RefactoringMinerTimedOutException;
+import org.refactoringminer.util.Deadline;
+
+import gr.uom.java.xmi.UMLModel;
+import gr.uom.java.xmi.UMLModelASTReader;
+
+/**
+ * Sources of a small project before and after a commit with moved, renamed and extracted classes and operations, used to
+ * check that two ways of building and diffing the models detect the same refactorings.
+ */
+public class RefactoringSamples {
+
+	public static Map<String, String> before() {
+		Map<String, String> files = new LinkedHashMap<String, String>();
+		files.put("src/shop/Order.java", lines(
+				"package shop;",
+				"import java.util.ArrayList;",
+				"import java.util.List;",
+				"import shop.util.Formatter;",
+				"public class Order {",
+				"	private List<Item> items = new ArrayList<Item>();",
+				"	private Customer customer;",
+				"	private String currency;",
+				"	public Order(Customer customer, String currency) {",
+				"		this.customer = customer;",
+				"		this.currency = currency;",
+				"	}",
+				"	public void add(Item item) {",
+				"		items.add(item);",
+				"	}",
+				"	public double total() {",
+				"		double total = 0;",
+				"		for (Item item : items) {",
+				"			total += item.getPrice() * item.getQuantity();",
+				"		}",
+				"		if (customer.isPremium()) {",
+				"			total = total * 0.9;",
+				"		}",
+				"		if (total > 1000) {",
+				"			total = total - 50;",
+				"		}",
+				"		return total;",
+				"	}",
+				"	public double loyaltyPoints() {",
+				"		int years = customer.getYears();",
+				"		double points = years * 10;",
+				"		if (customer.isPremium()) {",
+				"			points = points * 2;",
+				"		}",
+				"		return points;",
+				"	}",
+				"	public String receipt() {",
+				"		StringBuilder sb = new StringBuilder();",
+				"		for (Item item : items) {",
+				"			sb.append(item.getName());",
+				"			sb.append(' ');",
+				"			sb.append(Formatter.format(item.getPrice(), currency));",
+				"			sb.append('\\n');",
+				"		}",
+				"		sb.append(Formatter.format(total(), currency));",
+				"		return sb.toString();",
+				"	}",
+				"}"));
+		files.put("src/shop/Customer.java", lines(
+				"package shop;",
+				"public class Customer {",
+				"	private String name;",
+				"	private boolean premium;",
+				"	private int years;",
+				"	public Customer(String name, boolean premium, int years) {",
+				"		this.name = name;",
+				"		this.premium = premium;",
+				"		this.years = years;",
+				"	}",
+				"	public String getName() {",
+				"		return name;",
+				"	}",
+				"	public boolean isPremium() {",
+				"		return premium;",
+				"	}",
+				"	public int getYears() {",
+				"		return years;",
+				"	}",
+				"}"));
+		files.put("src/shop/Item.java", lines(
+				"package shop;",
+				"public class Item {",
+				"	private String name;",
+				"	private double price;",
+				"	private int quantity;",
+				"	public Item(String name, double price, int quantity) {",
+				"		this.name = name;",
+				"		this.price = price;",
+				"		this.quantity = quantity;",
+				"	}",
+				"	public String getName() {",
+				"		return name;",
+				"	}",
+				"	public double getPrice() {",
+				"		return price;",
+				"	}",
+				"	public int getQuantity() {",
+				"		return quantity;",
+				"	}",
+				"}"));
+		files.put("src/shop/util/Formatter.java", lines(
+				"package shop.util;",
+				"public class Formatter {",
+				"	public static String format(double amount, String currency) {",
+				"		String value = String.format(\"%.2f\", amount);",
+				"		if (currency == null) {",
+				"			return value;",
+				"		}",
+				"		return value + \" \" + currency;",
+				"	}",
+				"	public static String pad(String value, int width) {",
+				"		StringBuilder sb = new StringBuilder(value);",
+				"		while (sb.length() < width) {",
+				"			sb.append(' ');",
+				"		}",
+				"		return sb.toString();",
+				"	}",
+				"}"));
+		files.put("src/shop/Invoice.java", lines(
+				"package shop;",
+				"public class Invoice {",
+				"	private Order order;",
+				"	private int number;",
+				"	public Invoice(Order order, int number) {",
+				"		this.order = order;",
+				"		this.number = number;",
+				"	}",
+				"	public String header() {",
+				"		String header = \"Invoice \" + number;",
+				"		if (order.total() > 0) {",
+				"			header = header + \" due\";",
+				"		}",
+				"		return header;",
+				"	}",
+				"	public String body() {",
+				"		StringBuilder sb = new StringBuilder(header());",
+				"		sb.append('\\n');",
+				"		sb.append(order.receipt());",
+				"		return sb.toString();",
+				"	}",
+				"}"));
+		files.put("src/shop/shapes/Shape.java", lines(
+				"package shop.shapes;",
+				"public abstract class Shape {",
+				"	protected String name;",
+				"	public abstract double area();",
+				"}"));
+		files.put("src/shop/shapes/Circle.java", lines(
+				"package shop.shapes;",
+				"public class Circle extends Shape {",
+				"	private double radius;",
+				"	public Circle(double radius) {",
+				"		this.radius = radius;",
+				"		this.name = \"circle\";",
+				"	}",
+				"	public double area() {",
+				"		return Math.PI * radius * radius;",
+				"	}",
+				"	public String describe() {",
+				"		StringBuilder sb = new StringBuilder(name);",
+				"		sb.append(\" with area \");",
+				"		sb.append(area());",
+				"		return sb.toString();",
+				"	}",
+				"}"));
+		files.put("src/shop/shapes/Square.java", lines(
+				"package shop.shapes;",
+				"public class Square extends Shape {",
+				"	private double side;",
+				"	public Square(double side) {",
+				"		this.side = side;",
+				"		this.name = \"square\";",
+				"	}",
+				"	public double area() {",
+				"		return side * side;",
+				"	}",
+				"	public String describe() {",
+				"		StringBuilder sb = new StringBuilder(name);",
+				"		sb.append(\" with area \");",
+				"		sb.append(area());",
+				"		return sb.toString();",
+				"	}",
+				"}"));
+		return files;
+	}
+
+	public static Map<String, String> after() {
+		Map<String, String> files = new LinkedHashMap<String, String>();
+		files.put("src/shop/Order.java", lines(
+				"package shop;",
+				"import java.util.ArrayList;",
+				"import java.util.List;",
+				"import shop.format.Formatter;",
+				"public class Order {",
+				"	private List<Item> items = new ArrayList<Item>();",
+				"	private Customer customer;",
+				"	private String currencyCode;",
+				"	public Order(Customer customer, String currencyCode) {",
+				"		this.customer = customer;",
+				"		this.currencyCode = currencyCode;",
+				"	}",
+				"	public void add(Item item) {",
+				"		items.add(item);",
+				"	}",
+				"	public double total() {",
+				"		double total = subtotal();",
+				"		if (customer.isPremium()) {",
+				"			total = total * 0.9;",
+				"		}",
+				"		if (total > 1000) {",
+				"			total = total - 50;",
+				"		}",
+				"		return total;",
+				"	}",
+				"	private double subtotal() {",
+				"		double total = 0;",
+				"		for (Item item : items) {",
+				"			total += item.getPrice() * item.getQuantity();",
+				"		}",
+				"		return total;",
+				"	}",
+				"	public double loyaltyPoints() {",
+				"		return customer.loyaltyPoints();",
+				"	}",
+				"	public String receipt() {",
+				"		StringBuilder sb = new StringBuilder();",
+				"		for (Item item : items) {",
+				"			sb.append(item.getName());",
+				"			sb.append(' ');",
+				"			sb.append(Formatter.format(item.getPrice(), currencyCode));",
+				"			sb.append('\\n');",
+				"		}",
+				"		sb.append(Formatter.format(total(), currencyCode));",
+				"		return sb.toString();",
+				"	}",
+				"}"));
+		files.put("src/shop/Customer.java", lines(
+				"package shop;",
+				"public class Customer {",
+				"	private String name;",
+				"	private boolean premium;",
+				"	private int years;",
+				"	public Customer(String name, boolean premium, int years) {",
+				"		this.name = name;",
+				"		this.premium = premium;",
+				"		this.years = years;",
+				"	}",
+				"	public String getName() {",
+				"		return name;",
+				"	}",
+				"	public boolean isPremium() {",
+				"		return premium;",
+				"	}",
+				"	public int getYears() {",
+				"		return years;",
+				"	}",
+				"	public double loyaltyPoints() {",
+				"		double points = years * 10;",
+				"		if (premium) {",
+				"			points = points * 2;",
+				"		}",
+				"		return points;",
+				"	}",
+				"}"));
+		files.put("src/shop/Item.java", before().get("src/shop/Item.java"));
+		files.put("src/shop/format/Formatter.java", before().get("src/shop/util/Formatter.java").replace("package shop.util;", "package shop.format;"));
+		files.put("src/shop/Bill.java", lines(
+				"package shop;",
+				"public class Bill {",
+				"	private Order order;",
+				"	private int number;",
+				"	public Bill(Order order, int number) {",
+				"		this.order = order;",
+				"		this.number = number;",
+				"	}",
+				"	public String title() {",
+				"		String header = \"Invoice \" + number;",
+				"		if (order.total() > 0) {",
+				"			header = header + \" due\";",
+				"		}",
+				"		return header;",
+				"	}",
+				"	public String body() {",
+				"		StringBuilder sb = new StringBuilder(title());",
+				"		sb.append('\\n');",
+				"		sb.append(order.receipt());",
+				"		return sb.toString();",
+				"	}",
+				"}"));
+		files.put("src/shop/shapes/Shape.java", lines(
+				"package shop.shapes;",
+				"public abstract class Shape {",
+				"	protected String name;",
+				"	public abstract double area();",
+				"	public String describe() {",
+				"		StringBuilder sb = new StringBuilder(name);",
+				"		sb.append(\" with area \");",
+				"		sb.append(area());",
+				"		return sb.toString();",
+				"	}",
+				"}"));
+		files.put("src/shop/shapes/Circle.java", lines(
+				"package shop.shapes;",
+				"public class Circle extends Shape {",
+				"	private double radius;",
+				"	public Circle(double radius) {",
+				"		this.radius = radius;",
+				"		this.name = \"circle\";",
+				"	}",
+				"	public double area() {",
+				"		return Math.PI * radius * radius;",
+				"	}",
+				"}"));
+		files.put("src/shop/shapes/Square.java", lines(
+				"package shop.shapes;",
+				"public class Square extends Shape {",
+				"	private double side;",
+				"	public Square(double side) {",
+				"		this.side = side;",
+				"		this.name = \"square\";",
+				"	}",
+				"	public double area() {",
+				"		return side * side;",
+				"	}",
+				"}"));
+		return files;
+	}
+
+	public static Set<String> directories(Map<String, String> files) {
+		Set<String> directories = new LinkedHashSet<String>();
+		for(String path : files.keySet()) {
+			String directory = path;
+			while(directory.contains("/")) {
+				directory = directory.substring(0, directory.lastIndexOf("/"));
+				directories.add(directory);
+			}
+		}
+		return directories;
+	}
+
+	public static UMLModel parse(Map<String, String> files, int parserThreads) throws RefactoringMinerTimedOutException {
+		return new UMLModelASTReader(files, directories(files), parserThreads).getUmlModel();
+	}
+
+	public static List<String> refactorings(UMLModel parentModel, UMLModel currentModel, int classDiffThreads) throws RefactoringMinerTimedOutException {
+		List<String> refactorings = new ArrayList<String>();
+		for(Refactoring refactoring : parentModel.diff(currentModel, Deadline.NONE, classDiffThreads).getRefactorings()) {
+			refactorings.add(refactoring.toString());
+		}
+		return refactorings;
+	}
+
+	public static List<String> refactorings(Map<String, String> before, Map<String, String> after) throws RefactoringMinerTimedOutException {
+		return refactorings(parse(before, 1), parse(after, 1), 1);
+	}
+
+	private static String lines(String... lines) {
+		return String.join("\n", lines) + "\n";
+	}
+}
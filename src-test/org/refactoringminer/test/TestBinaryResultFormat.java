@@ -0,0 +1,114 @@
+package org.refactoringminer.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.junit.Assert;
+import org.junit.Test;
+import org.refactoringminer.api.Refactoring;
+import org.refactoringminer.api.RefactoringType;
+import org.refactoringminer.util.ArchivedRefactoring;
+import org.refactoringminer.util.BinaryResultReader;
+import org.refactoringminer.util.BinaryResultWriter;
+
+import gr.uom.java.xmi.LocationInfo.CodeElementType;
+import gr.uom.java.xmi.diff.CodeRange;
+
+public class TestBinaryResultFormat {
+	private static final String REPOSITORY = "https://github.com/example/project.git";
+	private static final String COMMIT1 = "1111111111111111111111111111111111111111";
+	private static final String COMMIT2 = "2222222222222222222222222222222222222222";
+	private static final String COMMIT3 = "3333333333333333333333333333333333333333";
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		List<List<Refactoring>> commits = Arrays.asList(refactorings("A", "B"), Collections.<Refactoring>emptyList(), refactorings("B", "C"));
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (BinaryResultWriter writer = new BinaryResultWriter(bytes)) {
+			writer.writeCommit(REPOSITORY, COMMIT1, commits.get(0));
+			writer.writeCommit(REPOSITORY, COMMIT2, commits.get(1));
+			writer.writeCommit(REPOSITORY, COMMIT3, commits.get(2));
+		}
+		assertCommits(bytes.toByteArray(), commits, COMMIT1, COMMIT2, COMMIT3);
+	}
+
+	@Test
+	public void testRoundTripWithStringTableResets() throws IOException {
+		List<List<Refactoring>> commits = Arrays.asList(refactorings("A", "B"), refactorings("B", "C"), refactorings("A", "C"));
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (BinaryResultWriter writer = new BinaryResultWriter(bytes, 2)) {
+			writer.writeCommit(REPOSITORY, COMMIT1, commits.get(0));
+			writer.writeCommit(REPOSITORY, COMMIT2, commits.get(1));
+			writer.writeCommit(REPOSITORY, COMMIT3, commits.get(2));
+		}
+		assertCommits(bytes.toByteArray(), commits, COMMIT1, COMMIT2, COMMIT3);
+	}
+
+	@Test
+	public void testIncompleteCommitIsDropped() throws IOException {
+		List<List<Refactoring>> commits = Arrays.asList(refactorings("A", "B"), refactorings("B", "C"));
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		BinaryResultWriter writer = new BinaryResultWriter(bytes);
+		writer.writeCommit(REPOSITORY, COMMIT1, commits.get(0));
+		//every commit is flushed, so the stream holds exactly the first commit here
+		int firstCommitEnd = bytes.size();
+		writer.writeCommit(REPOSITORY, COMMIT2, commits.get(1));
+		int secondCommitEnd = bytes.size();
+		byte[] data = bytes.toByteArray();
+		for(int length = firstCommitEnd; length < secondCommitEnd; length++) {
+			assertCommits(Arrays.copyOf(data, length), commits.subList(0, 1), COMMIT1);
+		}
+		assertCommits(data, commits, COMMIT1, COMMIT2);
+	}
+
+	private static void assertCommits(byte[] data, List<List<Refactoring>> expected, String... commitIds) throws IOException {
+		try (BinaryResultReader reader = new BinaryResultReader(new ByteArrayInputStream(data))) {
+			for(int i = 0; i < commitIds.length; i++) {
+				BinaryResultReader.Commit commit = reader.next();
+				Assert.assertNotNull(commit);
+				Assert.assertEquals(REPOSITORY, commit.getRepository());
+				Assert.assertEquals(commitIds[i], commit.getCommitId());
+				Assert.assertEquals(expected.get(i).size(), commit.getRefactorings().size());
+				for(int j = 0; j < expected.get(i).size(); j++) {
+					Refactoring expectedRefactoring = expected.get(i).get(j);
+					ArchivedRefactoring actualRefactoring = commit.getRefactorings().get(j);
+					Assert.assertEquals(expectedRefactoring.getRefactoringType(), actualRefactoring.getRefactoringType());
+					Assert.assertEquals(expectedRefactoring.getInvolvedClassesBeforeRefactoring(), actualRefactoring.getInvolvedClassesBeforeRefactoring());
+					Assert.assertEquals(expectedRefactoring.getInvolvedClassesAfterRefactoring(), actualRefactoring.getInvolvedClassesAfterRefactoring());
+					Assert.assertEquals(expectedRefactoring.toJSON(), actualRefactoring.toJSON());
+				}
+			}
+			Assert.assertNull(reader.next());
+			Assert.assertNull(reader.next());
+		}
+	}
+
+	private static List<Refactoring> refactorings(String... classNames) {
+		List<Refactoring> refactorings = new ArrayList<Refactoring>();
+		for(String className : classNames) {
+			String filePath = "src/org/example/" + className + ".java";
+			Set<ImmutablePair<String, String>> involvedClassesBefore = new LinkedHashSet<ImmutablePair<String, String>>();
+			involvedClassesBefore.add(ImmutablePair.of(filePath, "org.example." + className));
+			Set<ImmutablePair<String, String>> involvedClassesAfter = new LinkedHashSet<ImmutablePair<String, String>>();
+			involvedClassesAfter.add(ImmutablePair.of(filePath, "org.example." + className + "Renamed"));
+			CodeRange before = new CodeRange(filePath, 3, 20, 1, -1, CodeElementType.TYPE_DECLARATION);
+			before.setDescription("original type declaration");
+			before.setCodeElement("org.example." + className);
+			CodeRange after = new CodeRange(filePath, 3, 21, 1, 2, CodeElementType.TYPE_DECLARATION);
+			after.setDescription("renamed type declaration");
+			after.setCodeElement(null);
+			refactorings.add(new ArchivedRefactoring(RefactoringType.RENAME_CLASS,
+					"Rename Class\torg.example." + className + " renamed to org.example." + className + "Renamed",
+					involvedClassesBefore, involvedClassesAfter, Collections.singletonList(before), Collections.singletonList(after)));
+		}
+		return refactorings;
+	}
+}
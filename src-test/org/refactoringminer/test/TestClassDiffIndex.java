@@ -0,0 +1,91 @@
+package org.refactoringminer.test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.refactoringminer.util.Deadline;
+
+import gr.uom.java.xmi.UMLAttribute;
+import gr.uom.java.xmi.UMLClass;
+import gr.uom.java.xmi.UMLModel;
+import gr.uom.java.xmi.UMLOperation;
+import gr.uom.java.xmi.UMLParameter;
+import gr.uom.java.xmi.UMLType;
+import gr.uom.java.xmi.diff.UMLClassBaseDiff;
+import gr.uom.java.xmi.diff.UMLModelDiff;
+
+public class TestClassDiffIndex {
+
+	@Test
+	public void testIndexMatchesLinearScan() throws Exception {
+		UMLModel parentModel = RefactoringSamples.parse(RefactoringSamples.before(), 1);
+		UMLModel currentModel = RefactoringSamples.parse(RefactoringSamples.after(), 1);
+		UMLModelDiff modelDiff = parentModel.diff(currentModel, Deadline.NONE, 1);
+		Assert.assertFalse(modelDiff.getRefactorings().isEmpty());
+		Assert.assertFalse(modelDiff.getCommonClassDiffList().isEmpty());
+		Assert.assertFalse(modelDiff.getClassMoveDiffList().isEmpty() && modelDiff.getClassRenameDiffList().isEmpty());
+		Set<String> classNames = new LinkedHashSet<String>();
+		Set<UMLType> types = new LinkedHashSet<UMLType>();
+		for(UMLModel model : new UMLModel[] {parentModel, currentModel}) {
+			for(UMLClass umlClass : model.getClassList()) {
+				//the qualified name and every suffix of it, down to the simple name
+				String className = umlClass.getName();
+				classNames.add(className);
+				for(int index = className.indexOf("."); index != -1; index = className.indexOf(".", index + 1)) {
+					classNames.add(className.substring(index + 1));
+				}
+				for(UMLAttribute attribute : umlClass.getAttributes()) {
+					types.add(attribute.getType());
+				}
+				for(UMLOperation operation : umlClass.getOperations()) {
+					for(UMLParameter parameter : operation.getParameters()) {
+						types.add(parameter.getType());
+					}
+				}
+			}
+		}
+		classNames.add("shop.Unknown");
+		int found = 0;
+		for(String className : classNames) {
+			UMLClassBaseDiff expected = null;
+			for(UMLClassBaseDiff classDiff : classDiffs(modelDiff)) {
+				if(classDiff.matches(className)) {
+					expected = classDiff;
+					break;
+				}
+			}
+			Assert.assertSame(className, expected, modelDiff.getUMLClassDiff(className));
+			if(expected != null) {
+				found++;
+			}
+		}
+		for(UMLType type : types) {
+			UMLClassBaseDiff expected = null;
+			for(UMLClassBaseDiff classDiff : classDiffs(modelDiff)) {
+				if(classDiff.matches(type)) {
+					expected = classDiff;
+					break;
+				}
+			}
+			Assert.assertSame(type.toString(), expected, modelDiff.getUMLClassDiff(type));
+			if(expected != null) {
+				found++;
+			}
+		}
+		Assert.assertTrue(found > 0);
+	}
+
+	//the class diffs in the order in which getUMLClassDiff looked them up before they were indexed
+	private static List<UMLClassBaseDiff> classDiffs(UMLModelDiff modelDiff) {
+		List<UMLClassBaseDiff> classDiffs = new ArrayList<UMLClassBaseDiff>();
+		classDiffs.addAll(modelDiff.getCommonClassDiffList());
+		classDiffs.addAll(modelDiff.getClassMoveDiffList());
+		classDiffs.addAll(modelDiff.getInnerClassMoveDiffList());
+		classDiffs.addAll(modelDiff.getClassRenameDiffList());
+		return classDiffs;
+	}
+}
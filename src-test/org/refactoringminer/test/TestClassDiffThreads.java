@@ -0,0 +1,26 @@
+package org.refactoringminer.test;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import gr.uom.java.xmi.UMLModel;
+
+public class TestClassDiffThreads {
+
+	@Test
+	public void testConcurrentClassDiffsDetectTheSameRefactorings() throws Exception {
+		UMLModel parentModel = RefactoringSamples.parse(RefactoringSamples.before(), 1);
+		UMLModel currentModel = RefactoringSamples.parse(RefactoringSamples.after(), 1);
+		List<String> expected = RefactoringSamples.refactorings(parentModel, currentModel, 1);
+		Assert.assertFalse(expected.isEmpty());
+		for(int threads = 2; threads <= 8; threads *= 2) {
+			for(int i = 0; i < 5; i++) {
+				UMLModel parent = RefactoringSamples.parse(RefactoringSamples.before(), 1);
+				UMLModel current = RefactoringSamples.parse(RefactoringSamples.after(), 1);
+				Assert.assertEquals(expected, RefactoringSamples.refactorings(parent, current, threads));
+			}
+		}
+	}
+}
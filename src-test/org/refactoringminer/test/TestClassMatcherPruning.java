@@ -0,0 +1,73 @@
+package org.refactoringminer.test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import gr.uom.java.xmi.UMLClass;
+import gr.uom.java.xmi.UMLClassMatcher;
+import gr.uom.java.xmi.UMLClassMatcher.MatchResult;
+
+public class TestClassMatcherPruning {
+	private static final UMLClassMatcher[] MATCHERS = {
+			new UMLClassMatcher.Move(), new UMLClassMatcher.RelaxedMove(), new UMLClassMatcher.ExtremelyRelaxedMove(),
+			new UMLClassMatcher.Rename(), new UMLClassMatcher.RelaxedRename(), new UMLClassMatcher.ExtremelyRelaxedRename()};
+
+	@Test
+	public void testPrunedPairsDoNotMatch() throws Exception {
+		List<UMLClass> removedClasses = RefactoringSamples.parse(RefactoringSamples.before(), 1).getClassList();
+		List<UMLClass> addedClasses = RefactoringSamples.parse(RefactoringSamples.after(), 1).getClassList();
+		int prunedPairs = 0;
+		int matchedPairs = 0;
+		for(UMLClassMatcher matcher : MATCHERS) {
+			for(UMLClass removedClass : removedClasses) {
+				for(UMLClass addedClass : addedClasses) {
+					boolean match = matcher.match(removedClass, addedClass).isMatch();
+					if(!matcher.isCandidate(removedClass, addedClass)) {
+						Assert.assertFalse(matcher.getClass().getSimpleName() + " " + removedClass + " " + addedClass, match);
+						prunedPairs++;
+					}
+					else if(match) {
+						matchedPairs++;
+					}
+				}
+			}
+		}
+		Assert.assertTrue(prunedPairs > 0);
+		Assert.assertTrue(matchedPairs > 0);
+	}
+
+	@Test
+	public void testMatchResultsDoNotDependOnPreviousMatches() throws Exception {
+		List<UMLClass> removedClasses = RefactoringSamples.parse(RefactoringSamples.before(), 1).getClassList();
+		List<UMLClass> addedClasses = RefactoringSamples.parse(RefactoringSamples.after(), 1).getClassList();
+		for(UMLClassMatcher matcher : MATCHERS) {
+			List<String> results = matchAll(matcher, removedClasses, addedClasses);
+			//the memoized result of a pair is reused whatever the pairs matched in between
+			List<String> reversedResults = matchAll(matcher, reversed(removedClasses), reversed(addedClasses));
+			Collections.reverse(reversedResults);
+			Assert.assertEquals(results, reversedResults);
+		}
+	}
+
+	private static List<String> matchAll(UMLClassMatcher matcher, List<UMLClass> removedClasses, List<UMLClass> addedClasses) {
+		List<String> results = new ArrayList<String>();
+		for(UMLClass removedClass : removedClasses) {
+			for(UMLClass addedClass : addedClasses) {
+				MatchResult result = matcher.match(removedClass, addedClass);
+				results.add(removedClass + " " + addedClass + " " + result.isMatch() + " " + result.getMatchedOperations() + " " +
+						result.getMatchedAttributes() + " " + result.getTotalOperations() + " " + result.getTotalAttributes());
+			}
+		}
+		return results;
+	}
+
+	private static List<UMLClass> reversed(List<UMLClass> classes) {
+		List<UMLClass> reversed = new ArrayList<UMLClass>(classes);
+		Collections.reverse(reversed);
+		return reversed;
+	}
+}
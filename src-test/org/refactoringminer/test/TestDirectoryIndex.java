@@ -0,0 +1,86 @@
+package org.refactoringminer.test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.dircache.DirCacheBuilder;
+import org.eclipse.jgit.dircache.DirCacheEntry;
+import org.eclipse.jgit.internal.storage.dfs.DfsRepositoryDescription;
+import org.eclipse.jgit.internal.storage.dfs.InMemoryRepository;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.junit.Assert;
+import org.junit.Test;
+import org.refactoringminer.util.DirectoryIndex;
+import org.refactoringminer.util.DirectoryIndexCache;
+
+public class TestDirectoryIndex {
+
+	@Test
+	public void testDeriveMatchesBuild() throws IOException {
+		try (InMemoryRepository repository = new InMemoryRepository(new DfsRepositoryDescription("test"));
+				ObjectInserter inserter = repository.newObjectInserter();
+				ObjectReader reader = repository.newObjectReader()) {
+			List<ObjectId> trees = Arrays.asList(
+					tree(inserter, "src/a/A.java", "src/a/B.java", "src/b/C.java", "docs/readme.txt", "Main.java"),
+					//a file modified, a directory emptied and a new nested directory
+					tree(inserter, "src/a/A.java:changed", "src/a/B.java", "src/c/d/D.java", "docs/readme.txt", "Main.java"),
+					//a directory keeping only a non java file, and a file moved to another directory
+					tree(inserter, "src/a/A.java:changed", "src/c/d/B.java", "src/c/d/D.java", "src/b/notes.txt"),
+					tree(inserter),
+					tree(inserter, "x/y/z/Z.java", "x/Y.java"));
+			inserter.flush();
+			for (ObjectId from : trees) {
+				DirectoryIndex index = DirectoryIndex.build(reader, from);
+				for (ObjectId to : trees) {
+					DirectoryIndex derived = index.derive(reader, to);
+					DirectoryIndex built = DirectoryIndex.build(reader, to);
+					Assert.assertEquals(to, derived.getTreeId());
+					Assert.assertEquals(new TreeSet<String>(built.getDirectories()), new TreeSet<String>(derived.getDirectories()));
+					Assert.assertEquals(built.size(), derived.size());
+				}
+			}
+			Assert.assertEquals(new TreeSet<String>(Arrays.asList("src", "src/a", "src/b")),
+					new TreeSet<String>(DirectoryIndex.build(reader, trees.get(0)).getDirectories()));
+		}
+	}
+
+	@Test
+	public void testCacheDerivesFromRecentIndex() throws IOException {
+		try (InMemoryRepository repository = new InMemoryRepository(new DfsRepositoryDescription("test"));
+				ObjectInserter inserter = repository.newObjectInserter();
+				ObjectReader reader = repository.newObjectReader()) {
+			ObjectId tree1 = tree(inserter, "src/a/A.java", "src/b/B.java");
+			ObjectId tree2 = tree(inserter, "src/a/A.java", "src/c/C.java");
+			inserter.flush();
+			DirectoryIndexCache cache = new DirectoryIndexCache(1);
+			DirectoryIndex index1 = cache.get(reader, tree1);
+			Assert.assertSame(index1, cache.get(reader, tree1));
+			DirectoryIndex index2 = cache.get(reader, tree2);
+			Assert.assertEquals(DirectoryIndex.build(reader, tree2).getDirectories(), index2.getDirectories());
+		}
+	}
+
+	//each path may be followed by a colon and the contents of the file, which is otherwise its path
+	private static ObjectId tree(ObjectInserter inserter, String... files) throws IOException {
+		DirCache dirCache = DirCache.newInCore();
+		DirCacheBuilder builder = dirCache.builder();
+		for (String file : new TreeSet<String>(Arrays.asList(files))) {
+			int separator = file.indexOf(':');
+			String path = separator >= 0 ? file.substring(0, separator) : file;
+			DirCacheEntry entry = new DirCacheEntry(path);
+			entry.setFileMode(FileMode.REGULAR_FILE);
+			entry.setObjectId(inserter.insert(Constants.OBJ_BLOB, file.getBytes(StandardCharsets.UTF_8)));
+			builder.add(entry);
+		}
+		builder.finish();
+		return dirCache.writeTree(inserter);
+	}
+}
@@ -0,0 +1,107 @@
+package org.refactoringminer.test;
+
+import java.util.Random;
+
+import org.apache.commons.text.similarity.LevenshteinDistance;
+import org.junit.Assert;
+import org.junit.Test;
+
+import gr.uom.java.xmi.diff.StringDistance;
+
+public class TestEditDistance {
+	private static final String ASCII_ALPHABET = "abcde(){};.= ";
+	private static final String MIXED_ALPHABET = "ab\u00e9\u03bb\u4e2d(";
+
+	@Test
+	public void testSpecialCases() {
+		assertDistance("", "");
+		assertDistance("", "abc");
+		assertDistance("abc", "");
+		assertDistance("abc", "abc");
+		assertDistance("kitten", "sitting");
+		assertDistance("flaw", "lawn");
+		assertDistance("return x;", "return y;");
+		assertDistance("prefix-middle-suffix", "prefix-suffix");
+		assertDistance("\u03bb\u03bb\u03bb", "\u03bb\u4e2d\u03bb");
+	}
+
+	@Test
+	public void testShortStrings() {
+		//patterns up to 64 characters are computed with the bit-parallel algorithm
+		assertRandomStrings(new Random(1), ASCII_ALPHABET, 64, 2000);
+		assertRandomStrings(new Random(2), MIXED_ALPHABET, 64, 2000);
+	}
+
+	@Test
+	public void testLongStrings() {
+		//longer patterns are computed with the banded dynamic programming matrix
+		assertRandomStrings(new Random(3), ASCII_ALPHABET, 300, 300);
+		assertRandomStrings(new Random(4), MIXED_ALPHABET, 300, 300);
+	}
+
+	@Test
+	public void testSimilarLongStrings() {
+		Random random = new Random(5);
+		for(int i = 0; i < 300; i++) {
+			String a = randomString(random, ASCII_ALPHABET, 65 + random.nextInt(200));
+			String b = mutate(random, a, ASCII_ALPHABET, random.nextInt(10));
+			assertDistance(a, b);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeThreshold() {
+		StringDistance.editDistance("a", "b", -1);
+	}
+
+	private static void assertRandomStrings(Random random, String alphabet, int maxLength, int count) {
+		for(int i = 0; i < count; i++) {
+			String a = randomString(random, alphabet, random.nextInt(maxLength + 1));
+			String b = random.nextBoolean() ? randomString(random, alphabet, random.nextInt(maxLength + 1)) : mutate(random, a, alphabet, random.nextInt(6));
+			assertDistance(a, b);
+		}
+	}
+
+	private static void assertDistance(String a, String b) {
+		int expected = new LevenshteinDistance().apply(a, b);
+		Assert.assertEquals(a + " / " + b, expected, StringDistance.editDistance(a, b));
+		//the thresholds around the distance check both sides of the cutoff
+		for(int threshold = Math.max(0, expected - 3); threshold <= expected + 3; threshold++) {
+			Assert.assertEquals(a + " / " + b + " within " + threshold,
+					new LevenshteinDistance(threshold).apply(a, b).intValue(), StringDistance.editDistance(a, b, threshold));
+		}
+		Assert.assertEquals(new LevenshteinDistance(0).apply(a, b).intValue(), StringDistance.editDistance(a, b, 0));
+	}
+
+	private static String randomString(Random random, String alphabet, int length) {
+		StringBuilder sb = new StringBuilder(length);
+		for(int i = 0; i < length; i++) {
+			sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+		}
+		return sb.toString();
+	}
+
+	private static String mutate(Random random, String s, String alphabet, int edits) {
+		StringBuilder sb = new StringBuilder(s);
+		for(int i = 0; i < edits; i++) {
+			int position = sb.length() == 0 ? 0 : random.nextInt(sb.length());
+			char c = alphabet.charAt(random.nextInt(alphabet.length()));
+			switch(random.nextInt(3)) {
+			case 0:
+				sb.insert(position, c);
+				break;
+			case 1:
+				if(sb.length() > 0) {
+					sb.deleteCharAt(position);
+				}
+				break;
+			default:
+				if(sb.length() > 0) {
+					sb.setCharAt(position, c);
+				}
+				break;
+			}
+		}
+		return sb.toString();
+	}
+}
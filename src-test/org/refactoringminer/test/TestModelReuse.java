@@ -0,0 +1,81 @@
+package org.refactoringminer.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Repository;
+import org.junit.Assert;
+import org.junit.Test;
+import org.refactoringminer.api.Refactoring;
+import org.refactoringminer.api.RefactoringHandler;
+import org.refactoringminer.rm1.GitHistoryRefactoringMinerImpl;
+
+public class TestModelReuse {
+
+	@Test
+	public void testWalkWithReusedModels() throws Exception {
+		File directory = Files.createTempDirectory("reuse").toFile();
+		try (Git git = Git.init().setDirectory(directory).call()) {
+			String first = commit(git, RefactoringSamples.before(), "first");
+			commit(git, RefactoringSamples.after(), "second");
+			Map<String, String> third = new LinkedHashMap<String, String>(RefactoringSamples.after());
+			third.put("src/shop/Order.java", third.get("src/shop/Order.java").replace("subtotal()", "itemsTotal()"));
+			third.put("src/shop/Customer.java", third.get("src/shop/Customer.java").replace("getYears()", "getMembershipYears()"));
+			String last = commit(git, third, "third");
+			List<String> expected = walk(git.getRepository(), first, last, false);
+			Assert.assertTrue(expected.size() > 2);
+			Assert.assertEquals(expected, walk(git.getRepository(), first, last, true));
+		}
+		finally {
+			FileUtils.deleteDirectory(directory);
+		}
+	}
+
+	//the refactorings are written after the whole walk, so that a change made to them by a later commit shows up
+	private static List<String> walk(Repository repository, String startCommitId, String endCommitId, boolean reuseModels) throws Exception {
+		GitHistoryRefactoringMinerImpl miner = new GitHistoryRefactoringMinerImpl();
+		miner.setReuseModels(reuseModels);
+		Map<String, List<Refactoring>> commits = new LinkedHashMap<String, List<Refactoring>>();
+		miner.detectBetweenCommits(repository, startCommitId, endCommitId, new RefactoringHandler() {
+			@Override
+			public void handle(String commitId, List<Refactoring> refactorings) {
+				commits.put(commitId, refactorings);
+			}
+		});
+		List<String> refactorings = new ArrayList<String>();
+		for (Map.Entry<String, List<Refactoring>> commit : commits.entrySet()) {
+			for (Refactoring refactoring : commit.getValue()) {
+				refactorings.add(commit.getKey() + " " + refactoring.toJSON());
+			}
+		}
+		return refactorings;
+	}
+
+	private static String commit(Git git, Map<String, String> files, String message) throws Exception {
+		File directory = git.getRepository().getWorkTree();
+		for (File file : directory.listFiles()) {
+			if (!file.getName().equals(".git")) {
+				FileUtils.forceDelete(file);
+			}
+		}
+		for (Map.Entry<String, String> file : files.entrySet()) {
+			write(new File(directory, file.getKey()), file.getValue());
+		}
+		git.add().addFilepattern(".").call();
+		git.add().setUpdate(true).addFilepattern(".").call();
+		return git.commit().setMessage(message).setAuthor("author", "author@example.com").setCommitter("author", "author@example.com").call().getName();
+	}
+
+	private static void write(File file, String contents) throws IOException {
+		file.getParentFile().mkdirs();
+		Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,72 @@
+package org.refactoringminer.test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import gr.uom.java.xmi.UMLClass;
+import gr.uom.java.xmi.UMLModel;
+import gr.uom.java.xmi.UMLOperation;
+
+public class TestOperationBodyIndex {
+
+	@Test
+	public void testIndexMatchesLinearScan() throws Exception {
+		List<UMLClass> classes = new ArrayList<UMLClass>();
+		classes.addAll(RefactoringSamples.parse(RefactoringSamples.before(), 1).getClassList());
+		classes.addAll(RefactoringSamples.parse(RefactoringSamples.after(), 1).getClassList());
+		int identicalBodies = 0;
+		for(UMLClass umlClass : classes) {
+			for(UMLClass other : classes) {
+				for(UMLOperation operation : other.getOperations()) {
+					if(operation.getBody() == null) {
+						continue;
+					}
+					List<UMLOperation> expected = new ArrayList<UMLOperation>();
+					for(UMLOperation candidate : umlClass.getOperations()) {
+						if(candidate.getBody() != null && candidate.getBody().identicalBody(operation.getBody())) {
+							expected.add(candidate);
+						}
+					}
+					Assert.assertEquals(expected, umlClass.getOperationsWithIdenticalBody(operation.getBody()));
+					Assert.assertEquals(!expected.isEmpty(), umlClass.containsOperationWithIdenticalBody(operation));
+					if(umlClass != other && !expected.isEmpty()) {
+						identicalBodies++;
+					}
+				}
+			}
+		}
+		Assert.assertTrue(identicalBodies > 0);
+	}
+
+	@Test
+	public void testTiedMoveCandidatesAreNotResolvedByIdenticalBody() throws Exception {
+		//the getter moved to Fast with an identical body ties with the getter added to Slow
+		Map<String, String> before = new LinkedHashMap<String, String>();
+		before.put("src/calc/Engine.java", "package calc;\npublic class Engine {\n\tprivate int base;\n\tpublic int getBase() {\n\t\treturn base;\n\t}\n" +
+				"\tpublic void run() {\n\t\tSystem.out.println(\"run\");\n\t}\n}\n");
+		before.put("src/calc/Fast.java", "package calc;\npublic class Fast {\n\tprivate int base;\n}\n");
+		before.put("src/calc/Slow.java", "package calc;\npublic class Slow {\n\tprivate int base;\n}\n");
+		Map<String, String> after = new LinkedHashMap<String, String>();
+		after.put("src/calc/Engine.java", "package calc;\npublic class Engine {\n\tprivate int base;\n" +
+				"\tpublic void run() {\n\t\tSystem.out.println(\"run\");\n\t}\n}\n");
+		after.put("src/calc/Fast.java", "package calc;\npublic class Fast {\n\tprivate int base;\n\tpublic int getBase() {\n\t\treturn base;\n\t}\n}\n");
+		after.put("src/calc/Slow.java", "package calc;\npublic class Slow {\n\tprivate int base;\n\tpublic int getBase() {\n\t\tbase++;\n\t\treturn base;\n\t}\n}\n");
+		Assert.assertEquals(Collections.singletonList("Encapsulate Attribute\tprivate base : int from class calc.Fast"),
+				RefactoringSamples.refactorings(before, after));
+	}
+
+	@Test
+	public void testMovedOperationWithIdenticalBody() throws Exception {
+		UMLModel parentModel = RefactoringSamples.parse(RefactoringSamples.before(), 1);
+		UMLModel currentModel = RefactoringSamples.parse(RefactoringSamples.after(), 1);
+		List<String> refactorings = RefactoringSamples.refactorings(parentModel, currentModel, 1);
+		Assert.assertTrue(refactorings.contains("Pull Up Method\tpublic describe() : String from class shop.shapes.Circle to public describe() : String from class shop.shapes.Shape"));
+		Assert.assertTrue(refactorings.contains("Pull Up Method\tpublic describe() : String from class shop.shapes.Square to public describe() : String from class shop.shapes.Shape"));
+	}
+}
@@ -0,0 +1,70 @@
+package org.refactoringminer.test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Test;
+import org.refactoringminer.util.ParsedFileCache;
+
+import gr.uom.java.xmi.UMLModel;
+import gr.uom.java.xmi.UMLModelASTReader;
+
+public class TestParsedFileCache {
+
+	@Test
+	public void testCachedModelsDetectTheSameRefactorings() throws Exception {
+		List<String> expected = RefactoringSamples.refactorings(RefactoringSamples.before(), RefactoringSamples.after());
+		Assert.assertFalse(expected.isEmpty());
+		ParsedFileCache cache = new ParsedFileCache(64 * 1024 * 1024);
+		//the first parse fills the cache, the second one reads every file from it
+		for(int i = 0; i < 2; i++) {
+			Assert.assertEquals(expected, RefactoringSamples.refactorings(parse(RefactoringSamples.before(), cache), parse(RefactoringSamples.after(), cache), 1));
+		}
+		assertCached(RefactoringSamples.before(), cache);
+		assertCached(RefactoringSamples.after(), cache);
+	}
+
+	@Test
+	public void testModelsCachedOnDiskDetectTheSameRefactorings() throws Exception {
+		List<String> expected = RefactoringSamples.refactorings(RefactoringSamples.before(), RefactoringSamples.after());
+		File directory = Files.createTempDirectory("models").toFile();
+		try {
+			ParsedFileCache cache = new ParsedFileCache(64 * 1024 * 1024, directory);
+			parse(RefactoringSamples.before(), cache);
+			parse(RefactoringSamples.after(), cache);
+			//a new cache with no memory reads the models written by the previous one
+			ParsedFileCache diskCache = new ParsedFileCache(0, directory);
+			assertCached(RefactoringSamples.before(), diskCache);
+			assertCached(RefactoringSamples.after(), diskCache);
+			Assert.assertEquals(expected, RefactoringSamples.refactorings(parse(RefactoringSamples.before(), diskCache), parse(RefactoringSamples.after(), diskCache), 1));
+		}
+		finally {
+			FileUtils.deleteDirectory(directory);
+		}
+	}
+
+	private static UMLModel parse(Map<String, String> files, ParsedFileCache cache) throws Exception {
+		return new UMLModelASTReader(files, RefactoringSamples.directories(files), 1, contentIds(files), cache).getUmlModel();
+	}
+
+	private static void assertCached(Map<String, String> files, ParsedFileCache cache) {
+		Map<String, String> contentIds = contentIds(files);
+		for(String filePath : files.keySet()) {
+			Assert.assertNotNull(filePath, cache.get(filePath, contentIds.get(filePath)));
+		}
+	}
+
+	//stands for the git blob id of the contents
+	private static Map<String, String> contentIds(Map<String, String> files) {
+		Map<String, String> contentIds = new HashMap<String, String>();
+		for(Map.Entry<String, String> file : files.entrySet()) {
+			contentIds.put(file.getKey(), Integer.toHexString(file.getValue().hashCode()));
+		}
+		return contentIds;
+	}
+}
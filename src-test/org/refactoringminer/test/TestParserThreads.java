@@ -0,0 +1,38 @@
+package org.refactoringminer.test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import gr.uom.java.xmi.UMLClass;
+import gr.uom.java.xmi.UMLModel;
+
+public class TestParserThreads {
+
+	@Test
+	public void testParallelParsingBuildsTheSameModels() throws Exception {
+		List<String> expected = RefactoringSamples.refactorings(RefactoringSamples.parse(RefactoringSamples.before(), 1),
+				RefactoringSamples.parse(RefactoringSamples.after(), 1), 1);
+		Assert.assertFalse(expected.isEmpty());
+		for(int threads = 2; threads <= 8; threads *= 2) {
+			for(int i = 0; i < 5; i++) {
+				UMLModel parent = RefactoringSamples.parse(RefactoringSamples.before(), threads);
+				UMLModel current = RefactoringSamples.parse(RefactoringSamples.after(), threads);
+				Assert.assertEquals(classes(RefactoringSamples.parse(RefactoringSamples.before(), 1)), classes(parent));
+				Assert.assertEquals(classes(RefactoringSamples.parse(RefactoringSamples.after(), 1)), classes(current));
+				Assert.assertEquals(expected, RefactoringSamples.refactorings(parent, current, 1));
+			}
+		}
+	}
+
+	//the classes are merged in the order of the files, so the parsed models list them in the same order
+	private static List<String> classes(UMLModel model) {
+		List<String> classes = new ArrayList<String>();
+		for(UMLClass umlClass : model.getClassList()) {
+			classes.add(umlClass.getName() + " " + umlClass.getOperations() + " " + umlClass.getAttributes());
+		}
+		return classes;
+	}
+}
@@ -0,0 +1,86 @@
+package org.refactoringminer.test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.refactoringminer.util.ProgressStore;
+
+public class TestProgressStore {
+	private static final String COMMIT1 = "1111111111111111111111111111111111111111";
+	private static final String COMMIT2 = "2222222222222222222222222222222222222222";
+	private static final String COMMIT3 = "3333333333333333333333333333333333333333";
+
+	@Test
+	public void testReopen() throws IOException {
+		File file = newFile();
+		try (ProgressStore store = new ProgressStore(file)) {
+			store.recordAnalyzed(COMMIT1, 3);
+			store.recordFailed(COMMIT2);
+		}
+		try (ProgressStore store = new ProgressStore(file)) {
+			Assert.assertTrue(store.isAnalyzed(COMMIT1));
+			Assert.assertEquals(3, store.getRefactoringsCount(COMMIT1));
+			Assert.assertFalse(store.isAnalyzed(COMMIT2));
+			Assert.assertTrue(store.isFailed(COMMIT2));
+			Assert.assertEquals(-1, store.getRefactoringsCount(COMMIT2));
+			Assert.assertFalse(store.isAnalyzed(COMMIT3));
+			Assert.assertFalse(store.isFailed(COMMIT3));
+			Assert.assertEquals(1, store.size());
+			Assert.assertEquals(Collections.singletonList(COMMIT2), store.getFailedCommits());
+		}
+	}
+
+	@Test
+	public void testRetriedFailure() throws IOException {
+		File file = newFile();
+		try (ProgressStore store = new ProgressStore(file)) {
+			store.recordFailed(COMMIT1);
+			store.recordFailed(COMMIT2);
+			store.recordAnalyzed(COMMIT1, 0);
+			//a failure does not override a successful analysis
+			store.recordFailed(COMMIT1);
+			Assert.assertTrue(store.isAnalyzed(COMMIT1));
+			Assert.assertFalse(store.isFailed(COMMIT1));
+		}
+		try (ProgressStore store = new ProgressStore(file)) {
+			Assert.assertTrue(store.isAnalyzed(COMMIT1));
+			Assert.assertFalse(store.isFailed(COMMIT1));
+			Assert.assertEquals(Arrays.asList(COMMIT2), store.getFailedCommits());
+		}
+	}
+
+	@Test
+	public void testIncompleteLastRecord() throws IOException {
+		File file = newFile();
+		try (ProgressStore store = new ProgressStore(file)) {
+			store.recordAnalyzed(COMMIT1, 2);
+		}
+		long length = file.length();
+		try (FileOutputStream out = new FileOutputStream(file, true)) {
+			out.write((COMMIT2 + " o").getBytes(StandardCharsets.US_ASCII));
+		}
+		try (ProgressStore store = new ProgressStore(file)) {
+			Assert.assertEquals(length, file.length());
+			Assert.assertTrue(store.isAnalyzed(COMMIT1));
+			Assert.assertFalse(store.isAnalyzed(COMMIT2));
+			store.recordAnalyzed(COMMIT3, 5);
+		}
+		try (ProgressStore store = new ProgressStore(file)) {
+			Assert.assertEquals(2, store.size());
+			Assert.assertEquals(5, store.getRefactoringsCount(COMMIT3));
+		}
+	}
+
+	private static File newFile() throws IOException {
+		File file = File.createTempFile("progress", ".txt");
+		file.deleteOnExit();
+		file.delete();
+		return file;
+	}
+}
@@ -0,0 +1,98 @@
+package org.refactoringminer.test;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.refactoringminer.util.RemoteFileFetcher;
+
+public class TestRemoteFileFetcher {
+	private static final String REPOSITORY = "example/project";
+	private static final String COMMIT = "1111111111111111111111111111111111111111";
+	private static final String CONTENT = "class A { String s = \"\u00e9 \u03bb \u4e2d\"; }";
+
+	@Test
+	public void testContentsAreDecodedAsUTF8() throws Exception {
+		RemoteFileFetcher fetcher = new RemoteFileFetcher(2, 1, 1, 1, 1024 * 1024);
+		File file = newFile(CONTENT);
+		Assert.assertEquals(CONTENT, fetcher.fetch(REPOSITORY, COMMIT, "A.java", url(file)).get(10, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void testContentsOfFullCommitIdsAreCached() throws Exception {
+		RemoteFileFetcher fetcher = new RemoteFileFetcher(2, 1, 1, 1, 1024 * 1024);
+		File file = newFile(CONTENT);
+		URL url = url(file);
+		Assert.assertEquals(CONTENT, fetcher.fetch(REPOSITORY, COMMIT, "A.java", url).get(10, TimeUnit.SECONDS));
+		Assert.assertTrue(file.delete());
+		//the same commit referred to with an upper case id is found in the cache
+		Assert.assertEquals(CONTENT, fetcher.fetch(REPOSITORY, COMMIT.toUpperCase(), "A.java", url).get(10, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void testContentsOfBranchesAreNotCached() throws Exception {
+		RemoteFileFetcher fetcher = new RemoteFileFetcher(2, 1, 1, 1, 1024 * 1024);
+		File file = newFile(CONTENT);
+		URL url = url(file);
+		Assert.assertEquals(CONTENT, fetcher.fetch(REPOSITORY, "master", "A.java", url).get(10, TimeUnit.SECONDS));
+		Assert.assertTrue(file.delete());
+		assertFailure(fetcher.fetch(REPOSITORY, "master", "A.java", url), FileNotFoundException.class);
+	}
+
+	@Test
+	public void testMissingFileIsNotRetried() throws Exception {
+		//a retry would wait for a minute before failing
+		RemoteFileFetcher fetcher = new RemoteFileFetcher(2, 1, 3, 60000, 1024 * 1024);
+		File file = newFile(CONTENT);
+		Assert.assertTrue(file.delete());
+		assertFailure(fetcher.fetch(REPOSITORY, COMMIT, "A.java", url(file)), FileNotFoundException.class);
+	}
+
+	@Test
+	public void testConcurrentDownloads() throws Exception {
+		RemoteFileFetcher fetcher = new RemoteFileFetcher(4, 2, 1, 1, 1024 * 1024);
+		List<CompletableFuture<String>> downloads = new ArrayList<CompletableFuture<String>>();
+		for (int i = 0; i < 50; i++) {
+			File file = newFile("class A" + i + " {}");
+			downloads.add(fetcher.fetch(REPOSITORY, COMMIT, "A" + i + ".java", url(file)));
+		}
+		for (int i = 0; i < 50; i++) {
+			Assert.assertEquals("class A" + i + " {}", downloads.get(i).get(10, TimeUnit.SECONDS));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTimeoutsMustBePositive() {
+		new RemoteFileFetcher(2, 1, 1, 1, 1024 * 1024, 0, 1000);
+	}
+
+	private static void assertFailure(CompletableFuture<String> download, Class<? extends IOException> expected) throws Exception {
+		try {
+			download.get(10, TimeUnit.SECONDS);
+			Assert.fail("Expected " + expected.getSimpleName());
+		} catch (ExecutionException e) {
+			Assert.assertTrue(String.valueOf(e.getCause()), expected.isInstance(e.getCause()));
+		}
+	}
+
+	private static File newFile(String content) throws IOException {
+		File file = File.createTempFile("RemoteFile", ".java");
+		file.deleteOnExit();
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+
+	private static URL url(File file) throws IOException {
+		return file.toURI().toURL();
+	}
+}
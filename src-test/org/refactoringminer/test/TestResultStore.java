@@ -0,0 +1,113 @@
+package org.refactoringminer.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.junit.Assert;
+import org.junit.Test;
+import org.refactoringminer.api.Refactoring;
+import org.refactoringminer.api.RefactoringType;
+import org.refactoringminer.util.ArchivedRefactoring;
+import org.refactoringminer.util.ResultStore;
+import org.refactoringminer.util.StoredRefactoring;
+
+import gr.uom.java.xmi.diff.CodeRange;
+
+public class TestResultStore {
+	private static final String COMMIT1 = "1111111111111111111111111111111111111111";
+	private static final String COMMIT2 = "2222222222222222222222222222222222222222";
+	private static final String COMMIT3 = "3333333333333333333333333333333333333333";
+
+	@Test
+	public void testReopen() throws IOException {
+		File file = newFile();
+		try (ResultStore store = new ResultStore(file)) {
+			store.add(COMMIT1, refactorings(RefactoringType.RENAME_CLASS, "org.example.A", "org.example.B"));
+			store.add(COMMIT2, refactorings(RefactoringType.MOVE_CLASS, "org.other.C"));
+		}
+		try (ResultStore store = new ResultStore(file)) {
+			Assert.assertEquals(3, store.size());
+			Assert.assertTrue(store.containsCommit(COMMIT1));
+			Assert.assertTrue(store.containsCommit(COMMIT2));
+			assertClasses(store.findByCommit(COMMIT1), "org.example.A", "org.example.B");
+			assertClasses(store.findByType(RefactoringType.MOVE_CLASS), "org.other.C");
+			assertClasses(store.findByClass("org.example.B"), "org.example.B");
+			assertClasses(store.find(RefactoringType.RENAME_CLASS, "org.example."), "org.example.A", "org.example.B");
+			assertClasses(store.find(null, "org."), "org.example.A", "org.example.B", "org.other.C");
+			Assert.assertEquals(COMMIT2, store.findByClass("org.other.C").get(0).getCommitId());
+		}
+	}
+
+	@Test
+	public void testIncompleteLastCommit() throws IOException {
+		File file = newFile();
+		try (ResultStore store = new ResultStore(file)) {
+			store.add(COMMIT1, refactorings(RefactoringType.RENAME_CLASS, "org.example.A"));
+		}
+		long firstCommitLength = file.length();
+		try (ResultStore store = new ResultStore(file)) {
+			store.add(COMMIT2, refactorings(RefactoringType.RENAME_CLASS, "org.example.B", "org.example.C"));
+		}
+		long secondCommitLength = file.length();
+		//every cut inside the second commit leaves only the first one
+		for (long length = firstCommitLength + 1; length < secondCommitLength; length += 7) {
+			File copy = copy(file, length);
+			try (ResultStore store = new ResultStore(copy)) {
+				Assert.assertEquals(firstCommitLength, copy.length());
+				Assert.assertEquals(1, store.size());
+				Assert.assertTrue(store.containsCommit(COMMIT1));
+				Assert.assertFalse(store.containsCommit(COMMIT2));
+				store.add(COMMIT3, refactorings(RefactoringType.MOVE_CLASS, "org.example.D"));
+			}
+			try (ResultStore store = new ResultStore(copy)) {
+				Assert.assertEquals(2, store.size());
+				assertClasses(store.findByCommit(COMMIT3), "org.example.D");
+			}
+		}
+	}
+
+	private static void assertClasses(List<StoredRefactoring> refactorings, String... classNames) {
+		List<String> actual = new ArrayList<String>();
+		for (StoredRefactoring refactoring : refactorings) {
+			actual.add(refactoring.getInvolvedClassesBeforeRefactoring().iterator().next().getRight());
+		}
+		List<String> expected = new ArrayList<String>();
+		Collections.addAll(expected, classNames);
+		Assert.assertEquals(expected, actual);
+	}
+
+	private static List<Refactoring> refactorings(RefactoringType type, String... classNames) {
+		List<Refactoring> refactorings = new ArrayList<Refactoring>();
+		for (String className : classNames) {
+			Set<ImmutablePair<String, String>> involvedClasses = new LinkedHashSet<ImmutablePair<String, String>>();
+			involvedClasses.add(ImmutablePair.of(className.replace('.', '/') + ".java", className));
+			refactorings.add(new ArchivedRefactoring(type, type.getDisplayName() + " " + className,
+					involvedClasses, involvedClasses, Collections.<CodeRange>emptyList(), Collections.<CodeRange>emptyList()));
+		}
+		return refactorings;
+	}
+
+	private static File copy(File file, long length) throws IOException {
+		File copy = newFile();
+		try (RandomAccessFile in = new RandomAccessFile(file, "r"); RandomAccessFile out = new RandomAccessFile(copy, "rw")) {
+			byte[] data = new byte[(int) length];
+			in.readFully(data);
+			out.write(data);
+		}
+		return copy;
+	}
+
+	private static File newFile() throws IOException {
+		File file = File.createTempFile("refactorings", ".log");
+		file.deleteOnExit();
+		file.delete();
+		return file;
+	}
+}
@@ -0,0 +1,32 @@
+package org.refactoringminer.test;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.refactoringminer.util.StringInterner;
+
+import gr.uom.java.xmi.UMLModel;
+import gr.uom.java.xmi.UMLModelASTReader;
+
+public class TestStringInterner {
+
+	@Test
+	public void testInternedModelsDetectTheSameRefactorings() throws Exception {
+		List<String> expected = RefactoringSamples.refactorings(RefactoringSamples.before(), RefactoringSamples.after());
+		Assert.assertFalse(expected.isEmpty());
+		for(int threads = 1; threads <= 4; threads *= 2) {
+			//the models of both revisions share the same table, as they do when a commit is mined
+			StringInterner interner = new StringInterner();
+			UMLModel parent = parse(RefactoringSamples.before(), threads, interner);
+			UMLModel current = parse(RefactoringSamples.after(), threads, interner);
+			Assert.assertTrue(interner.size() > 0);
+			Assert.assertEquals(expected, RefactoringSamples.refactorings(parent, current, 1));
+		}
+	}
+
+	private static UMLModel parse(Map<String, String> files, int parserThreads, StringInterner interner) throws Exception {
+		return new UMLModelASTReader(files, RefactoringSamples.directories(files), parserThreads, null, null, interner).getUmlModel();
+	}
+}
@@ -1,5 +1,6 @@
 package gr.uom.java.xmi;
 
+import java.io.Serializable;
 import java.util.List;
 
 import org.eclipse.jdt.core.dom.ASTNode;
@@ -8,7 +9,7 @@ import org.eclipse.jdt.core.dom.CompilationUnit;
 import gr.uom.java.xmi.decomposition.AbstractCodeFragment;
 import gr.uom.java.xmi.diff.CodeRange;
 
-public class LocationInfo {
+public class LocationInfo implements Serializable {
 	private String filePath;
 	private int startOffset;
 	private int endOffset; 
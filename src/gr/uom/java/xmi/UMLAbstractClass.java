@@ -1,6 +1,9 @@
 package gr.uom.java.xmi;
 
+import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -13,12 +16,13 @@ import org.refactoringminer.util.PrefixSuffixUtils;
 import gr.uom.java.xmi.UMLClassMatcher.MatchResult;
 import gr.uom.java.xmi.decomposition.AbstractCall;
 import gr.uom.java.xmi.decomposition.AbstractCodeFragment;
+import gr.uom.java.xmi.decomposition.OperationBody;
 import gr.uom.java.xmi.decomposition.VariableDeclaration;
 import gr.uom.java.xmi.diff.CodeRange;
 import gr.uom.java.xmi.diff.RenamePattern;
 import gr.uom.java.xmi.diff.StringDistance;
 
-public abstract class UMLAbstractClass {
+public abstract class UMLAbstractClass implements Serializable {
 	protected LocationInfo locationInfo;
 	protected String packageName;
 	protected String name;
@@ -34,6 +38,7 @@ public abstract class UMLAbstractClass {
     private List<String> importedTypes;
     private List<UMLAnnotation> annotations;
     private List<UMLEnumConstant> enumConstants;
+	private transient volatile Map<Long, List<UMLOperation>> operationBodyMap;
 
 	public UMLAbstractClass(String packageName, String name, LocationInfo locationInfo, List<String> importedTypes) {
 		this.packageName = packageName;
@@ -82,6 +87,7 @@ public abstract class UMLAbstractClass {
 
 	public void addOperation(UMLOperation operation) {
 		this.operations.add(operation);
+		this.operationBodyMap = null;
 		List<String> signature = operation.getSignatureIdentifiers();
 		if(operationIdentifierSignatureMap.containsKey(signature)) {
 			operationIdentifierSignatureMap.put(signature, operationIdentifierSignatureMap.get(signature) + 1);
@@ -115,6 +121,31 @@ public abstract class UMLAbstractClass {
 		return initializers;
 	}
 
+	/**
+	 * Restores the code fragments of the class to their state right after parsing,
+	 * so that the class can be diffed again as part of another model.
+	 */
+	public void clearArgumentization() {
+		for(UMLOperation operation : operations) {
+			if(operation.getBody() != null) {
+				operation.getBody().getCompositeStatement().clearArgumentization();
+			}
+		}
+		for(UMLInitializer initializer : initializers) {
+			if(initializer.getBody() != null) {
+				initializer.getBody().getCompositeStatement().clearArgumentization();
+			}
+		}
+		for(UMLAttribute attribute : attributes) {
+			if(attribute.getVariableDeclaration() != null && attribute.getVariableDeclaration().getInitializer() != null) {
+				attribute.getVariableDeclaration().getInitializer().clearArgumentization();
+			}
+		}
+		for(UMLAnonymousClass anonymousClass : anonymousClassList) {
+			anonymousClass.clearArgumentization();
+		}
+	}
+
     public UMLType getSuperclass() {
 		return superclass;
 	}
@@ -349,14 +380,38 @@ public abstract class UMLAbstractClass {
 
 	public boolean containsOperationWithIdenticalBody(UMLOperation operation) {
 		if(operation.getBody() != null) {
-			for(UMLOperation originalOperation : operations) {
-				if(originalOperation.getBody() != null && originalOperation.getBodyHashCode() == operation.getBodyHashCode())
+			for(UMLOperation originalOperation : getOperationsWithIdenticalBody(operation.getBody())) {
+				if(originalOperation.getBody().identicalBody(operation.getBody()))
 					return true;
 			}
 		}
 		return false;
 	}
 
+	/**
+	 * @return The operations of this class whose body has the same content hash as {@code body}, in declaration order.
+	 */
+	public List<UMLOperation> getOperationsWithIdenticalBody(OperationBody body) {
+		Map<Long, List<UMLOperation>> operationBodyMap = this.operationBodyMap;
+		if(operationBodyMap == null) {
+			operationBodyMap = new HashMap<Long, List<UMLOperation>>();
+			for(UMLOperation operation : operations) {
+				if(operation.getBody() != null) {
+					Long key = operation.getBody().getBodyContentHash();
+					List<UMLOperation> identicalOperations = operationBodyMap.get(key);
+					if(identicalOperations == null) {
+						identicalOperations = new ArrayList<UMLOperation>(1);
+						operationBodyMap.put(key, identicalOperations);
+					}
+					identicalOperations.add(operation);
+				}
+			}
+			this.operationBodyMap = operationBodyMap;
+		}
+		List<UMLOperation> identicalOperations = body != null ? operationBodyMap.get(body.getBodyContentHash()) : null;
+		return identicalOperations != null ? identicalOperations : Collections.<UMLOperation>emptyList();
+	}
+
 	private boolean containsSingleStatementWithRenamedCall(UMLAbstractClass umlClass, UMLOperation operation2) {
 		if(operation2.stringRepresentation().size() == 3) {
 			for(UMLOperation operation1 : operations) {
@@ -710,6 +765,22 @@ public abstract class UMLAbstractClass {
 		}
 	}
 
+	/**
+	 * A necessary condition for {@link #hasSameAttributesAndOperations(UMLAbstractClass)}:
+	 * both classes declare attributes with the same names, and either both or none of them declare operations.
+	 */
+	public boolean hasSameAttributeNamesAndOperationPresence(UMLAbstractClass umlClass) {
+		if(this.operations.isEmpty() != umlClass.operations.isEmpty())
+			return false;
+		if(this.attributes.size() != umlClass.attributes.size())
+			return false;
+		for(UMLAttribute attribute : attributes) {
+			if(!umlClass.containsAttributeWithTheSameName(attribute))
+				return false;
+		}
+		return true;
+	}
+
 	public boolean isTestClass() {
 		for(UMLOperation operation : operations) {
 			if(operation.hasTestAnnotation()) {
@@ -217,6 +217,10 @@ public class UMLClass extends UMLAbstractClass implements Comparable<UMLClass>,
     	return true;
     }
 
+    public boolean hasSameNonQualifiedName(UMLClass umlClass) {
+    	return this.name.equals(umlClass.name);
+    }
+
     public boolean hasSameKind(UMLClass umlClass) {
     	if(this.isInterface != umlClass.isInterface)
     		return false;
@@ -45,7 +45,18 @@ public interface UMLClassMatcher {
 
 	public MatchResult match(UMLClass removedClass, UMLClass addedClass);
 
+	/**
+	 * A cheap necessary condition for {@link #match(UMLClass, UMLClass)} to succeed,
+	 * used to skip the comparison of the members of class pairs that cannot match.
+	 */
+	public boolean isCandidate(UMLClass removedClass, UMLClass addedClass);
+
 	public static class Move implements UMLClassMatcher {
+		public boolean isCandidate(UMLClass removedClass, UMLClass addedClass) {
+			return removedClass.isInterface() == addedClass.isInterface() && removedClass.hasSameNonQualifiedName(addedClass) &&
+					removedClass.hasSameAttributeNamesAndOperationPresence(addedClass);
+		}
+
 		public MatchResult match(UMLClass removedClass, UMLClass addedClass) {
 			MatchResult matchResult = removedClass.hasSameAttributesAndOperations(addedClass);
 			if(removedClass.hasSameNameAndKind(addedClass) && matchResult.isMatch()) {
@@ -60,6 +71,10 @@ public interface UMLClassMatcher {
 	}
 
 	public static class RelaxedMove implements UMLClassMatcher {
+		public boolean isCandidate(UMLClass removedClass, UMLClass addedClass) {
+			return removedClass.isInterface() == addedClass.isInterface() && removedClass.hasSameNonQualifiedName(addedClass);
+		}
+
 		public MatchResult match(UMLClass removedClass, UMLClass addedClass) {
 			MatchResult matchResult = removedClass.hasCommonAttributesAndOperations(addedClass);
 			if(removedClass.hasSameNameAndKind(addedClass) && matchResult.isMatch()) {
@@ -74,6 +89,10 @@ public interface UMLClassMatcher {
 	}
 
 	public static class ExtremelyRelaxedMove implements UMLClassMatcher {
+		public boolean isCandidate(UMLClass removedClass, UMLClass addedClass) {
+			return removedClass.isInterface() == addedClass.isInterface() && removedClass.hasSameNonQualifiedName(addedClass);
+		}
+
 		public MatchResult match(UMLClass removedClass, UMLClass addedClass) {
 			MatchResult matchResult = removedClass.hasAttributesAndOperationsWithCommonNames(addedClass);
 			if(removedClass.hasSameNameAndKind(addedClass) && matchResult.isMatch()) {
@@ -88,6 +107,11 @@ public interface UMLClassMatcher {
 	}
 
 	public static class Rename implements UMLClassMatcher {
+		public boolean isCandidate(UMLClass removedClass, UMLClass addedClass) {
+			return removedClass.isInterface() == addedClass.isInterface() &&
+					removedClass.hasSameAttributeNamesAndOperationPresence(addedClass);
+		}
+
 		public MatchResult match(UMLClass removedClass, UMLClass addedClass) {
 			MatchResult matchResult = removedClass.hasSameAttributesAndOperations(addedClass);
 			if(removedClass.hasSameKind(addedClass) && matchResult.isMatch()) {
@@ -102,6 +126,10 @@ public interface UMLClassMatcher {
 	}
 
 	public static class RelaxedRename implements UMLClassMatcher {
+		public boolean isCandidate(UMLClass removedClass, UMLClass addedClass) {
+			return removedClass.isInterface() == addedClass.isInterface();
+		}
+
 		public MatchResult match(UMLClass removedClass, UMLClass addedClass) {
 			MatchResult matchResult = removedClass.hasCommonAttributesAndOperations(addedClass);
 			if(removedClass.hasSameKind(addedClass) && matchResult.isMatch()) {
@@ -116,6 +144,10 @@ public interface UMLClassMatcher {
 	}
 
 	public static class ExtremelyRelaxedRename implements UMLClassMatcher {
+		public boolean isCandidate(UMLClass removedClass, UMLClass addedClass) {
+			return removedClass.isInterface() == addedClass.isInterface();
+		}
+
 		public MatchResult match(UMLClass removedClass, UMLClass addedClass) {
 			MatchResult matchResult = removedClass.hasAttributesAndOperationsWithCommonNames(addedClass);
 			if(removedClass.hasSameKind(addedClass) && matchResult.isMatch()) {
@@ -1,9 +1,11 @@
 package gr.uom.java.xmi;
 
+import java.io.Serializable;
+
 import gr.uom.java.xmi.LocationInfo.CodeElementType;
 import gr.uom.java.xmi.diff.CodeRange;
 
-public class UMLComment implements LocationInfoProvider {
+public class UMLComment implements LocationInfoProvider, Serializable {
 	private String text;
 	private LocationInfo locationInfo;
 
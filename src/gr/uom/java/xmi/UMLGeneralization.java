@@ -1,6 +1,8 @@
 package gr.uom.java.xmi;
 
-public class UMLGeneralization implements Comparable<UMLGeneralization> {
+import java.io.Serializable;
+
+public class UMLGeneralization implements Comparable<UMLGeneralization>, Serializable {
     private UMLClass child;
     private String parent;
 
@@ -30,6 +32,14 @@ public class UMLGeneralization implements Comparable<UMLGeneralization> {
     	return false;
     }
 
+    public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((child == null) ? 0 : child.hashCode());
+		result = prime * result + ((parent == null) ? 0 : parent.hashCode());
+		return result;
+	}
+
     public String toString() {
     	return child + "->" + parent;
     }
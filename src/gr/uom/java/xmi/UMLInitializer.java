@@ -26,7 +26,7 @@ public class UMLInitializer implements Serializable, VariableDeclarationContaine
 	private List<UMLAnonymousClass> anonymousClassList;
 	private UMLJavadoc javadoc;
 	private List<UMLComment> comments;
-	private Map<String, Set<VariableDeclaration>> variableDeclarationMap;
+	private transient volatile Map<String, Set<VariableDeclaration>> variableDeclarationMap;
 	
 	public UMLInitializer(String name, LocationInfo locationInfo) {
 		this.name = name;
@@ -177,8 +177,9 @@ public class UMLInitializer implements Serializable, VariableDeclarationContaine
 
 	@Override
 	public Map<String, Set<VariableDeclaration>> variableDeclarationMap() {
-		if(this.variableDeclarationMap == null) {
-			this.variableDeclarationMap = new LinkedHashMap<String, Set<VariableDeclaration>>();
+		Map<String, Set<VariableDeclaration>> variableDeclarationMap = this.variableDeclarationMap;
+		if(variableDeclarationMap == null) {
+			variableDeclarationMap = new LinkedHashMap<String, Set<VariableDeclaration>>();
 			for(VariableDeclaration declaration : getAllVariableDeclarations()) {
 				if(variableDeclarationMap.containsKey(declaration.getVariableName())) {
 					variableDeclarationMap.get(declaration.getVariableName()).add(declaration);
@@ -189,6 +190,8 @@ public class UMLInitializer implements Serializable, VariableDeclarationContaine
 					variableDeclarationMap.put(declaration.getVariableName(), variableDeclarations);
 				}
 			}
+			//published only when complete, since class diffs may be processed concurrently
+			this.variableDeclarationMap = variableDeclarationMap;
 		}
 		return variableDeclarationMap;
 	}
@@ -3,19 +3,27 @@ package gr.uom.java.xmi;
 import gr.uom.java.xmi.diff.UMLClassDiff;
 import gr.uom.java.xmi.diff.UMLModelDiff;
 
+import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
 import java.util.Set;
 
 import org.refactoringminer.api.RefactoringMinerTimedOutException;
+import org.refactoringminer.util.Deadline;
 
-public class UMLModel {
+public class UMLModel implements Serializable {
 	private Set<String> repositoryDirectories;
     private List<UMLClass> classList;
     private List<UMLGeneralization> generalizationList;
     private List<UMLRealization> realizationList;
     private boolean partial;
+    private transient volatile Map<UMLClass, UMLClass> classMap;
+    private transient volatile Map<String, UMLClass> classNameMap;
+    private transient volatile Map<String, UMLClass> classNameSuffixMap;
 
     public UMLModel(Set<String> repositoryDirectories) {
     	this.repositoryDirectories = repositoryDirectories;
@@ -34,6 +42,9 @@ public class UMLModel {
 
 	public void addClass(UMLClass umlClass) {
         classList.add(umlClass);
+        classMap = null;
+        classNameMap = null;
+        classNameSuffixMap = null;
     }
 
     public void addGeneralization(UMLGeneralization umlGeneralization) {
@@ -45,13 +56,49 @@ public class UMLModel {
     }
 
     public UMLClass getClass(UMLClass umlClassFromOtherModel) {
-    	ListIterator<UMLClass> it = classList.listIterator();
-        while(it.hasNext()) {
-            UMLClass umlClass = it.next();
-            if(umlClass.equals(umlClassFromOtherModel))
-                return umlClass;
-        }
-        return null;
+    	return classMap().get(umlClassFromOtherModel);
+    }
+
+    public boolean containsClass(UMLClass umlClass) {
+    	return classMap().containsKey(umlClass);
+    }
+
+    /**
+     * @return The first class whose qualified name is {@code className}, otherwise
+     * the first class whose qualified name ends with {@code "." + className}, or null.
+     */
+    public UMLClass findClass(String className) {
+    	if(classNameMap == null) {
+    		Map<String, UMLClass> nameMap = new HashMap<String, UMLClass>();
+    		Map<String, UMLClass> suffixMap = new HashMap<String, UMLClass>();
+    		for(UMLClass umlClass : classList) {
+    			String name = umlClass.getName();
+    			nameMap.putIfAbsent(name, umlClass);
+    			int index = name.indexOf(".");
+    			while(index != -1) {
+    				suffixMap.putIfAbsent(name.substring(index + 1), umlClass);
+    				index = name.indexOf(".", index + 1);
+    			}
+    		}
+    		classNameSuffixMap = suffixMap;
+    		classNameMap = nameMap;
+    	}
+    	UMLClass umlClass = classNameMap.get(className);
+    	if(umlClass == null) {
+    		umlClass = classNameSuffixMap.get(className);
+    	}
+    	return umlClass;
+    }
+
+    private Map<UMLClass, UMLClass> classMap() {
+    	if(classMap == null) {
+    		Map<UMLClass, UMLClass> map = new HashMap<UMLClass, UMLClass>();
+    		for(UMLClass umlClass : classList) {
+    			map.putIfAbsent(umlClass, umlClass);
+    		}
+    		classMap = map;
+    	}
+    	return classMap;
     }
 
     public List<UMLClass> getClassList() {
@@ -115,43 +162,56 @@ public class UMLModel {
     }
 
 	public UMLModelDiff diff(UMLModel umlModel) throws RefactoringMinerTimedOutException {
-    	UMLModelDiff modelDiff = new UMLModelDiff(this, umlModel);
+		return diff(umlModel, Deadline.NONE);
+	}
+
+	public UMLModelDiff diff(UMLModel umlModel, Deadline deadline) throws RefactoringMinerTimedOutException {
+		return diff(umlModel, deadline, 1);
+	}
+
+	public UMLModelDiff diff(UMLModel umlModel, Deadline deadline, int classDiffThreads) throws RefactoringMinerTimedOutException {
+    	UMLModelDiff modelDiff = new UMLModelDiff(this, umlModel, deadline);
+    	modelDiff.setClassDiffThreads(classDiffThreads);
     	for(UMLClass umlClass : classList) {
-    		if(!umlModel.classList.contains(umlClass))
+    		if(!umlModel.containsClass(umlClass))
     			modelDiff.reportRemovedClass(umlClass);
     	}
     	for(UMLClass umlClass : umlModel.classList) {
-    		if(!this.classList.contains(umlClass))
+    		if(!this.containsClass(umlClass))
     			modelDiff.reportAddedClass(umlClass);
     	}
     	modelDiff.checkForMovedClasses(umlModel.repositoryDirectories, new UMLClassMatcher.Move());
     	modelDiff.checkForRenamedClasses(new UMLClassMatcher.Rename());
+    	Set<UMLGeneralization> thisGeneralizations = new HashSet<UMLGeneralization>(generalizationList);
+    	Set<UMLGeneralization> otherGeneralizations = new HashSet<UMLGeneralization>(umlModel.generalizationList);
     	for(UMLGeneralization umlGeneralization : generalizationList) {
-    		if(!umlModel.generalizationList.contains(umlGeneralization))
+    		if(!otherGeneralizations.contains(umlGeneralization))
     			modelDiff.reportRemovedGeneralization(umlGeneralization);
     	}
     	for(UMLGeneralization umlGeneralization : umlModel.generalizationList) {
-    		if(!this.generalizationList.contains(umlGeneralization))
+    		if(!thisGeneralizations.contains(umlGeneralization))
     			modelDiff.reportAddedGeneralization(umlGeneralization);
     	}
     	modelDiff.checkForGeneralizationChanges();
+    	Set<UMLRealization> thisRealizations = new HashSet<UMLRealization>(realizationList);
+    	Set<UMLRealization> otherRealizations = new HashSet<UMLRealization>(umlModel.realizationList);
     	for(UMLRealization umlRealization : realizationList) {
-    		if(!umlModel.realizationList.contains(umlRealization))
+    		if(!otherRealizations.contains(umlRealization))
     			modelDiff.reportRemovedRealization(umlRealization);
     	}
     	for(UMLRealization umlRealization : umlModel.realizationList) {
-    		if(!this.realizationList.contains(umlRealization))
+    		if(!thisRealizations.contains(umlRealization))
     			modelDiff.reportAddedRealization(umlRealization);
     	}
     	modelDiff.checkForRealizationChanges();
+    	List<UMLClassDiff> classDiffs = new ArrayList<UMLClassDiff>();
     	for(UMLClass umlClass : classList) {
-    		if(umlModel.classList.contains(umlClass)) {
-    			UMLClassDiff classDiff = new UMLClassDiff(umlClass, umlModel.getClass(umlClass), modelDiff);
-    			classDiff.process();
-    			if(!classDiff.isEmpty())
-    				modelDiff.addUMLClassDiff(classDiff);
+    		UMLClass nextClass = umlModel.getClass(umlClass);
+    		if(nextClass != null) {
+    			classDiffs.add(new UMLClassDiff(umlClass, nextClass, modelDiff));
     		}
     	}
+    	modelDiff.processClassDiffs(classDiffs);
     	modelDiff.checkForMovedClasses(umlModel.repositoryDirectories, new UMLClassMatcher.RelaxedMove());
     	modelDiff.checkForRenamedClasses(new UMLClassMatcher.RelaxedRename());
     	return modelDiff;
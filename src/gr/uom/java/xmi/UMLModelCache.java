@@ -0,0 +1,16 @@
+package gr.uom.java.xmi;
+
+/**
+ * Stores the classes, generalizations and realizations extracted from a single Java file,
+ * so that a file with the same path and contents does not have to be parsed again.
+ * Implementations must be thread-safe, and must not return the same model instances to different callers,
+ * since the code fragments of a model are annotated while it is being diffed.
+ */
+public interface UMLModelCache {
+	/**
+	 * @return The model of the file, or null if the file has not been cached.
+	 */
+	UMLModel get(String filePath, String contentId);
+
+	void put(String filePath, String contentId, UMLModel fileModel);
+}
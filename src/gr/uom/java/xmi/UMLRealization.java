@@ -1,6 +1,8 @@
 package gr.uom.java.xmi;
 
-public class UMLRealization implements Comparable<UMLRealization> {
+import java.io.Serializable;
+
+public class UMLRealization implements Comparable<UMLRealization>, Serializable {
     private UMLClass client;
     private String supplier;
 
@@ -30,6 +32,14 @@ public class UMLRealization implements Comparable<UMLRealization> {
     	return false;
     }
 
+    public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((client == null) ? 0 : client.hashCode());
+		result = prime * result + ((supplier == null) ? 0 : supplier.hashCode());
+		return result;
+	}
+
     public String toString() {
     	return client + "->" + supplier;
     }
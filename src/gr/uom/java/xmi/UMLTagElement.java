@@ -1,9 +1,10 @@
 package gr.uom.java.xmi;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
-public class UMLTagElement {
+public class UMLTagElement implements Serializable {
 	private String tagName;
 	private List<String> fragments;
 	
@@ -1,9 +1,10 @@
 package gr.uom.java.xmi;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
-public class UMLTypeParameter {
+public class UMLTypeParameter implements Serializable {
 	private String name;
 	private List<UMLType> typeBounds;
 	private List<UMLAnnotation> annotations;
@@ -94,6 +94,14 @@ public interface VariableDeclarationContainer extends LocationInfoProvider {
 		return 0;
 	}
 
+	default boolean identicalBody(VariableDeclarationContainer other) {
+		OperationBody operationBody = getBody();
+		OperationBody otherOperationBody = other.getBody();
+		if(operationBody != null && otherOperationBody != null)
+			return operationBody.identicalBody(otherOperationBody);
+		return operationBody == null && otherOperationBody == null;
+	}
+
 	default List<String> stringRepresentation() {
 		OperationBody operationBody = getBody();
 		if(operationBody != null)
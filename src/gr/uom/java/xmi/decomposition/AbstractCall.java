@@ -1,5 +1,6 @@
 package gr.uom.java.xmi.decomposition;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -21,7 +22,7 @@ import gr.uom.java.xmi.decomposition.replacement.Replacement.ReplacementType;
 import gr.uom.java.xmi.diff.CodeRange;
 import gr.uom.java.xmi.diff.UMLModelDiff;
 
-public abstract class AbstractCall implements LocationInfoProvider {
+public abstract class AbstractCall implements LocationInfoProvider, Serializable {
 	protected int typeArguments;
 	protected String expression;
 	protected List<String> arguments;
@@ -1,5 +1,6 @@
 package gr.uom.java.xmi.decomposition;
 
+import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -10,7 +11,7 @@ import gr.uom.java.xmi.LocationInfo.CodeElementType;
 import gr.uom.java.xmi.LocationInfoProvider;
 import gr.uom.java.xmi.decomposition.AbstractCall.StatementCoverageType;
 
-public abstract class AbstractCodeFragment implements LocationInfoProvider {
+public abstract class AbstractCodeFragment implements LocationInfoProvider, Serializable {
 	private int depth;
 	private int index;
 	private String codeFragmentAfterReplacingParametersWithArguments;
@@ -159,6 +160,22 @@ public abstract class AbstractCodeFragment implements LocationInfoProvider {
 		this.codeFragmentAfterReplacingParametersWithArguments = getString();
 	}
 
+	/**
+	 * Restores the state of the fragment and its lambda expressions to the one right after parsing,
+	 * before any parameters were replaced with arguments.
+	 */
+	public void clearArgumentization() {
+		this.codeFragmentAfterReplacingParametersWithArguments = null;
+		for(LambdaExpressionObject lambda : getLambdas()) {
+			if(lambda.getBody() != null) {
+				lambda.getBody().getCompositeStatement().clearArgumentization();
+			}
+			if(lambda.getExpression() != null) {
+				lambda.getExpression().clearArgumentization();
+			}
+		}
+	}
+
 	public ObjectCreation creationCoveringEntireFragment() {
 		Map<String, List<ObjectCreation>> creationMap = getCreationMap();
 		String statement = getString();
@@ -5,6 +5,7 @@ import java.util.Map;
 
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.dom.Expression;
+import org.refactoringminer.util.StringInterner;
 
 import gr.uom.java.xmi.LocationInfo;
 import gr.uom.java.xmi.LocationInfo.CodeElementType;
@@ -58,7 +59,7 @@ public class AbstractExpression extends AbstractCodeFragment {
 		this.arguments = visitor.getArguments();
 		this.ternaryOperatorExpressions = visitor.getTernaryOperatorExpressions();
 		this.lambdas = visitor.getLambdas();
-    	this.expression = expression.toString();
+    	this.expression = StringInterner.intern(StringInterner.of(cu), expression.toString());
     	this.owner = null;
     }
 
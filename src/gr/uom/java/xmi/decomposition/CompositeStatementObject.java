@@ -105,6 +105,16 @@ public class CompositeStatementObject extends AbstractStatement {
 		}
 	}
 
+	public void clearArgumentization() {
+		super.clearArgumentization();
+		for(AbstractStatement statement : statementList) {
+			statement.clearArgumentization();
+		}
+		for(AbstractExpression expression : expressionList) {
+			expression.clearArgumentization();
+		}
+	}
+
 	public String toString() {
 		StringBuilder sb = new StringBuilder();
 		sb.append(locationInfo.getCodeElementType().getName());
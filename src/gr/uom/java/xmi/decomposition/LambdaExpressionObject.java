@@ -1,5 +1,6 @@
 package gr.uom.java.xmi.decomposition;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -21,7 +22,7 @@ import gr.uom.java.xmi.LocationInfoProvider;
 import gr.uom.java.xmi.UMLParameter;
 import gr.uom.java.xmi.UMLType;
 
-public class LambdaExpressionObject implements LocationInfoProvider {
+public class LambdaExpressionObject implements LocationInfoProvider, Serializable {
 	private LocationInfo locationInfo;
 	private OperationBody body;
 	private AbstractExpression expression;
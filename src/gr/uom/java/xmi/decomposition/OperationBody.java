@@ -1,5 +1,6 @@
 package gr.uom.java.xmi.decomposition;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
@@ -41,14 +42,15 @@ import gr.uom.java.xmi.UMLAnonymousClass;
 import gr.uom.java.xmi.UMLOperation;
 import gr.uom.java.xmi.VariableDeclarationContainer;
 
-public class OperationBody {
+public class OperationBody implements Serializable {
 
 	private CompositeStatementObject compositeStatement;
 	private List<String> stringRepresentation;
 	private boolean containsAssertion;
-	private Set<VariableDeclaration> activeVariableDeclarations;
+	private transient Set<VariableDeclaration> activeVariableDeclarations;
 	private VariableDeclarationContainer container;
 	private int bodyHashCode;
+	private long bodyContentHash;
 
 	public OperationBody(CompilationUnit cu, String filePath, Block methodBody) {
 		this(cu, filePath, methodBody, null);
@@ -57,7 +59,9 @@ public class OperationBody {
 	public OperationBody(CompilationUnit cu, String filePath, Block methodBody, VariableDeclarationContainer container) {
 		this.compositeStatement = new CompositeStatementObject(cu, filePath, methodBody, 0, CodeElementType.BLOCK);
 		this.container = container;
-		this.bodyHashCode = methodBody.toString().hashCode();
+		String methodBodyString = methodBody.toString();
+		this.bodyHashCode = methodBodyString.hashCode();
+		this.bodyContentHash = contentHash(methodBodyString);
 		this.activeVariableDeclarations = new HashSet<VariableDeclaration>();
 		this.activeVariableDeclarations.addAll(container != null ? container.getParameterDeclarationList() : Collections.emptyList());
 		List<Statement> statements = methodBody.statements();
@@ -389,6 +393,24 @@ public class OperationBody {
 		return bodyHashCode;
 	}
 
+	public long getBodyContentHash() {
+		return bodyContentHash;
+	}
+
+	public boolean identicalBody(OperationBody other) {
+		return this.bodyHashCode == other.bodyHashCode && this.bodyContentHash == other.bodyContentHash;
+	}
+
+	//64-bit FNV-1a hash, telling apart the bodies with colliding String hash codes
+	private static long contentHash(String s) {
+		long hash = 0xcbf29ce484222325L;
+		for(int i=0; i<s.length(); i++) {
+			hash ^= s.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		return hash;
+	}
+
 	public List<String> stringRepresentation() {
 		if(stringRepresentation == null) {
 			stringRepresentation = compositeStatement.stringRepresentation();
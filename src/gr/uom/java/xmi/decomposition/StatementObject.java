@@ -14,6 +14,7 @@ import org.eclipse.jdt.core.dom.ReturnStatement;
 import org.eclipse.jdt.core.dom.Statement;
 import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
 import org.eclipse.jdt.core.dom.VariableDeclarationStatement;
+import org.refactoringminer.util.StringInterner;
 
 import gr.uom.java.xmi.LocationInfo;
 import gr.uom.java.xmi.LocationInfo.CodeElementType;
@@ -131,6 +132,7 @@ public class StatementObject extends AbstractStatement {
 		else {
 			this.statement = statement.toString();
 		}
+		this.statement = StringInterner.intern(StringInterner.of(cu), this.statement);
 	}
 
 	@Override
@@ -1,5 +1,7 @@
 package gr.uom.java.xmi.decomposition;
 
+import java.io.Serializable;
+
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.dom.ConditionalExpression;
 
@@ -7,7 +9,7 @@ import gr.uom.java.xmi.LocationInfo.CodeElementType;
 import gr.uom.java.xmi.decomposition.replacement.Replacement;
 import gr.uom.java.xmi.decomposition.replacement.Replacement.ReplacementType;
 
-public class TernaryOperatorExpression {
+public class TernaryOperatorExpression implements Serializable {
 
 	private AbstractExpression condition;
 	private AbstractExpression thenExpression;
@@ -47,6 +47,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
@@ -61,6 +62,7 @@ import java.util.regex.Pattern;
 import org.apache.commons.lang3.tuple.Pair;
 import org.refactoringminer.api.Refactoring;
 import org.refactoringminer.api.RefactoringMinerTimedOutException;
+import org.refactoringminer.util.Deadline;
 import org.refactoringminer.util.PrefixSuffixUtils;
 
 public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper> {
@@ -91,6 +93,19 @@ public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper
 	private Set<VariableDeclaration> addedVariables;
 	private Set<Pair<VariableDeclaration, VariableDeclaration>> movedVariables;
 	
+	private void checkDeadline() throws RefactoringMinerTimedOutException {
+		UMLAbstractClassDiff classDiff = this.classDiff != null ? this.classDiff : parentMapper != null ? parentMapper.classDiff : null;
+		if(modelDiff != null) {
+			modelDiff.getDeadline().check();
+		}
+		else if(classDiff != null) {
+			classDiff.getDeadline().check();
+		}
+		else {
+			Deadline.NONE.check();
+		}
+	}
+
 	private Set<AbstractCodeFragment> statementsWithStreamAPICalls(List<AbstractCodeFragment> leaves) {
 		Set<AbstractCodeFragment> streamAPICalls = new LinkedHashSet<AbstractCodeFragment>();
 		for(AbstractCodeFragment statement : leaves) {
@@ -1497,6 +1512,7 @@ public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper
 
 	public void processInnerNodes(List<CompositeStatementObject> innerNodes1, List<CompositeStatementObject> innerNodes2,
 			Map<String, String> parameterToArgumentMap) throws RefactoringMinerTimedOutException {
+		checkDeadline();
 		List<UMLOperation> removedOperations = classDiff != null ? classDiff.getRemovedOperations() : new ArrayList<UMLOperation>();
 		List<UMLOperation> addedOperations = classDiff != null ? classDiff.getAddedOperations() : new ArrayList<UMLOperation>();
 		int tryWithResources1 = tryWithResourcesCount(innerNodes1);
@@ -1707,21 +1723,20 @@ public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper
 
 	public void processLeaves(List<? extends AbstractCodeFragment> leaves1, List<? extends AbstractCodeFragment> leaves2,
 			Map<String, String> parameterToArgumentMap) throws RefactoringMinerTimedOutException {
+		checkDeadline();
 		if(leaves1.size() > MAXIMUM_NUMBER_OF_COMPARED_STATEMENTS && leaves2.size() > MAXIMUM_NUMBER_OF_COMPARED_STATEMENTS &&
-				container1.getBodyHashCode() != container2.getBodyHashCode()) {
+				!container1.identicalBody(container2)) {
 			return;
 		}
 		List<TreeSet<LeafMapping>> postponedMappingSets = new ArrayList<TreeSet<LeafMapping>>();
 		if(leaves1.size() <= leaves2.size()) {
+			IdenticalLeafIndex leafIndex2 = new IdenticalLeafIndex(leaves2);
 			//exact string+depth matching - leaf nodes
 			for(ListIterator<? extends AbstractCodeFragment> leafIterator1 = leaves1.listIterator(); leafIterator1.hasNext();) {
 				AbstractCodeFragment leaf1 = leafIterator1.next();
 				TreeSet<LeafMapping> mappingSet = new TreeSet<LeafMapping>();
-				for(ListIterator<? extends AbstractCodeFragment> leafIterator2 = leaves2.listIterator(); leafIterator2.hasNext();) {
-					AbstractCodeFragment leaf2 = leafIterator2.next();
-					String argumentizedString1 = preprocessInput1(leaf1, leaf2);
-					String argumentizedString2 = preprocessInput2(leaf1, leaf2);
-					if((leaf1.getString().equals(leaf2.getString()) || argumentizedString1.equals(argumentizedString2)) && leaf1.getDepth() == leaf2.getDepth()) {
+				for(AbstractCodeFragment leaf2 : leafIndex2.identicalLeaves(leaf1)) {
+					if(leaf1.getDepth() == leaf2.getDepth()) {
 						LeafMapping mapping = createLeafMapping(leaf1, leaf2, parameterToArgumentMap);
 						mappingSet.add(mapping);
 					}
@@ -1731,6 +1746,7 @@ public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper
 					mappings.add(minStatementMapping);
 					processAnonymousClassDeclarationsInIdenticalStatements(minStatementMapping);
 					leaves2.remove(minStatementMapping.getFragment2());
+					leafIndex2.remove(minStatementMapping.getFragment2());
 					leafIterator1.remove();
 				}
 			}
@@ -1739,19 +1755,15 @@ public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper
 			for(ListIterator<? extends AbstractCodeFragment> leafIterator1 = leaves1.listIterator(); leafIterator1.hasNext();) {
 				AbstractCodeFragment leaf1 = leafIterator1.next();
 				TreeSet<LeafMapping> mappingSet = new TreeSet<LeafMapping>();
-				for(ListIterator<? extends AbstractCodeFragment> leafIterator2 = leaves2.listIterator(); leafIterator2.hasNext();) {
-					AbstractCodeFragment leaf2 = leafIterator2.next();
-					String argumentizedString1 = preprocessInput1(leaf1, leaf2);
-					String argumentizedString2 = preprocessInput2(leaf1, leaf2);
-					if((leaf1.getString().equals(leaf2.getString()) || argumentizedString1.equals(argumentizedString2))) {
-						LeafMapping mapping = createLeafMapping(leaf1, leaf2, parameterToArgumentMap);
-						mappingSet.add(mapping);
-					}
+				for(AbstractCodeFragment leaf2 : leafIndex2.identicalLeaves(leaf1)) {
+					LeafMapping mapping = createLeafMapping(leaf1, leaf2, parameterToArgumentMap);
+					mappingSet.add(mapping);
 				}
 				if(!mappingSet.isEmpty()) {
 					LeafMapping minStatementMapping = mappingSet.first();
 					mappings.add(minStatementMapping);
 					leaves2.remove(minStatementMapping.getFragment2());
+					leafIndex2.remove(minStatementMapping.getFragment2());
 					leafIterator1.remove();
 				}
 			}
@@ -1823,15 +1835,13 @@ public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper
 			}
 		}
 		else {
+			IdenticalLeafIndex leafIndex1 = new IdenticalLeafIndex(leaves1);
 			//exact string+depth matching - leaf nodes
 			for(ListIterator<? extends AbstractCodeFragment> leafIterator2 = leaves2.listIterator(); leafIterator2.hasNext();) {
 				AbstractCodeFragment leaf2 = leafIterator2.next();
 				TreeSet<LeafMapping> mappingSet = new TreeSet<LeafMapping>();
-				for(ListIterator<? extends AbstractCodeFragment> leafIterator1 = leaves1.listIterator(); leafIterator1.hasNext();) {
-					AbstractCodeFragment leaf1 = leafIterator1.next();
-					String argumentizedString1 = preprocessInput1(leaf1, leaf2);
-					String argumentizedString2 = preprocessInput2(leaf1, leaf2);
-					if((leaf1.getString().equals(leaf2.getString()) || argumentizedString1.equals(argumentizedString2)) && leaf1.getDepth() == leaf2.getDepth()) {
+				for(AbstractCodeFragment leaf1 : leafIndex1.identicalLeaves(leaf2)) {
+					if(leaf1.getDepth() == leaf2.getDepth()) {
 						LeafMapping mapping = createLeafMapping(leaf1, leaf2, parameterToArgumentMap);
 						mappingSet.add(mapping);
 					}
@@ -1841,6 +1851,7 @@ public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper
 					mappings.add(minStatementMapping);
 					processAnonymousClassDeclarationsInIdenticalStatements(minStatementMapping);
 					leaves1.remove(minStatementMapping.getFragment1());
+					leafIndex1.remove(minStatementMapping.getFragment1());
 					leafIterator2.remove();
 				}
 			}
@@ -1849,19 +1860,15 @@ public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper
 			for(ListIterator<? extends AbstractCodeFragment> leafIterator2 = leaves2.listIterator(); leafIterator2.hasNext();) {
 				AbstractCodeFragment leaf2 = leafIterator2.next();
 				TreeSet<LeafMapping> mappingSet = new TreeSet<LeafMapping>();
-				for(ListIterator<? extends AbstractCodeFragment> leafIterator1 = leaves1.listIterator(); leafIterator1.hasNext();) {
-					AbstractCodeFragment leaf1 = leafIterator1.next();
-					String argumentizedString1 = preprocessInput1(leaf1, leaf2);
-					String argumentizedString2 = preprocessInput2(leaf1, leaf2);
-					if((leaf1.getString().equals(leaf2.getString()) || argumentizedString1.equals(argumentizedString2))) {
-						LeafMapping mapping = createLeafMapping(leaf1, leaf2, parameterToArgumentMap);
-						mappingSet.add(mapping);
-					}
+				for(AbstractCodeFragment leaf1 : leafIndex1.identicalLeaves(leaf2)) {
+					LeafMapping mapping = createLeafMapping(leaf1, leaf2, parameterToArgumentMap);
+					mappingSet.add(mapping);
 				}
 				if(!mappingSet.isEmpty()) {
 					LeafMapping minStatementMapping = mappingSet.first();
 					mappings.add(minStatementMapping);
 					leaves1.remove(minStatementMapping.getFragment1());
+					leafIndex1.remove(minStatementMapping.getFragment1());
 					leafIterator2.remove();
 				}
 			}
@@ -2288,6 +2295,81 @@ public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper
 		return argumentizedString;
 	}
 
+	/**
+	 * Indexes leaves by their string and argumentized string, to find the leaves identical to another leaf without preprocessing
+	 * every pair of leaves. Two leaves are identical if they have the same string, or the same argumentized string after removing
+	 * the return keyword of a statement compared to an expression, as in {@link #preprocessInput(AbstractCodeFragment, AbstractCodeFragment)}.
+	 */
+	static class IdenticalLeafIndex {
+		private final Map<AbstractCodeFragment, Integer> positions = new HashMap<AbstractCodeFragment, Integer>();
+		private final Map<String, List<AbstractCodeFragment>> stringMap = new HashMap<String, List<AbstractCodeFragment>>();
+		private final Map<String, List<AbstractCodeFragment>> expressionMap = new HashMap<String, List<AbstractCodeFragment>>();
+		private final Map<String, List<AbstractCodeFragment>> statementMap = new HashMap<String, List<AbstractCodeFragment>>();
+		private final Map<String, List<AbstractCodeFragment>> statementWithoutReturnMap = new HashMap<String, List<AbstractCodeFragment>>();
+
+		public IdenticalLeafIndex(List<? extends AbstractCodeFragment> leaves) {
+			for(AbstractCodeFragment leaf : leaves) {
+				positions.put(leaf, positions.size());
+				index(stringMap, leaf.getString(), leaf);
+				String argumentizedString = leaf.getArgumentizedString();
+				if(leaf instanceof AbstractExpression) {
+					index(expressionMap, argumentizedString, leaf);
+				}
+				else {
+					index(statementMap, argumentizedString, leaf);
+					index(statementWithoutReturnMap, leaf instanceof StatementObject ? withoutReturn(argumentizedString) : argumentizedString, leaf);
+				}
+			}
+		}
+
+		private static void index(Map<String, List<AbstractCodeFragment>> map, String key, AbstractCodeFragment leaf) {
+			List<AbstractCodeFragment> leaves = map.get(key);
+			if(leaves == null) {
+				leaves = new ArrayList<AbstractCodeFragment>(1);
+				map.put(key, leaves);
+			}
+			leaves.add(leaf);
+		}
+
+		public void remove(AbstractCodeFragment leaf) {
+			positions.remove(leaf);
+		}
+
+		//returns the indexed leaves identical to the given leaf, in the order of the indexed list
+		public List<AbstractCodeFragment> identicalLeaves(AbstractCodeFragment leaf) {
+			String argumentizedString = leaf.getArgumentizedString();
+			List<AbstractCodeFragment> sameString = stringMap.get(leaf.getString());
+			List<AbstractCodeFragment> sameExpression = expressionMap.get(leaf instanceof StatementObject ? withoutReturn(argumentizedString) : argumentizedString);
+			List<AbstractCodeFragment> sameStatement = leaf instanceof AbstractExpression ? statementWithoutReturnMap.get(argumentizedString) : statementMap.get(argumentizedString);
+			if(sameString == null && sameExpression == null && sameStatement == null) {
+				return Collections.emptyList();
+			}
+			TreeMap<Integer, AbstractCodeFragment> identicalLeaves = new TreeMap<Integer, AbstractCodeFragment>();
+			addIndexed(sameString, identicalLeaves);
+			addIndexed(sameExpression, identicalLeaves);
+			addIndexed(sameStatement, identicalLeaves);
+			return new ArrayList<AbstractCodeFragment>(identicalLeaves.values());
+		}
+
+		private void addIndexed(List<AbstractCodeFragment> leaves, TreeMap<Integer, AbstractCodeFragment> identicalLeaves) {
+			if(leaves != null) {
+				for(AbstractCodeFragment leaf : leaves) {
+					Integer position = positions.get(leaf);
+					if(position != null) {
+						identicalLeaves.put(position, leaf);
+					}
+				}
+			}
+		}
+
+		private static String withoutReturn(String argumentizedString) {
+			if (argumentizedString.startsWith("return ") && argumentizedString.endsWith(";\n")) {
+				return argumentizedString.substring("return ".length(), argumentizedString.lastIndexOf(";\n"));
+			}
+			return argumentizedString;
+		}
+	}
+
 	private static class ReplacementInfo {
 		private String argumentizedString1;
 		private String argumentizedString2;
@@ -2641,9 +2723,7 @@ public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper
 				TreeMap<Double, Replacement> replacementMap = new TreeMap<Double, Replacement>();
 				int minDistance = replacementInfo.getRawDistance();
 				for(String s2 : variablesAndMethodInvocations2) {
-					if(Thread.interrupted()) {
-						throw new RefactoringMinerTimedOutException();
-					}
+					checkDeadline();
 					String temp = ReplacementUtil.performReplacement(replacementInfo.getArgumentizedString1(), replacementInfo.getArgumentizedString2(), s1, s2);
 					int distanceRaw = StringDistance.editDistance(temp, replacementInfo.getArgumentizedString2(), minDistance);
 					boolean multipleInstances = ReplacementUtil.countInstances(temp, s2) > 1;
@@ -5600,9 +5680,7 @@ public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper
 			for(String s1 : strings1) {
 				TreeMap<Double, Replacement> replacementMap = new TreeMap<Double, Replacement>();
 				for(String s2 : strings2) {
-					if(Thread.interrupted()) {
-						throw new RefactoringMinerTimedOutException();
-					}
+					checkDeadline();
 					boolean containsMethodSignatureOfAnonymousClass1 = containsMethodSignatureOfAnonymousClass(s1);
 					boolean containsMethodSignatureOfAnonymousClass2 = containsMethodSignatureOfAnonymousClass(s2);
 					if(containsMethodSignatureOfAnonymousClass1 != containsMethodSignatureOfAnonymousClass2 &&
@@ -5651,9 +5729,7 @@ public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper
 			for(String s2 : strings2) {
 				TreeMap<Double, Replacement> replacementMap = new TreeMap<Double, Replacement>();
 				for(String s1 : strings1) {
-					if(Thread.interrupted()) {
-						throw new RefactoringMinerTimedOutException();
-					}
+					checkDeadline();
 					boolean containsMethodSignatureOfAnonymousClass1 = containsMethodSignatureOfAnonymousClass(s1);
 					boolean containsMethodSignatureOfAnonymousClass2 = containsMethodSignatureOfAnonymousClass(s2);
 					if(containsMethodSignatureOfAnonymousClass1 != containsMethodSignatureOfAnonymousClass2 &&
@@ -5963,7 +6039,7 @@ public class UMLOperationBodyMapper implements Comparable<UMLOperationBodyMapper
 		OperationBody body1 = container1.getBody();
 		OperationBody body2 = container2.getBody();
 		if(body1 != null && body2 != null) {
-			return container1.getBodyHashCode() == container2.getBodyHashCode();
+			return body1.identicalBody(body2);
 		}
 		return false;
 	}
@@ -157,7 +157,7 @@ public class VariableReplacementAnalysis {
 							if(declarations1.toString().equals(declarations2.toString())) {
 								processVariableDeclarationsInIdenticalOperations(declarations1, declarations2);
 							}
-							if(body1.getBodyHashCode() == body2.getBodyHashCode()) {
+							if(body1.identicalBody(body2)) {
 								processVariableDeclarationsInIdenticalOperations(body1.getAllVariableDeclarations(), body2.getAllVariableDeclarations());
 							}
 						}
@@ -174,7 +174,7 @@ public class VariableReplacementAnalysis {
 				OperationBody body1 = lambda1.getBody();
 				OperationBody body2 = lambda2.getBody();
 				if(body1 != null && body2 != null) {
-					if(body1.getBodyHashCode() == body2.getBodyHashCode()) {
+					if(body1.identicalBody(body2)) {
 						processVariableDeclarationsInIdenticalOperations(body1.getAllVariableDeclarations(), body2.getAllVariableDeclarations());
 					}
 				}
@@ -215,7 +215,7 @@ public class VariableReplacementAnalysis {
 				}
 			}
 		}
-		else if(operation1.getBody() != null && operation2.getBody() != null && operation1.getBodyHashCode() == operation2.getBodyHashCode()) {
+		else if(operation1.getBody() != null && operation2.getBody() != null && operation1.identicalBody(operation2)) {
 			if(removedVariables.size() <= addedVariables.size()) {
 				for(VariableDeclaration removedVariable : removedVariables) {
 					if(!removedVariablesToBeRemoved.contains(removedVariable)) {
@@ -55,12 +55,14 @@ import org.eclipse.jdt.core.dom.TypeLiteral;
 import org.eclipse.jdt.core.dom.TypeMethodReference;
 import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
 import org.eclipse.jdt.core.dom.WildcardType;
+import org.refactoringminer.util.StringInterner;
 
 public class Visitor extends ASTVisitor {
 	public static final Pattern METHOD_INVOCATION_PATTERN = Pattern.compile("!(\\w|\\.)*@\\w*");
 	public static final Pattern METHOD_SIGNATURE_PATTERN = Pattern.compile("(public|protected|private|static|\\s) +[\\w\\<\\>\\[\\]]+\\s+(\\w+) *\\([^\\)]*\\) *(\\{?|[^;])");
 	private CompilationUnit cu;
 	private String filePath;
+	private StringInterner interner;
 	private List<String> variables = new ArrayList<String>();
 	private List<String> types = new ArrayList<String>();
 	private Map<String, List<AbstractCall>> methodInvocationMap = new LinkedHashMap<String, List<AbstractCall>>();
@@ -86,31 +88,36 @@ public class Visitor extends ASTVisitor {
 	public Visitor(CompilationUnit cu, String filePath) {
 		this.cu = cu;
 		this.filePath = filePath;
+		this.interner = StringInterner.of(cu);
+	}
+
+	private String intern(String s) {
+		return StringInterner.intern(interner, s);
 	}
 
 	public boolean visit(ArrayAccess node) {
-		arrayAccesses.add(node.toString());
+		arrayAccesses.add(intern(node.toString()));
 		if(current.getUserObject() != null) {
 			AnonymousClassDeclarationObject anonymous = (AnonymousClassDeclarationObject)current.getUserObject();
-			anonymous.getArrayAccesses().add(node.toString());
+			anonymous.getArrayAccesses().add(intern(node.toString()));
 		}
 		return super.visit(node);
 	}
 
 	public boolean visit(PrefixExpression node) {
-		prefixExpressions.add(node.toString());
+		prefixExpressions.add(intern(node.toString()));
 		if(current.getUserObject() != null) {
 			AnonymousClassDeclarationObject anonymous = (AnonymousClassDeclarationObject)current.getUserObject();
-			anonymous.getPrefixExpressions().add(node.toString());
+			anonymous.getPrefixExpressions().add(intern(node.toString()));
 		}
 		return super.visit(node);
 	}
 
 	public boolean visit(PostfixExpression node) {
-		postfixExpressions.add(node.toString());
+		postfixExpressions.add(intern(node.toString()));
 		if(current.getUserObject() != null) {
 			AnonymousClassDeclarationObject anonymous = (AnonymousClassDeclarationObject)current.getUserObject();
-			anonymous.getPostfixExpressions().add(node.toString());
+			anonymous.getPostfixExpressions().add(intern(node.toString()));
 		}
 		return super.visit(node);
 	}
@@ -126,12 +133,12 @@ public class Visitor extends ASTVisitor {
 	}
 
 	public boolean visit(InfixExpression node) {
-		infixExpressions.add(node.toString());
-		infixOperators.add(node.getOperator().toString());
+		infixExpressions.add(intern(node.toString()));
+		infixOperators.add(intern(node.getOperator().toString()));
 		if(current.getUserObject() != null) {
 			AnonymousClassDeclarationObject anonymous = (AnonymousClassDeclarationObject)current.getUserObject();
-			anonymous.getInfixExpressions().add(node.toString());
-			anonymous.getInfixOperators().add(node.getOperator().toString());
+			anonymous.getInfixExpressions().add(intern(node.toString()));
+			anonymous.getInfixOperators().add(intern(node.getOperator().toString()));
 		}
 		return super.visit(node);
 	}
@@ -142,7 +149,7 @@ public class Visitor extends ASTVisitor {
 			processArgument(argument);
 		}
 		ObjectCreation creation = new ObjectCreation(cu, filePath, node);
-		String nodeAsString = node.toString();
+		String nodeAsString = intern(node.toString());
 		if(creationMap.containsKey(nodeAsString)) {
 			creationMap.get(nodeAsString).add(creation);
 		}
@@ -168,7 +175,7 @@ public class Visitor extends ASTVisitor {
 
 	public boolean visit(ArrayCreation node) {
 		ObjectCreation creation = new ObjectCreation(cu, filePath, node);
-		String nodeAsString = node.toString();
+		String nodeAsString = intern(node.toString());
 		if(creationMap.containsKey(nodeAsString)) {
 			creationMap.get(nodeAsString).add(creation);
 		}
@@ -337,56 +344,56 @@ public class Visitor extends ASTVisitor {
 	}
 
 	public boolean visit(StringLiteral node) {
-		stringLiterals.add(node.toString());
+		stringLiterals.add(intern(node.toString()));
 		if(current.getUserObject() != null) {
 			AnonymousClassDeclarationObject anonymous = (AnonymousClassDeclarationObject)current.getUserObject();
-			anonymous.getStringLiterals().add(node.toString());
+			anonymous.getStringLiterals().add(intern(node.toString()));
 		}
 		return super.visit(node);
 	}
 
 	public boolean visit(NumberLiteral node) {
-		numberLiterals.add(node.toString());
+		numberLiterals.add(intern(node.toString()));
 		if(current.getUserObject() != null) {
 			AnonymousClassDeclarationObject anonymous = (AnonymousClassDeclarationObject)current.getUserObject();
-			anonymous.getNumberLiterals().add(node.toString());
+			anonymous.getNumberLiterals().add(intern(node.toString()));
 		}
 		return super.visit(node);
 	}
 
 	public boolean visit(NullLiteral node) {
-		nullLiterals.add(node.toString());
+		nullLiterals.add(intern(node.toString()));
 		if(current.getUserObject() != null) {
 			AnonymousClassDeclarationObject anonymous = (AnonymousClassDeclarationObject)current.getUserObject();
-			anonymous.getNullLiterals().add(node.toString());
+			anonymous.getNullLiterals().add(intern(node.toString()));
 		}
 		return super.visit(node);
 	}
 
 	public boolean visit(BooleanLiteral node) {
-		booleanLiterals.add(node.toString());
+		booleanLiterals.add(intern(node.toString()));
 		if(current.getUserObject() != null) {
 			AnonymousClassDeclarationObject anonymous = (AnonymousClassDeclarationObject)current.getUserObject();
-			anonymous.getBooleanLiterals().add(node.toString());
+			anonymous.getBooleanLiterals().add(intern(node.toString()));
 		}
 		return super.visit(node);
 	}
 
 	public boolean visit(TypeLiteral node) {
-		typeLiterals.add(node.toString());
+		typeLiterals.add(intern(node.toString()));
 		if(current.getUserObject() != null) {
 			AnonymousClassDeclarationObject anonymous = (AnonymousClassDeclarationObject)current.getUserObject();
-			anonymous.getTypeLiterals().add(node.toString());
+			anonymous.getTypeLiterals().add(intern(node.toString()));
 		}
 		return super.visit(node);
 	}
 
 	public boolean visit(ThisExpression node) {
 		if(!(node.getParent() instanceof FieldAccess)) {
-			variables.add(node.toString());
+			variables.add(intern(node.toString()));
 			if(current.getUserObject() != null) {
 				AnonymousClassDeclarationObject anonymous = (AnonymousClassDeclarationObject)current.getUserObject();
-				anonymous.getVariables().add(node.toString());
+				anonymous.getVariables().add(intern(node.toString()));
 			}
 		}
 		return super.visit(node);
@@ -395,10 +402,10 @@ public class Visitor extends ASTVisitor {
 	public boolean visit(SimpleName node) {
 		if(node.getParent() instanceof FieldAccess && ((FieldAccess)node.getParent()).getExpression() instanceof ThisExpression) {
 			FieldAccess fieldAccess = (FieldAccess)node.getParent();
-			variables.add(fieldAccess.toString());
+			variables.add(intern(fieldAccess.toString()));
 			if(current.getUserObject() != null) {
 				AnonymousClassDeclarationObject anonymous = (AnonymousClassDeclarationObject)current.getUserObject();
-				anonymous.getVariables().add(fieldAccess.toString());
+				anonymous.getVariables().add(intern(fieldAccess.toString()));
 			}
 		}
 		else if(node.getParent() instanceof MethodInvocation &&
@@ -436,66 +443,66 @@ public class Visitor extends ASTVisitor {
 			// skip names being part of qualified names
 		}
 		else {
-			variables.add(node.getIdentifier());
+			variables.add(intern(node.getIdentifier()));
 			if(current.getUserObject() != null) {
 				AnonymousClassDeclarationObject anonymous = (AnonymousClassDeclarationObject)current.getUserObject();
-				anonymous.getVariables().add(node.getIdentifier());
+				anonymous.getVariables().add(intern(node.getIdentifier()));
 			}
 		}
 		return super.visit(node);
 	}
 	
 	public boolean visit(ArrayType node) {
-		types.add(node.toString());
+		types.add(intern(node.toString()));
 		if(current.getUserObject() != null) {
 			AnonymousClassDeclarationObject anonymous = (AnonymousClassDeclarationObject)current.getUserObject();
-			anonymous.getTypes().add(node.toString());
+			anonymous.getTypes().add(intern(node.toString()));
 		}
 		return false;
 	}
 	
 	public boolean visit(ParameterizedType node) {
-		types.add(node.toString());
+		types.add(intern(node.toString()));
 		if(current.getUserObject() != null) {
 			AnonymousClassDeclarationObject anonymous = (AnonymousClassDeclarationObject)current.getUserObject();
-			anonymous.getTypes().add(node.toString());
+			anonymous.getTypes().add(intern(node.toString()));
 		}
 		return false;
 	}
 	
 	public boolean visit(WildcardType node) {
-		types.add(node.toString());
+		types.add(intern(node.toString()));
 		if(current.getUserObject() != null) {
 			AnonymousClassDeclarationObject anonymous = (AnonymousClassDeclarationObject)current.getUserObject();
-			anonymous.getTypes().add(node.toString());
+			anonymous.getTypes().add(intern(node.toString()));
 		}
 		return false;
 	}
 	
 	public boolean visit(QualifiedType node) {
-		types.add(node.toString());
+		types.add(intern(node.toString()));
 		if(current.getUserObject() != null) {
 			AnonymousClassDeclarationObject anonymous = (AnonymousClassDeclarationObject)current.getUserObject();
-			anonymous.getTypes().add(node.toString());
+			anonymous.getTypes().add(intern(node.toString()));
 		}
 		return false;
 	}
 	
 	public boolean visit(PrimitiveType node) {
-		types.add(node.toString());
+		types.add(intern(node.toString()));
 		if(current.getUserObject() != null) {
 			AnonymousClassDeclarationObject anonymous = (AnonymousClassDeclarationObject)current.getUserObject();
-			anonymous.getTypes().add(node.toString());
+			anonymous.getTypes().add(intern(node.toString()));
 		}
 		return false;
 	}
 	
 	public boolean visit(SimpleType node) {
 		Name name = node.getName();
-		types.add(name.getFullyQualifiedName());
+		types.add(intern(name.getFullyQualifiedName()));
 		if(current.getUserObject() != null) {
 			AnonymousClassDeclarationObject anonymous = (AnonymousClassDeclarationObject)current.getUserObject();
-			anonymous.getTypes().add(name.getFullyQualifiedName());
+			anonymous.getTypes().add(intern(name.getFullyQualifiedName()));
 		}
 		return false;
 	}
@@ -512,6 +519,7 @@ public class Visitor extends ASTVisitor {
 		else {
 			methodInvocation = node.toString();
 		}
+		methodInvocation = intern(methodInvocation);
 		OperationInvocation invocation = new OperationInvocation(cu, filePath, node);
 		if(methodInvocationMap.containsKey(methodInvocation)) {
 			methodInvocationMap.get(methodInvocation).add(invocation);
@@ -538,7 +546,7 @@ public class Visitor extends ASTVisitor {
 
 	public boolean visit(ExpressionMethodReference node) {
 		MethodReference reference = new MethodReference(cu, filePath, node);
-		String referenceString = node.toString();
+		String referenceString = intern(node.toString());
 		if(methodInvocationMap.containsKey(referenceString)) {
 			methodInvocationMap.get(referenceString).add(reference);
 		}
@@ -564,7 +572,7 @@ public class Visitor extends ASTVisitor {
 	
 	public boolean visit(SuperMethodReference node) {
 		MethodReference reference = new MethodReference(cu, filePath, node);
-		String referenceString = node.toString();
+		String referenceString = intern(node.toString());
 		if(methodInvocationMap.containsKey(referenceString)) {
 			methodInvocationMap.get(referenceString).add(reference);
 		}
@@ -590,7 +598,7 @@ public class Visitor extends ASTVisitor {
 	
 	public boolean visit(TypeMethodReference node) {
 		MethodReference reference = new MethodReference(cu, filePath, node);
-		String referenceString = node.toString();
+		String referenceString = intern(node.toString());
 		if(methodInvocationMap.containsKey(referenceString)) {
 			methodInvocationMap.get(referenceString).add(reference);
 		}
@@ -648,7 +656,7 @@ public class Visitor extends ASTVisitor {
 			processArgument(argument);
 		}
 		OperationInvocation invocation = new OperationInvocation(cu, filePath, node);
-		String nodeAsString = node.toString();
+		String nodeAsString = intern(node.toString());
 		if(methodInvocationMap.containsKey(nodeAsString)) {
 			methodInvocationMap.get(nodeAsString).add(invocation);
 		}
@@ -678,7 +686,7 @@ public class Visitor extends ASTVisitor {
 			processArgument(argument);
 		}
 		OperationInvocation invocation = new OperationInvocation(cu, filePath, node);
-		String nodeAsString = node.toString();
+		String nodeAsString = intern(node.toString());
 		if(methodInvocationMap.containsKey(nodeAsString)) {
 			methodInvocationMap.get(nodeAsString).add(invocation);
 		}
@@ -708,7 +716,7 @@ public class Visitor extends ASTVisitor {
 			processArgument(argument);
 		}
 		OperationInvocation invocation = new OperationInvocation(cu, filePath, node);
-		String nodeAsString = node.toString();
+		String nodeAsString = intern(node.toString());
 		if(methodInvocationMap.containsKey(nodeAsString)) {
 			methodInvocationMap.get(nodeAsString).add(invocation);
 		}
@@ -767,10 +775,10 @@ public class Visitor extends ASTVisitor {
 				anonymous.getLambdas().add(lambda);
 			}
 		}
-		this.arguments.add(argument.toString());
+		this.arguments.add(intern(argument.toString()));
 		if(current.getUserObject() != null) {
 			AnonymousClassDeclarationObject anonymous = (AnonymousClassDeclarationObject)current.getUserObject();
-			anonymous.getArguments().add(argument.toString());
+			anonymous.getArguments().add(intern(argument.toString()));
 		}
 	}
 
@@ -790,15 +798,15 @@ public class Visitor extends ASTVisitor {
 	public boolean visit(QualifiedName node) {
 		Name qualifier = node.getQualifier();
 		if(Character.isUpperCase(qualifier.getFullyQualifiedName().charAt(0))) {
-			types.add(qualifier.getFullyQualifiedName());
+			types.add(intern(qualifier.getFullyQualifiedName()));
 			if(current.getUserObject() != null) {
 				AnonymousClassDeclarationObject anonymous = (AnonymousClassDeclarationObject)current.getUserObject();
-				anonymous.getTypes().add(qualifier.getFullyQualifiedName());
+				anonymous.getTypes().add(intern(qualifier.getFullyQualifiedName()));
 			}
-			variables.add(node.toString());
+			variables.add(intern(node.toString()));
 			if(current.getUserObject() != null) {
 				AnonymousClassDeclarationObject anonymous = (AnonymousClassDeclarationObject)current.getUserObject();
-				anonymous.getVariables().add(node.toString());
+				anonymous.getVariables().add(intern(node.toString()));
 			}
 		}
 		else if(qualifier instanceof SimpleName && !(node.getParent() instanceof QualifiedName)) {
@@ -814,20 +822,20 @@ public class Visitor extends ASTVisitor {
 					}
 				}
 				if(qualifierIsParameter) {
-					variables.add(node.toString());
+					variables.add(intern(node.toString()));
 					if(current.getUserObject() != null) {
 						AnonymousClassDeclarationObject anonymous = (AnonymousClassDeclarationObject)current.getUserObject();
-						anonymous.getVariables().add(node.toString());
+						anonymous.getVariables().add(intern(node.toString()));
 					}
 				}
 			}
 			EnhancedForStatement enhancedFor = findParentEnhancedForStatement(node);
 			if(enhancedFor != null) {
 				if(enhancedFor.getParameter().getName().getIdentifier().equals(qualifierIdentifier)) {
-					variables.add(node.toString());
+					variables.add(intern(node.toString()));
 					if(current.getUserObject() != null) {
 						AnonymousClassDeclarationObject anonymous = (AnonymousClassDeclarationObject)current.getUserObject();
-						anonymous.getVariables().add(node.toString());
+						anonymous.getVariables().add(intern(node.toString()));
 					}
 				}
 			}
@@ -860,10 +868,10 @@ public class Visitor extends ASTVisitor {
 	public boolean visit(CastExpression node) {
 		Expression castExpression = node.getExpression();
 		if(castExpression instanceof SimpleName) {
-			variables.add(node.toString());
+			variables.add(intern(node.toString()));
 			if(current.getUserObject() != null) {
 				AnonymousClassDeclarationObject anonymous = (AnonymousClassDeclarationObject)current.getUserObject();
-				anonymous.getVariables().add(node.toString());
+				anonymous.getVariables().add(intern(node.toString()));
 			}
 		}
 		return super.visit(node);
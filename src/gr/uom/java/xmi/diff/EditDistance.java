@@ -0,0 +1,169 @@
+package gr.uom.java.xmi.diff;
+
+/**
+ * Computes the Levenshtein distance of two strings with the bit-parallel algorithm of Myers when the shorter string
+ * fits in a 64-bit word, and otherwise with a dynamic programming matrix restricted to the diagonal band allowed by the threshold.
+ * The common prefix and suffix of the strings are skipped, and the buffers are reused by the calls made from the same thread.
+ */
+final class EditDistance {
+	private static final int WORD_SIZE = 64;
+	private static final int ASCII_SIZE = 128;
+	private static final ThreadLocal<EditDistance> INSTANCE = ThreadLocal.withInitial(EditDistance::new);
+	private final long[] asciiMasks = new long[ASCII_SIZE];
+	private int[] previousRow = new int[WORD_SIZE + 1];
+	private int[] currentRow = new int[WORD_SIZE + 1];
+
+	private EditDistance() {
+	}
+
+	/**
+	 * @return The edit distance of the strings if it is at most {@code threshold}, otherwise -1.
+	 */
+	static int distance(String a, String b, int threshold) {
+		if(threshold < 0) {
+			throw new IllegalArgumentException("Threshold must not be negative");
+		}
+		return INSTANCE.get().compute(a, b, threshold);
+	}
+
+	static int distance(String a, String b) {
+		return INSTANCE.get().compute(a, b, Integer.MAX_VALUE);
+	}
+
+	private int compute(String a, String b, int threshold) {
+		int length1 = a.length();
+		int length2 = b.length();
+		int minLength = Math.min(length1, length2);
+		int prefix = 0;
+		while(prefix < minLength && a.charAt(prefix) == b.charAt(prefix)) {
+			prefix++;
+		}
+		int suffix = 0;
+		while(suffix < minLength - prefix && a.charAt(length1 - 1 - suffix) == b.charAt(length2 - 1 - suffix)) {
+			suffix++;
+		}
+		int remaining1 = length1 - prefix - suffix;
+		int remaining2 = length2 - prefix - suffix;
+		if(Math.abs(remaining1 - remaining2) > threshold) {
+			return -1;
+		}
+		if(remaining1 == 0 || remaining2 == 0) {
+			return Math.max(remaining1, remaining2);
+		}
+		String pattern = a, text = b;
+		int patternLength = remaining1, textLength = remaining2;
+		if(remaining1 > remaining2) {
+			pattern = b;
+			text = a;
+			patternLength = remaining2;
+			textLength = remaining1;
+		}
+		if(patternLength <= WORD_SIZE) {
+			return bitParallel(pattern, text, prefix, patternLength, textLength, threshold);
+		}
+		return banded(pattern, text, prefix, patternLength, textLength, Math.min(threshold, textLength));
+	}
+
+	private int bitParallel(String pattern, String text, int offset, int patternLength, int textLength, int threshold) {
+		for(int i = 0; i < patternLength; i++) {
+			char c = pattern.charAt(offset + i);
+			if(c < ASCII_SIZE) {
+				asciiMasks[c] |= 1L << i;
+			}
+		}
+		long last = 1L << (patternLength - 1);
+		long vp = -1L;
+		long vn = 0L;
+		int score = patternLength;
+		for(int j = 0; j < textLength; j++) {
+			char c = text.charAt(offset + j);
+			long eq = c < ASCII_SIZE ? asciiMasks[c] : mask(pattern, offset, patternLength, c);
+			long xv = eq | vn;
+			long xh = (((eq & vp) + vp) ^ vp) | eq;
+			long hp = vn | ~(xh | vp);
+			long hn = vp & xh;
+			if((hp & last) != 0) {
+				score++;
+			}
+			else if((hn & last) != 0) {
+				score--;
+			}
+			if(score - (textLength - 1 - j) > threshold) {
+				score = -1;
+				break;
+			}
+			hp = (hp << 1) | 1L;
+			hn = hn << 1;
+			vp = hn | ~(xv | hp);
+			vn = hp & xv;
+		}
+		for(int i = 0; i < patternLength; i++) {
+			char c = pattern.charAt(offset + i);
+			if(c < ASCII_SIZE) {
+				asciiMasks[c] = 0L;
+			}
+		}
+		return score;
+	}
+
+	private static long mask(String pattern, int offset, int patternLength, char c) {
+		long mask = 0L;
+		for(int i = 0; i < patternLength; i++) {
+			if(pattern.charAt(offset + i) == c) {
+				mask |= 1L << i;
+			}
+		}
+		return mask;
+	}
+
+	//Ukkonen's cut-off: only the cells within threshold of the diagonal can lead to a distance within threshold
+	private int banded(String pattern, String text, int offset, int patternLength, int textLength, int threshold) {
+		if(previousRow.length <= patternLength) {
+			previousRow = new int[patternLength + 1];
+			currentRow = new int[patternLength + 1];
+		}
+		int infinity = threshold + 1;
+		int[] previous = previousRow;
+		int[] current = currentRow;
+		int previousMax = Math.min(patternLength, threshold);
+		for(int i = 0; i <= previousMax; i++) {
+			previous[i] = i;
+		}
+		for(int j = 1; j <= textLength; j++) {
+			char c = text.charAt(offset + j - 1);
+			int min = Math.max(1, j - threshold);
+			int max = Math.min(patternLength, j + threshold);
+			current[0] = j <= threshold ? j : infinity;
+			int left = min > 1 ? infinity : current[0];
+			int rowMin = current[0];
+			for(int i = min; i <= max; i++) {
+				int diagonal = previous[i - 1];
+				int up = i <= previousMax ? previous[i] : infinity;
+				int cost;
+				if(pattern.charAt(offset + i - 1) == c) {
+					cost = diagonal;
+				}
+				else {
+					cost = Math.min(Math.min(left, up), diagonal) + 1;
+				}
+				if(cost > infinity) {
+					cost = infinity;
+				}
+				current[i] = cost;
+				left = cost;
+				if(cost < rowMin) {
+					rowMin = cost;
+				}
+			}
+			if(rowMin > threshold) {
+				return -1;
+			}
+			int[] swap = previous;
+			previous = current;
+			current = swap;
+			previousMax = max;
+		}
+		int distance = previous[patternLength];
+		return distance <= threshold ? distance : -1;
+	}
+}
@@ -0,0 +1,67 @@
+package gr.uom.java.xmi.diff;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import gr.uom.java.xmi.UMLOperation;
+import gr.uom.java.xmi.decomposition.OperationBody;
+
+/**
+ * Indexes operations by the content hash of their body, so that the operations with a body identical to a given one
+ * are found without comparing it to every operation.
+ */
+class OperationBodyIndex {
+	private final Map<Long, List<UMLOperation>> operationMap = new HashMap<Long, List<UMLOperation>>();
+
+	OperationBodyIndex(Collection<UMLOperation> operations) {
+		for(UMLOperation operation : operations) {
+			if(operation.getBody() != null) {
+				List<UMLOperation> identicalOperations = operationMap.get(operation.getBody().getBodyContentHash());
+				if(identicalOperations == null) {
+					identicalOperations = new ArrayList<UMLOperation>(1);
+					operationMap.put(operation.getBody().getBodyContentHash(), identicalOperations);
+				}
+				identicalOperations.add(operation);
+			}
+		}
+	}
+
+	/**
+	 * @return The single indexed operation among {@code candidates} whose body is identical to {@code body},
+	 * or null if there is none or more than one.
+	 */
+	UMLOperation singleOperationWithIdenticalBody(OperationBody body, Collection<UMLOperation> candidates) {
+		UMLOperation match = null;
+		if(body != null) {
+			List<UMLOperation> identicalOperations = operationMap.get(body.getBodyContentHash());
+			if(identicalOperations != null) {
+				for(UMLOperation operation : identicalOperations) {
+					if(operation.getBody().identicalBody(body) && candidates.contains(operation)) {
+						if(match != null) {
+							return null;
+						}
+						match = operation;
+					}
+				}
+			}
+		}
+		return match;
+	}
+
+	boolean containsOperationWithIdenticalBody(OperationBody body) {
+		if(body != null) {
+			List<UMLOperation> identicalOperations = operationMap.get(body.getBodyContentHash());
+			if(identicalOperations != null) {
+				for(UMLOperation operation : identicalOperations) {
+					if(operation.getBody().identicalBody(body)) {
+						return true;
+					}
+				}
+			}
+		}
+		return false;
+	}
+}
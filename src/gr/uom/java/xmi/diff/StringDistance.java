@@ -6,7 +6,6 @@ import java.util.List;
 import java.util.regex.Pattern;
 
 import org.apache.commons.io.IOUtils;
-import org.apache.commons.text.similarity.LevenshteinDistance;
 
 import com.github.difflib.DiffUtils;
 import com.github.difflib.patch.AbstractDelta;
@@ -18,7 +17,7 @@ public class StringDistance {
 	private static final Pattern COMMENT_LINE = Pattern.compile("^\\s*(//|\\*|import\\s).*");
 	
 	public static int editDistance(String a, String b, int threshold) {
-		return new LevenshteinDistance(threshold).apply(a, b);
+		return EditDistance.distance(a, b, threshold);
 	}
 
 	public static int editDistance(String a, String b) {
@@ -27,7 +26,7 @@ public class StringDistance {
 		if(length1 > MAX_STRING_LENGTH || length2 > MAX_STRING_LENGTH) {
 			return Math.max(length1, length2);
 		}
-		return new LevenshteinDistance().apply(a, b);
+		return EditDistance.distance(a, b);
 	}
 
 	public static boolean trivialCommentChange(String fileBefore, String fileAfter) throws IOException {
@@ -12,6 +12,7 @@ import java.util.Set;
 import org.refactoringminer.api.Refactoring;
 import org.refactoringminer.api.RefactoringMinerTimedOutException;
 import org.refactoringminer.api.RefactoringType;
+import org.refactoringminer.util.Deadline;
 import org.refactoringminer.util.PrefixSuffixUtils;
 
 import gr.uom.java.xmi.UMLAbstractClass;
@@ -125,6 +126,10 @@ public abstract class UMLAbstractClassDiff {
 		return modelDiff;
 	}
 
+	public Deadline getDeadline() {
+		return modelDiff != null ? modelDiff.getDeadline() : Deadline.NONE;
+	}
+
 	public UMLOperationDiff getOperationDiff(UMLOperation operation1, UMLOperation operation2) {
 		for(UMLOperationDiff diff : operationDiffList) {
 			if(diff.getRemovedOperation().equals(operation1) && diff.getAddedOperation().equals(operation2)) {
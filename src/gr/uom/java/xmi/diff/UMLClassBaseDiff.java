@@ -12,6 +12,7 @@ import java.util.TreeSet;
 
 import org.refactoringminer.api.Refactoring;
 import org.refactoringminer.api.RefactoringMinerTimedOutException;
+import org.refactoringminer.util.Deadline;
 
 import gr.uom.java.xmi.UMLAnnotation;
 import gr.uom.java.xmi.UMLAnonymousClass;
@@ -72,18 +73,39 @@ public abstract class UMLClassBaseDiff extends UMLAbstractClassDiff implements C
 	}
 
 	public void process() throws RefactoringMinerTimedOutException {
+		processDeclarations();
+		processInheritance();
+		processOperationsAndAttributes();
+	}
+
+	/**
+	 * Processes everything but the inheritance of the classes, which must have been processed with {@link #processInheritance()}.
+	 */
+	public void processMembers() throws RefactoringMinerTimedOutException {
+		processDeclarations();
+		processOperationsAndAttributes();
+	}
+
+	private void processDeclarations() throws RefactoringMinerTimedOutException {
 		processImports();
 		processInitializers();
 		processModifiers();
 		processAnnotations();
 		processEnumConstants();
-		processInheritance();
+	}
+
+	private void processOperationsAndAttributes() throws RefactoringMinerTimedOutException {
+		Deadline deadline = getDeadline();
 		processOperations();
+		deadline.check();
 		createBodyMappers();
 		processAnonymousClasses();
+		deadline.check();
 		checkForOperationSignatureChanges();
+		deadline.check();
 		processAttributes();
 		checkForAttributeChanges();
+		deadline.check();
 		checkForInlinedOperations();
 		checkForExtractedOperations();
 	}
@@ -487,7 +509,11 @@ public abstract class UMLClassBaseDiff extends UMLAbstractClassDiff implements C
 		return null;
 	}
 
-	private void processInheritance() {
+	/**
+	 * Compares the superclasses and implemented interfaces of the classes, which the model diff looks up in
+	 * {@link UMLModelDiff#isSubclassOf(String, String)} while the members of the other class diffs are processed.
+	 */
+	public void processInheritance() {
 		if(originalClass.getSuperclass() != null && nextClass.getSuperclass() != null) {
 			if(!originalClass.getSuperclass().equals(nextClass.getSuperclass())) {
 				setSuperclassChanged(true);
@@ -525,28 +551,37 @@ public abstract class UMLClassBaseDiff extends UMLAbstractClassDiff implements C
 		consistentMethodInvocationRenames = findConsistentMethodInvocationRenames();
 		int initialNumberOfRemovedOperations = removedOperations.size();
 		int initialNumberOfAddedOperations = addedOperations.size();
+		//the comparison of the candidates stops early in large classes, so an operation with an identical body may not be compared
+		IdenticalBodies identicalBodies = null;
+		if(initialNumberOfRemovedOperations < MAXIMUM_NUMBER_OF_COMPARED_METHODS || initialNumberOfAddedOperations < MAXIMUM_NUMBER_OF_COMPARED_METHODS) {
+			identicalBodies = new IdenticalBodies();
+		}
 		if(removedOperations.size() <= addedOperations.size()) {
 			for(Iterator<UMLOperation> removedOperationIterator = removedOperations.iterator(); removedOperationIterator.hasNext();) {
 				UMLOperation removedOperation = removedOperationIterator.next();
-				TreeSet<UMLOperationBodyMapper> mapperSet = new TreeSet<UMLOperationBodyMapper>();
-				for(Iterator<UMLOperation> addedOperationIterator = addedOperations.iterator(); addedOperationIterator.hasNext();) {
-					UMLOperation addedOperation = addedOperationIterator.next();
-					if(!containsMapperForOperation1(removedOperation) && !containsMapperForOperation2(addedOperation)) {
-						int maxDifferenceInPosition;
-						if(removedOperation.hasTestAnnotation() && addedOperation.hasTestAnnotation()) {
-							maxDifferenceInPosition = Math.abs(removedOperations.size() - addedOperations.size());
-						}
-						else {
-							maxDifferenceInPosition = Math.max(removedOperations.size(), addedOperations.size());
-						}
-						updateMapperSet(mapperSet, removedOperation, addedOperation, maxDifferenceInPosition);
-						List<UMLOperation> operationsInsideAnonymousClass = addedOperation.getOperationsInsideAnonymousClass(this.addedAnonymousClasses);
-						for(UMLOperation operationInsideAnonymousClass : operationsInsideAnonymousClass) {
-							updateMapperSet(mapperSet, removedOperation, operationInsideAnonymousClass, addedOperation, maxDifferenceInPosition);
-						}
-						if(initialNumberOfRemovedOperations >= MAXIMUM_NUMBER_OF_COMPARED_METHODS && initialNumberOfAddedOperations >= MAXIMUM_NUMBER_OF_COMPARED_METHODS && mapperSet.size() > 0 &&
-								removedOperation.getName().equals(addedOperation.getName())) {
-							break;
+				getDeadline().check();
+				TreeSet<UMLOperationBodyMapper> mapperSet = null;
+				if(identicalBodies != null && !identicalBodies.addedAnonymousOperations.containsOperationWithIdenticalBody(removedOperation.getBody())) {
+					UMLOperation addedOperation = identicalBodies.addedOperations.singleOperationWithIdenticalBody(removedOperation.getBody(), addedOperations);
+					if(addedOperation != null) {
+						mapperSet = identicalBodyMapperSet(removedOperation, addedOperation, identicalBodies);
+					}
+				}
+				if(mapperSet == null) {
+					mapperSet = new TreeSet<UMLOperationBodyMapper>();
+					for(Iterator<UMLOperation> addedOperationIterator = addedOperations.iterator(); addedOperationIterator.hasNext();) {
+						UMLOperation addedOperation = addedOperationIterator.next();
+						if(!containsMapperForOperation1(removedOperation) && !containsMapperForOperation2(addedOperation)) {
+							int maxDifferenceInPosition = maxDifferenceInPosition(removedOperation, addedOperation);
+							updateMapperSet(mapperSet, removedOperation, addedOperation, maxDifferenceInPosition);
+							List<UMLOperation> operationsInsideAnonymousClass = addedOperation.getOperationsInsideAnonymousClass(this.addedAnonymousClasses);
+							for(UMLOperation operationInsideAnonymousClass : operationsInsideAnonymousClass) {
+								updateMapperSet(mapperSet, removedOperation, operationInsideAnonymousClass, addedOperation, maxDifferenceInPosition);
+							}
+							if(initialNumberOfRemovedOperations >= MAXIMUM_NUMBER_OF_COMPARED_METHODS && initialNumberOfAddedOperations >= MAXIMUM_NUMBER_OF_COMPARED_METHODS && mapperSet.size() > 0 &&
+									removedOperation.getName().equals(addedOperation.getName())) {
+								break;
+							}
 						}
 					}
 				}
@@ -575,25 +610,29 @@ public abstract class UMLClassBaseDiff extends UMLAbstractClassDiff implements C
 		else {
 			for(Iterator<UMLOperation> addedOperationIterator = addedOperations.iterator(); addedOperationIterator.hasNext();) {
 				UMLOperation addedOperation = addedOperationIterator.next();
-				TreeSet<UMLOperationBodyMapper> mapperSet = new TreeSet<UMLOperationBodyMapper>();
-				for(Iterator<UMLOperation> removedOperationIterator = removedOperations.iterator(); removedOperationIterator.hasNext();) {
-					UMLOperation removedOperation = removedOperationIterator.next();
-					if(!containsMapperForOperation1(removedOperation) && !containsMapperForOperation2(addedOperation)) {
-						int maxDifferenceInPosition;
-						if(removedOperation.hasTestAnnotation() && addedOperation.hasTestAnnotation()) {
-							maxDifferenceInPosition = Math.abs(removedOperations.size() - addedOperations.size());
-						}
-						else {
-							maxDifferenceInPosition = Math.max(removedOperations.size(), addedOperations.size());
-						}
-						updateMapperSet(mapperSet, removedOperation, addedOperation, maxDifferenceInPosition);
-						List<UMLOperation> operationsInsideAnonymousClass = addedOperation.getOperationsInsideAnonymousClass(this.addedAnonymousClasses);
-						for(UMLOperation operationInsideAnonymousClass : operationsInsideAnonymousClass) {
-							updateMapperSet(mapperSet, removedOperation, operationInsideAnonymousClass, addedOperation, maxDifferenceInPosition);
-						}
-						if(initialNumberOfRemovedOperations >= MAXIMUM_NUMBER_OF_COMPARED_METHODS && initialNumberOfAddedOperations >= MAXIMUM_NUMBER_OF_COMPARED_METHODS && mapperSet.size() > 0 &&
-								removedOperation.getName().equals(addedOperation.getName())) {
-							break;
+				getDeadline().check();
+				TreeSet<UMLOperationBodyMapper> mapperSet = null;
+				if(identicalBodies != null && !identicalBodyInsideAnonymousClass(addedOperation, identicalBodies)) {
+					UMLOperation removedOperation = identicalBodies.removedOperations.singleOperationWithIdenticalBody(addedOperation.getBody(), removedOperations);
+					if(removedOperation != null) {
+						mapperSet = identicalBodyMapperSet(removedOperation, addedOperation, identicalBodies);
+					}
+				}
+				if(mapperSet == null) {
+					mapperSet = new TreeSet<UMLOperationBodyMapper>();
+					for(Iterator<UMLOperation> removedOperationIterator = removedOperations.iterator(); removedOperationIterator.hasNext();) {
+						UMLOperation removedOperation = removedOperationIterator.next();
+						if(!containsMapperForOperation1(removedOperation) && !containsMapperForOperation2(addedOperation)) {
+							int maxDifferenceInPosition = maxDifferenceInPosition(removedOperation, addedOperation);
+							updateMapperSet(mapperSet, removedOperation, addedOperation, maxDifferenceInPosition);
+							List<UMLOperation> operationsInsideAnonymousClass = addedOperation.getOperationsInsideAnonymousClass(this.addedAnonymousClasses);
+							for(UMLOperation operationInsideAnonymousClass : operationsInsideAnonymousClass) {
+								updateMapperSet(mapperSet, removedOperation, operationInsideAnonymousClass, addedOperation, maxDifferenceInPosition);
+							}
+							if(initialNumberOfRemovedOperations >= MAXIMUM_NUMBER_OF_COMPARED_METHODS && initialNumberOfAddedOperations >= MAXIMUM_NUMBER_OF_COMPARED_METHODS && mapperSet.size() > 0 &&
+									removedOperation.getName().equals(addedOperation.getName())) {
+								break;
+							}
 						}
 					}
 				}
@@ -651,6 +690,97 @@ public abstract class UMLClassBaseDiff extends UMLAbstractClassDiff implements C
 		}
 	}
 
+	private int maxDifferenceInPosition(UMLOperation removedOperation, UMLOperation addedOperation) {
+		if(removedOperation.hasTestAnnotation() && addedOperation.hasTestAnnotation()) {
+			return Math.abs(removedOperations.size() - addedOperations.size());
+		}
+		return Math.max(removedOperations.size(), addedOperations.size());
+	}
+
+	/**
+	 * The removed and added operations, and the operations of the added anonymous classes, indexed by body and by the names they call,
+	 * when the signature changes are checked.
+	 */
+	private class IdenticalBodies {
+		private final OperationBodyIndex removedOperations;
+		private final OperationBodyIndex addedOperations;
+		private final OperationBodyIndex addedAnonymousOperations;
+		private final Map<String, Set<UMLOperation>> removedCallers;
+		private final Map<String, Set<UMLOperation>> addedCallers;
+
+		private IdenticalBodies() {
+			List<UMLOperation> anonymousOperations = new ArrayList<UMLOperation>();
+			for(UMLAnonymousClass anonymousClass : UMLClassBaseDiff.this.addedAnonymousClasses) {
+				anonymousOperations.addAll(anonymousClass.getOperations());
+			}
+			this.removedOperations = new OperationBodyIndex(UMLClassBaseDiff.this.removedOperations);
+			this.addedOperations = new OperationBodyIndex(UMLClassBaseDiff.this.addedOperations);
+			this.addedAnonymousOperations = new OperationBodyIndex(anonymousOperations);
+			this.removedCallers = new HashMap<String, Set<UMLOperation>>();
+			indexCallers(UMLClassBaseDiff.this.removedOperations, removedCallers);
+			this.addedCallers = new HashMap<String, Set<UMLOperation>>();
+			indexCallers(UMLClassBaseDiff.this.addedOperations, addedCallers);
+			indexCallers(anonymousOperations, addedCallers);
+		}
+
+		private void indexCallers(List<UMLOperation> operations, Map<String, Set<UMLOperation>> callers) {
+			for(UMLOperation operation : operations) {
+				for(AbstractCall invocation : operation.getAllOperationInvocations()) {
+					Set<UMLOperation> callerSet = callers.get(invocation.getName());
+					if(callerSet == null) {
+						callerSet = new LinkedHashSet<UMLOperation>();
+						callers.put(invocation.getName(), callerSet);
+					}
+					callerSet.add(operation);
+				}
+			}
+		}
+	}
+
+	private boolean identicalBodyInsideAnonymousClass(UMLOperation addedOperation, IdenticalBodies identicalBodies) {
+		for(UMLOperation operationInsideAnonymousClass : addedOperation.getOperationsInsideAnonymousClass(this.addedAnonymousClasses)) {
+			if(identicalBodies.removedOperations.containsOperationWithIdenticalBody(operationInsideAnonymousClass.getBody())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Pairs two operations with identical bodies, found in the body index, without mapping the other candidates. The mapper of the pair
+	 * is first in the mapper set of the candidates, and it is used only if findBestMapper could not prefer the mapper of another candidate,
+	 * that is if no other candidate calls one of the paired operations and the pair does not contradict a consistent method invocation rename.
+	 * 
+	 * @return The mapper set containing only the mapper of the pair, or null if all the candidates have to be mapped.
+	 */
+	private TreeSet<UMLOperationBodyMapper> identicalBodyMapperSet(UMLOperation removedOperation, UMLOperation addedOperation, IdenticalBodies identicalBodies) throws RefactoringMinerTimedOutException {
+		if(containsMapperForOperation1(removedOperation) || containsMapperForOperation2(addedOperation) ||
+				calledWithoutMatching(addedOperation, removedOperation, identicalBodies.addedCallers) ||
+				calledWithoutMatching(removedOperation, addedOperation, identicalBodies.removedCallers)) {
+			return null;
+		}
+		TreeSet<UMLOperationBodyMapper> mapperSet = new TreeSet<UMLOperationBodyMapper>();
+		updateMapperSet(mapperSet, removedOperation, addedOperation, maxDifferenceInPosition(removedOperation, addedOperation));
+		if(mapperSet.isEmpty() || mismatchesConsistentMethodInvocationRename(mapperSet.first(), consistentMethodInvocationRenames.keySet())) {
+			return null;
+		}
+		return mapperSet;
+	}
+
+	private boolean calledWithoutMatching(UMLOperation operation, UMLOperation otherOperation, Map<String, Set<UMLOperation>> callers) {
+		Set<UMLOperation> callerSet = callers.get(operation.getName());
+		if(callerSet != null) {
+			for(UMLOperation caller : callerSet) {
+				for(AbstractCall invocation : caller.getAllOperationInvocations()) {
+					if(invocation.matchesOperation(operation, caller, modelDiff) && !invocation.matchesOperation(otherOperation, caller, modelDiff)) {
+						return true;
+					}
+				}
+			}
+		}
+		return false;
+	}
+
 	private Set<MethodInvocationReplacement> getCallReferences(UMLOperation removedOperation, UMLOperation addedOperation) {
 		Set<MethodInvocationReplacement> callReferences = new LinkedHashSet<MethodInvocationReplacement>();
 		for(MethodInvocationReplacement replacement : consistentMethodInvocationRenames.keySet()) {
@@ -975,7 +1105,7 @@ public abstract class UMLClassBaseDiff extends UMLAbstractClassDiff implements C
 			for(UMLOperation addedOperation : addedOperations) {
 				if(!mapper.getContainer2().equals(addedOperation)) {
 					OperationBody body = addedOperation.getBody();
-					if(body != null && body.getBodyHashCode() == operation1.getBody().getBodyHashCode()) {
+					if(body != null && body.identicalBody(operation1.getBody())) {
 						return true;
 					}
 					else if(equalSignatureWithCommonParameterTypes(operation1, addedOperation)) {
@@ -997,10 +1127,10 @@ public abstract class UMLClassBaseDiff extends UMLAbstractClassDiff implements C
 			}
 			if(nextClass.hasDeprecatedAnnotation() != originalClass.hasDeprecatedAnnotation()) {
 				for(UMLClass addedClass : modelDiff.getAddedClasses()) {
-					for(UMLOperation addedOperation : addedClass.getOperations()) {
+					for(UMLOperation addedOperation : addedClass.getOperationsWithIdenticalBody(operation1.getBody())) {
 						OperationBody body = addedOperation.getBody();
 						List<String> parameterNameList = addedOperation.getParameterNameList();
-						if(body != null && body.getBodyHashCode() == operation1.getBody().getBodyHashCode() &&
+						if(body != null && body.identicalBody(operation1.getBody()) &&
 								parameterNameList.size() > 0 && parameterNameList.equals(operation1.getParameterNameList())) {
 							return true;
 						}
@@ -1014,7 +1144,7 @@ public abstract class UMLClassBaseDiff extends UMLAbstractClassDiff implements C
 				if(!mapper.getContainer2().equals(addedOperation)) {
 					OperationBody body = addedOperation.getBody();
 					List<String> parameterNameList = addedOperation.getParameterNameList();
-					if(body != null && body.getBodyHashCode() == operation1.getBody().getBodyHashCode() &&
+					if(body != null && body.identicalBody(operation1.getBody()) &&
 							parameterNameList.size() > 0 && parameterNameList.equals(operation1.getParameterNameList())) {
 						counter++;
 					}
@@ -1022,10 +1152,10 @@ public abstract class UMLClassBaseDiff extends UMLAbstractClassDiff implements C
 			}
 			if(nextClass.hasDeprecatedAnnotation() != originalClass.hasDeprecatedAnnotation()) {
 				for(UMLClass addedClass : modelDiff.getAddedClasses()) {
-					for(UMLOperation addedOperation : addedClass.getOperations()) {
+					for(UMLOperation addedOperation : addedClass.getOperationsWithIdenticalBody(operation1.getBody())) {
 						OperationBody body = addedOperation.getBody();
 						List<String> parameterNameList = addedOperation.getParameterNameList();
-						if(body != null && body.getBodyHashCode() == operation1.getBody().getBodyHashCode() &&
+						if(body != null && body.identicalBody(operation1.getBody()) &&
 								parameterNameList.size() > 0 && parameterNameList.equals(operation1.getParameterNameList())) {
 							counter++;
 						}
@@ -1047,7 +1177,7 @@ public abstract class UMLClassBaseDiff extends UMLAbstractClassDiff implements C
 			for(UMLOperation removedOperation : removedOperations) {
 				if(!mapper.getContainer1().equals(removedOperation)) {
 					OperationBody body = removedOperation.getBody();
-					if(body != null && body.getBodyHashCode() == operation2.getBody().getBodyHashCode()) {
+					if(body != null && body.identicalBody(operation2.getBody())) {
 						return true;
 					}
 					else if(equalSignatureWithCommonParameterTypes(removedOperation, operation2)) {
@@ -1069,10 +1199,10 @@ public abstract class UMLClassBaseDiff extends UMLAbstractClassDiff implements C
 			}
 			if(nextClass.hasDeprecatedAnnotation() != originalClass.hasDeprecatedAnnotation()) {
 				for(UMLClass removedClass : modelDiff.getRemovedClasses()) {
-					for(UMLOperation removedOperation : removedClass.getOperations()) {
+					for(UMLOperation removedOperation : removedClass.getOperationsWithIdenticalBody(operation2.getBody())) {
 						OperationBody body = removedOperation.getBody();
 						List<String> parameterNameList = removedOperation.getParameterNameList();
-						if(body != null && body.getBodyHashCode() == operation2.getBody().getBodyHashCode() &&
+						if(body != null && body.identicalBody(operation2.getBody()) &&
 								parameterNameList.size() > 0 && parameterNameList.equals(operation2.getParameterNameList())) {
 							return true;
 						}
@@ -1086,7 +1216,7 @@ public abstract class UMLClassBaseDiff extends UMLAbstractClassDiff implements C
 				if(!mapper.getContainer1().equals(removedOperation)) {
 					OperationBody body = removedOperation.getBody();
 					List<String> parameterNameList = removedOperation.getParameterNameList();
-					if(body != null && body.getBodyHashCode() == operation2.getBody().getBodyHashCode() &&
+					if(body != null && body.identicalBody(operation2.getBody()) &&
 							parameterNameList.size() > 0 && parameterNameList.equals(operation2.getParameterNameList())) {
 						counter++;
 					}
@@ -1094,10 +1224,10 @@ public abstract class UMLClassBaseDiff extends UMLAbstractClassDiff implements C
 			}
 			if(nextClass.hasDeprecatedAnnotation() != originalClass.hasDeprecatedAnnotation()) {
 				for(UMLClass removedClass : modelDiff.getRemovedClasses()) {
-					for(UMLOperation removedOperation : removedClass.getOperations()) {
+					for(UMLOperation removedOperation : removedClass.getOperationsWithIdenticalBody(operation2.getBody())) {
 						OperationBody body = removedOperation.getBody();
 						List<String> parameterNameList = removedOperation.getParameterNameList();
-						if(body != null && body.getBodyHashCode() == operation2.getBody().getBodyHashCode() &&
+						if(body != null && body.identicalBody(operation2.getBody()) &&
 								parameterNameList.size() > 0 && parameterNameList.equals(operation2.getParameterNameList())) {
 							counter++;
 						}
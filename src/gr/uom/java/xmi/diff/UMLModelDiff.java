@@ -32,7 +32,9 @@ import gr.uom.java.xmi.decomposition.replacement.Replacement.ReplacementType;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
@@ -42,16 +44,23 @@ import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 
 import org.apache.commons.lang3.tuple.Pair;
 import org.refactoringminer.api.Refactoring;
 import org.refactoringminer.api.RefactoringMinerTimedOutException;
 import org.refactoringminer.api.RefactoringType;
+import org.refactoringminer.util.Deadline;
 import org.refactoringminer.util.PrefixSuffixUtils;
 
 public class UMLModelDiff {
 	private static final Pattern RETURN_NUMBER_LITERAL = Pattern.compile("return \\d+;\n");
+	private static final MatchResult NO_MATCH = new MatchResult(0, 0, 0, 0, false);
 	private final int MAXIMUM_NUMBER_OF_COMPARED_METHODS;
 	private UMLModel parentModel;
 	private UMLModel childModel;
@@ -74,10 +83,23 @@ public class UMLModelDiff {
 	private Set<String> deletedFolderPaths;
 	private Set<Pair<VariableDeclarationContainer, VariableDeclarationContainer>> processedOperationPairs = new HashSet<Pair<VariableDeclarationContainer, VariableDeclarationContainer>>();
 	private Set<Pair<UMLClass, UMLClass>> processedClassPairs = new HashSet<Pair<UMLClass, UMLClass>>();
+	private final Deadline deadline;
+	private int classDiffThreads = 1;
+	private Set<UMLClass> reportedAddedClasses = new HashSet<UMLClass>();
+	private Set<UMLClass> reportedRemovedClasses = new HashSet<UMLClass>();
+	private volatile ClassDiffBatch classDiffBatch;
+	private volatile Map<String, UMLClassBaseDiff> classDiffNameMap;
+	private volatile Map<String, UMLClassBaseDiff> classDiffNameSuffixMap;
+	private Map<Class<?>, Map<Pair<UMLClass, UMLClass>, MatchResult>> classMatchResults = new HashMap<Class<?>, Map<Pair<UMLClass, UMLClass>, MatchResult>>();
 
 	public UMLModelDiff(UMLModel parentModel, UMLModel childModel) {
+		this(parentModel, childModel, Deadline.NONE);
+	}
+
+	public UMLModelDiff(UMLModel parentModel, UMLModel childModel, Deadline deadline) {
 		this.parentModel = parentModel;
 		this.childModel = childModel;
+		this.deadline = deadline;
 		if(partialModel()) {
 			MAXIMUM_NUMBER_OF_COMPARED_METHODS = 500;
 		}
@@ -101,36 +123,27 @@ public class UMLModelDiff {
 		this.deletedFolderPaths = new LinkedHashSet<String>();
 	}
 
+	public Deadline getDeadline() {
+		return deadline;
+	}
+
+	/**
+	 * @param classDiffThreads The number of class diffs whose members are processed concurrently.
+	 */
+	public void setClassDiffThreads(int classDiffThreads) {
+		this.classDiffThreads = classDiffThreads;
+	}
+
 	public UMLAbstractClass findClassInParentModel(String className) {
-		for(UMLClass umlClass : parentModel.getClassList()) {
-			if(umlClass.getName().equals(className)) {
-				return umlClass;
-			}
-		}
-		for(UMLClass umlClass : parentModel.getClassList()) {
-			if(umlClass.getName().endsWith("." + className)) {
-				return umlClass;
-			}
-		}
-		return null;
+		return parentModel.findClass(className);
 	}
 
 	public UMLAbstractClass findClassInChildModel(String className) {
-		for(UMLClass umlClass : childModel.getClassList()) {
-			if(umlClass.getName().equals(className)) {
-				return umlClass;
-			}
-		}
-		for(UMLClass umlClass : childModel.getClassList()) {
-			if(umlClass.getName().endsWith("." + className)) {
-				return umlClass;
-			}
-		}
-		return null;
+		return childModel.findClass(className);
 	}
 
 	public void reportAddedClass(UMLClass umlClass) {
-		if(!addedClasses.contains(umlClass))
+		if(reportedAddedClasses.add(umlClass) || !addedClasses.contains(umlClass))
 			this.addedClasses.add(umlClass);
 	}
 
@@ -139,7 +152,7 @@ public class UMLModelDiff {
 	}
 
 	public void reportRemovedClass(UMLClass umlClass) {
-		if(!removedClasses.contains(umlClass))
+		if(reportedRemovedClasses.add(umlClass) || !removedClasses.contains(umlClass))
 			this.removedClasses.add(umlClass);
 	}
 
@@ -165,6 +178,158 @@ public class UMLModelDiff {
 
 	public void addUMLClassDiff(UMLClassDiff classDiff) {
 		this.commonClassDiffList.add(classDiff);
+		classDiffNameMap = null;
+	}
+
+	/**
+	 * Processes the diffs of the classes common to both models, and keeps the non-empty ones in the given order.
+	 * With a single thread every diff is processed and kept before the next one, so the lookups made while processing
+	 * a diff see only the non-empty diffs before it. With more threads all the diffs are registered with their inheritance
+	 * processed, their members are processed concurrently with the same view of the other diffs, and the empty ones are dropped.
+	 */
+	public void processClassDiffs(List<UMLClassDiff> classDiffs) throws RefactoringMinerTimedOutException {
+		if(classDiffThreads <= 1) {
+			for(UMLClassDiff classDiff : classDiffs) {
+				deadline.check();
+				classDiff.process();
+				if(!classDiff.isEmpty())
+					addUMLClassDiff(classDiff);
+			}
+			return;
+		}
+		for(UMLClassDiff classDiff : classDiffs) {
+			classDiff.processInheritance();
+			commonClassDiffList.add(classDiff);
+		}
+		classDiffNameMap = null;
+		processMembers(classDiffs, true);
+		List<UMLClassDiff> emptyClassDiffs = new ArrayList<UMLClassDiff>();
+		for(UMLClassDiff classDiff : classDiffs) {
+			if(classDiff.isEmpty())
+				emptyClassDiffs.add(classDiff);
+		}
+		if(!emptyClassDiffs.isEmpty()) {
+			commonClassDiffList.removeAll(emptyClassDiffs);
+			classDiffNameMap = null;
+		}
+	}
+
+	/**
+	 * Processes a moved or renamed class diff as soon as it is chosen with a single thread, and otherwise processes only its
+	 * inheritance and leaves its members to {@link #processMembers(List, boolean)} once the matching is complete.
+	 */
+	private void processMatchedClassDiff(UMLClassBaseDiff classDiff, List<UMLClassBaseDiff> matchedClassDiffs) throws RefactoringMinerTimedOutException {
+		if(classDiffThreads <= 1) {
+			classDiff.process();
+		}
+		else {
+			classDiff.processInheritance();
+			matchedClassDiffs.add(classDiff);
+		}
+	}
+
+	/**
+	 * Processes concurrently the members of class diffs that are already registered in the model diff with their inheritance
+	 * processed. While the members of a class diff are processed, the lookups of the model diff see the other class diffs of the
+	 * batch as they would be seen if the batch was processed sequentially in the given order: only the class diffs before it,
+	 * once they are processed, and only the non-empty ones if the empty class diffs are dropped afterwards. The tasks start in
+	 * the given order and only wait for class diffs before them, so a task never waits for a task that has not started.
+	 */
+	private void processMembers(List<? extends UMLClassBaseDiff> classDiffs, boolean emptyClassDiffsDropped) throws RefactoringMinerTimedOutException {
+		if(classDiffs.isEmpty()) {
+			return;
+		}
+		deadline.check();
+		indexClassDiffs();
+		ClassDiffBatch batch = new ClassDiffBatch(classDiffs, emptyClassDiffsDropped);
+		ExecutorService pool = Executors.newFixedThreadPool(Math.min(classDiffThreads, classDiffs.size()));
+		List<Future<Void>> tasks = new ArrayList<Future<Void>>();
+		classDiffBatch = batch;
+		try {
+			for(int i=0; i<classDiffs.size(); i++) {
+				int position = i;
+				tasks.add(pool.submit(() -> {
+					batch.processMembers(position);
+					return null;
+				}));
+			}
+			for(Future<Void> task : tasks) {
+				task.get();
+			}
+		}
+		catch(InterruptedException e) {
+			throw new RefactoringMinerTimedOutException();
+		}
+		catch(ExecutionException e) {
+			Throwable cause = e.getCause();
+			if(cause instanceof RefactoringMinerTimedOutException) {
+				throw (RefactoringMinerTimedOutException)cause;
+			}
+			if(cause instanceof RuntimeException) {
+				throw (RuntimeException)cause;
+			}
+			if(cause instanceof Error) {
+				throw (Error)cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+		finally {
+			pool.shutdownNow();
+			classDiffBatch = null;
+		}
+	}
+
+	private boolean isVisible(UMLClassBaseDiff classDiff) {
+		ClassDiffBatch batch = classDiffBatch;
+		return batch == null || batch.isVisible(classDiff);
+	}
+
+	private static class ClassDiffBatch {
+		private final List<? extends UMLClassBaseDiff> classDiffs;
+		private final Map<UMLClassBaseDiff, Integer> positions = new IdentityHashMap<UMLClassBaseDiff, Integer>();
+		private final List<CountDownLatch> processed = new ArrayList<CountDownLatch>();
+		private final boolean emptyClassDiffsDropped;
+		private final ThreadLocal<Integer> currentPosition = new ThreadLocal<Integer>();
+
+		private ClassDiffBatch(List<? extends UMLClassBaseDiff> classDiffs, boolean emptyClassDiffsDropped) {
+			this.classDiffs = classDiffs;
+			this.emptyClassDiffsDropped = emptyClassDiffsDropped;
+			for(int i=0; i<classDiffs.size(); i++) {
+				positions.put(classDiffs.get(i), i);
+				processed.add(new CountDownLatch(1));
+			}
+		}
+
+		private void processMembers(int position) throws RefactoringMinerTimedOutException {
+			currentPosition.set(position);
+			try {
+				classDiffs.get(position).processMembers();
+			}
+			finally {
+				currentPosition.remove();
+				processed.get(position).countDown();
+			}
+		}
+
+		private boolean isVisible(UMLClassBaseDiff classDiff) {
+			Integer current = currentPosition.get();
+			Integer position = positions.get(classDiff);
+			if(current == null || position == null) {
+				return true;
+			}
+			if(position >= current) {
+				return false;
+			}
+			try {
+				processed.get(position).await();
+			}
+			catch(InterruptedException e) {
+				//the batch is cancelled, and the interrupted task stops at its next deadline check
+				Thread.currentThread().interrupt();
+				return false;
+			}
+			return !(emptyClassDiffsDropped && classDiff.isEmpty());
+		}
 	}
 
 	public List<UMLClassDiff> getCommonClassDiffList() {
@@ -200,43 +365,71 @@ public class UMLModelDiff {
 	}
 
 	public UMLClassBaseDiff getUMLClassDiff(String className) {
-		for(UMLClassDiff classDiff : commonClassDiffList) {
-			if(classDiff.matches(className))
-				return classDiff;
+		indexClassDiffs();
+		UMLClassBaseDiff classDiff = classDiffNameMap.get(className);
+		if(classDiff == null || isVisible(classDiff)) {
+			return classDiff;
 		}
-		for(UMLClassMoveDiff classDiff : classMoveDiffList) {
-			if(classDiff.matches(className))
-				return classDiff;
+		for(UMLClassBaseDiff visibleClassDiff : visibleClassDiffs()) {
+			if(visibleClassDiff.matches(className))
+				return visibleClassDiff;
 		}
-		for(UMLClassMoveDiff classDiff : innerClassMoveDiffList) {
-			if(classDiff.matches(className))
-				return classDiff;
+		return null;
+	}
+
+	public UMLClassBaseDiff getUMLClassDiff(UMLType type) {
+		indexClassDiffs();
+		UMLClassBaseDiff classDiff = classDiffNameSuffixMap.get(type.getClassType());
+		if(classDiff == null || isVisible(classDiff)) {
+			return classDiff;
 		}
-		for(UMLClassRenameDiff classDiff : classRenameDiffList) {
-			if(classDiff.matches(className))
-				return classDiff;
+		for(UMLClassBaseDiff visibleClassDiff : visibleClassDiffs()) {
+			if(visibleClassDiff.matches(type))
+				return visibleClassDiff;
 		}
 		return null;
 	}
 
-	public UMLClassBaseDiff getUMLClassDiff(UMLType type) {
-		for(UMLClassDiff classDiff : commonClassDiffList) {
-			if(classDiff.matches(type))
-				return classDiff;
+	//the class diffs visible to the class diff being processed, in the order in which getUMLClassDiff matches them
+	private List<UMLClassBaseDiff> visibleClassDiffs() {
+		List<UMLClassBaseDiff> classDiffs = new ArrayList<UMLClassBaseDiff>();
+		classDiffs.addAll(commonClassDiffList);
+		classDiffs.addAll(classMoveDiffList);
+		classDiffs.addAll(innerClassMoveDiffList);
+		classDiffs.addAll(classRenameDiffList);
+		classDiffs.removeIf(classDiff -> !isVisible(classDiff));
+		return classDiffs;
+	}
+
+	//indexes the class diffs by the names matched in getUMLClassDiff, keeping the first diff matching each name
+	private void indexClassDiffs() {
+		if(classDiffNameMap != null) {
+			return;
 		}
-		for(UMLClassMoveDiff classDiff : classMoveDiffList) {
-			if(classDiff.matches(type))
-				return classDiff;
+		Map<String, UMLClassBaseDiff> nameMap = new HashMap<String, UMLClassBaseDiff>();
+		Map<String, UMLClassBaseDiff> suffixMap = new HashMap<String, UMLClassBaseDiff>();
+		for(UMLClassDiff classDiff : commonClassDiffList) {
+			indexClassDiff(classDiff.getOriginalClassName(), classDiff, nameMap, suffixMap);
 		}
-		for(UMLClassMoveDiff classDiff : innerClassMoveDiffList) {
-			if(classDiff.matches(type))
-				return classDiff;
+		List<UMLClassBaseDiff> classDiffs = new ArrayList<UMLClassBaseDiff>();
+		classDiffs.addAll(classMoveDiffList);
+		classDiffs.addAll(innerClassMoveDiffList);
+		classDiffs.addAll(classRenameDiffList);
+		for(UMLClassBaseDiff classDiff : classDiffs) {
+			indexClassDiff(classDiff.getOriginalClassName(), classDiff, nameMap, suffixMap);
+			indexClassDiff(classDiff.getNextClassName(), classDiff, nameMap, suffixMap);
 		}
-		for(UMLClassRenameDiff classDiff : classRenameDiffList) {
-			if(classDiff.matches(type))
-				return classDiff;
+		classDiffNameSuffixMap = suffixMap;
+		classDiffNameMap = nameMap;
+	}
+
+	private static void indexClassDiff(String className, UMLClassBaseDiff classDiff, Map<String, UMLClassBaseDiff> nameMap, Map<String, UMLClassBaseDiff> suffixMap) {
+		nameMap.putIfAbsent(className, classDiff);
+		int index = className.indexOf(".");
+		while(index != -1) {
+			suffixMap.putIfAbsent(className.substring(index + 1), classDiff);
+			index = className.indexOf(".", index + 1);
 		}
-		return null;
 	}
 
 	private UMLClassBaseDiff getUMLClassDiffWithAttribute(Replacement pattern) {
@@ -509,12 +702,13 @@ public class UMLModelDiff {
 	}
 
 	public void checkForMovedClasses(Set<String> repositoryDirectories, UMLClassMatcher matcher) throws RefactoringMinerTimedOutException {
+		List<UMLClassBaseDiff> matchedClassDiffs = new ArrayList<UMLClassBaseDiff>();
 		if(removedClasses.size() <= addedClasses.size()) {
 			for(Iterator<UMLClass> removedClassIterator = removedClasses.iterator(); removedClassIterator.hasNext();) {
 				UMLClass removedClass = removedClassIterator.next();
+				deadline.check();
 				TreeSet<UMLClassMoveDiff> diffSet = new TreeSet<UMLClassMoveDiff>(new ClassMoveComparator());
-				for(Iterator<UMLClass> addedClassIterator = addedClasses.iterator(); addedClassIterator.hasNext();) {
-					UMLClass addedClass = addedClassIterator.next();
+				if(!addedClasses.isEmpty()) {
 					String removedClassSourceFile = removedClass.getSourceFile();
 					String removedClassSourceFolder = "";
 					if(removedClassSourceFile.contains("/")) {
@@ -531,7 +725,10 @@ public class UMLModelDiff {
 							}
 						}
 					}
-					MatchResult matchResult = matcher.match(removedClass, addedClass);
+				}
+				for(Iterator<UMLClass> addedClassIterator = addedClasses.iterator(); addedClassIterator.hasNext();) {
+					UMLClass addedClass = addedClassIterator.next();
+					MatchResult matchResult = matchClasses(matcher, removedClass, addedClass);
 					if(matchResult.isMatch()) {
 						if(!conflictingMoveOfTopLevelClass(removedClass, addedClass)) {
 							UMLClassMoveDiff classMoveDiff = new UMLClassMoveDiff(removedClass, addedClass, this, matchResult);
@@ -551,21 +748,24 @@ public class UMLModelDiff {
 						int matchedMembers1 = minClassMoveDiff.getMatchResult().getMatchedOperations() + minClassMoveDiff.getMatchResult().getMatchedAttributes();
 						int matchedMembers2 = minClassRenameDiff.getMatchResult().getMatchedOperations() + minClassRenameDiff.getMatchResult().getMatchedAttributes();
 						if(matchedMembers2 > matchedMembers1) {
-							minClassRenameDiff.process();
+							processMatchedClassDiff(minClassRenameDiff, matchedClassDiffs);
 							classRenameDiffList.add(minClassRenameDiff);
+							classDiffNameMap = null;
 							addedClasses.remove(minClassRenameDiff.getRenamedClass());
 							removedClassIterator.remove();
 						}
 						else {
-							minClassMoveDiff.process();
+							processMatchedClassDiff(minClassMoveDiff, matchedClassDiffs);
 							classMoveDiffList.add(minClassMoveDiff);
+							classDiffNameMap = null;
 							addedClasses.remove(minClassMoveDiff.getMovedClass());
 							removedClassIterator.remove();
 						}
 					}
 					else {
-						minClassMoveDiff.process();
+						processMatchedClassDiff(minClassMoveDiff, matchedClassDiffs);
 						classMoveDiffList.add(minClassMoveDiff);
+						classDiffNameMap = null;
 						addedClasses.remove(minClassMoveDiff.getMovedClass());
 						removedClassIterator.remove();
 					}
@@ -575,6 +775,7 @@ public class UMLModelDiff {
 		else {
 			for(Iterator<UMLClass> addedClassIterator = addedClasses.iterator(); addedClassIterator.hasNext();) {
 				UMLClass addedClass = addedClassIterator.next();
+				deadline.check();
 				TreeSet<UMLClassMoveDiff> diffSet = new TreeSet<UMLClassMoveDiff>(new ClassMoveComparator());
 				for(Iterator<UMLClass> removedClassIterator = removedClasses.iterator(); removedClassIterator.hasNext();) {
 					UMLClass removedClass = removedClassIterator.next();
@@ -594,7 +795,7 @@ public class UMLModelDiff {
 							}
 						}
 					}
-					MatchResult matchResult = matcher.match(removedClass, addedClass);
+					MatchResult matchResult = matchClasses(matcher, removedClass, addedClass);
 					if(matchResult.isMatch()) {
 						if(!conflictingMoveOfTopLevelClass(removedClass, addedClass)) {
 							UMLClassMoveDiff classMoveDiff = new UMLClassMoveDiff(removedClass, addedClass, this, matchResult);
@@ -614,27 +815,31 @@ public class UMLModelDiff {
 						int matchedMembers1 = minClassMoveDiff.getMatchResult().getMatchedOperations() + minClassMoveDiff.getMatchResult().getMatchedAttributes();
 						int matchedMembers2 = minClassRenameDiff.getMatchResult().getMatchedOperations() + minClassRenameDiff.getMatchResult().getMatchedAttributes();
 						if(matchedMembers2 > matchedMembers1) {
-							minClassRenameDiff.process();
+							processMatchedClassDiff(minClassRenameDiff, matchedClassDiffs);
 							classRenameDiffList.add(minClassRenameDiff);
+							classDiffNameMap = null;
 							removedClasses.remove(minClassRenameDiff.getOriginalClass());
 							addedClassIterator.remove();
 						}
 						else {
-							minClassMoveDiff.process();
+							processMatchedClassDiff(minClassMoveDiff, matchedClassDiffs);
 							classMoveDiffList.add(minClassMoveDiff);
+							classDiffNameMap = null;
 							removedClasses.remove(minClassMoveDiff.getOriginalClass());
 							addedClassIterator.remove();
 						}
 					}
 					else {
-						minClassMoveDiff.process();
+						processMatchedClassDiff(minClassMoveDiff, matchedClassDiffs);
 						classMoveDiffList.add(minClassMoveDiff);
+						classDiffNameMap = null;
 						removedClasses.remove(minClassMoveDiff.getOriginalClass());
 						addedClassIterator.remove();
 					}
 				}
 			}
 		}
+		processMembers(matchedClassDiffs, false);
 
 		List<UMLClassMoveDiff> allClassMoves = new ArrayList<UMLClassMoveDiff>(this.classMoveDiffList);
 		Collections.sort(allClassMoves);
@@ -645,10 +850,30 @@ public class UMLModelDiff {
 				UMLClassMoveDiff classMoveJ = allClassMoves.get(j);
 				if(classMoveI.isInnerClassMove(classMoveJ)) {
 					innerClassMoveDiffList.add(classMoveJ);
+					classDiffNameMap = null;
 				}
 			}
 		}
 		this.classMoveDiffList.removeAll(innerClassMoveDiffList);
+		classDiffNameMap = null;
+	}
+
+	private MatchResult matchClasses(UMLClassMatcher matcher, UMLClass removedClass, UMLClass addedClass) {
+		if(!matcher.isCandidate(removedClass, addedClass)) {
+			return NO_MATCH;
+		}
+		Map<Pair<UMLClass, UMLClass>, MatchResult> matchResults = classMatchResults.get(matcher.getClass());
+		if(matchResults == null) {
+			matchResults = new HashMap<Pair<UMLClass, UMLClass>, MatchResult>();
+			classMatchResults.put(matcher.getClass(), matchResults);
+		}
+		Pair<UMLClass, UMLClass> pair = Pair.of(removedClass, addedClass);
+		MatchResult matchResult = matchResults.get(pair);
+		if(matchResult == null) {
+			matchResult = matcher.match(removedClass, addedClass);
+			matchResults.put(pair, matchResult);
+		}
+		return matchResult;
 	}
 
 	private boolean conflictingMoveOfTopLevelClass(UMLClass removedClass, UMLClass addedClass) {
@@ -699,10 +924,12 @@ public class UMLModelDiff {
 	}
 
 	public void checkForRenamedClasses(UMLClassMatcher matcher) throws RefactoringMinerTimedOutException {
+		List<UMLClassBaseDiff> matchedClassDiffs = new ArrayList<UMLClassBaseDiff>();
 		if(removedClasses.size() <= addedClasses.size()) {
 			Set<UMLClass> mergedClassesToBeRemoved = new HashSet<UMLClass>();
 			for(Iterator<UMLClass> removedClassIterator = removedClasses.iterator(); removedClassIterator.hasNext();) {
 				UMLClass removedClass = removedClassIterator.next();
+				deadline.check();
 				TreeSet<UMLClassRenameDiff> diffSet = findRenameMatchesForRemovedClass(removedClass, matcher);
 				if(!diffSet.isEmpty()) {
 					UMLClassRenameDiff minClassRenameDiff = diffSet.first();
@@ -741,21 +968,24 @@ public class UMLModelDiff {
 							int matchedMembers1 = minClassRenameDiff.getMatchResult().getMatchedOperations() + minClassRenameDiff.getMatchResult().getMatchedAttributes();
 							int matchedMembers2 = minClassRenameDiff2.getMatchResult().getMatchedOperations() + minClassRenameDiff2.getMatchResult().getMatchedAttributes();
 							if(matchedMembers2 > matchedMembers1) {
-								minClassRenameDiff2.process();
+								processMatchedClassDiff(minClassRenameDiff2, matchedClassDiffs);
 								classRenameDiffList.add(minClassRenameDiff2);
+								classDiffNameMap = null;
 								addedClasses.remove(minClassRenameDiff2.getRenamedClass());
 								removedClassIterator.remove();
 							}
 							else {
-								minClassRenameDiff.process();
+								processMatchedClassDiff(minClassRenameDiff, matchedClassDiffs);
 								classRenameDiffList.add(minClassRenameDiff);
+								classDiffNameMap = null;
 								addedClasses.remove(minClassRenameDiff.getRenamedClass());
 								removedClassIterator.remove();
 							}
 						}
 						else {
-							minClassRenameDiff.process();
+							processMatchedClassDiff(minClassRenameDiff, matchedClassDiffs);
 							classRenameDiffList.add(minClassRenameDiff);
+							classDiffNameMap = null;
 							addedClasses.remove(minClassRenameDiff.getRenamedClass());
 							removedClassIterator.remove();
 						}
@@ -767,6 +997,7 @@ public class UMLModelDiff {
 		else {
 			for(Iterator<UMLClass> addedClassIterator = addedClasses.iterator(); addedClassIterator.hasNext();) {
 				UMLClass addedClass = addedClassIterator.next();
+				deadline.check();
 				TreeSet<UMLClassRenameDiff> diffSet = findRenameMatchesForAddedClass(addedClass, matcher);
 				if(!diffSet.isEmpty()) {
 					UMLClassRenameDiff minClassRenameDiff = diffSet.first();
@@ -803,21 +1034,24 @@ public class UMLModelDiff {
 							int matchedMembers1 = minClassRenameDiff.getMatchResult().getMatchedOperations() + minClassRenameDiff.getMatchResult().getMatchedAttributes();
 							int matchedMembers2 = minClassRenameDiff2.getMatchResult().getMatchedOperations() + minClassRenameDiff2.getMatchResult().getMatchedAttributes();
 							if(matchedMembers2 > matchedMembers1) {
-								minClassRenameDiff2.process();
+								processMatchedClassDiff(minClassRenameDiff2, matchedClassDiffs);
 								classRenameDiffList.add(minClassRenameDiff2);
+								classDiffNameMap = null;
 								removedClasses.remove(minClassRenameDiff2.getOriginalClass());
 								addedClassIterator.remove();
 							}
 							else {
-								minClassRenameDiff.process();
+								processMatchedClassDiff(minClassRenameDiff, matchedClassDiffs);
 								classRenameDiffList.add(minClassRenameDiff);
+								classDiffNameMap = null;
 								removedClasses.remove(minClassRenameDiff.getOriginalClass());
 								addedClassIterator.remove();
 							}
 						}
 						else {
-							minClassRenameDiff.process();
+							processMatchedClassDiff(minClassRenameDiff, matchedClassDiffs);
 							classRenameDiffList.add(minClassRenameDiff);
+							classDiffNameMap = null;
 							removedClasses.remove(minClassRenameDiff.getOriginalClass());
 							addedClassIterator.remove();
 						}
@@ -825,6 +1059,7 @@ public class UMLModelDiff {
 				}
 			}
 		}
+		processMembers(matchedClassDiffs, false);
 
 		List<UMLClassMoveDiff> allClassMoves = new ArrayList<UMLClassMoveDiff>(this.classMoveDiffList);
 		Collections.sort(allClassMoves);
@@ -833,10 +1068,12 @@ public class UMLModelDiff {
 			for(UMLClassMoveDiff classMove : allClassMoves) {
 				if(classRename.isInnerClassMove(classMove)) {
 					innerClassMoveDiffList.add(classMove);
+					classDiffNameMap = null;
 				}
 			}
 		}
 		this.classMoveDiffList.removeAll(innerClassMoveDiffList);
+		classDiffNameMap = null;
 	}
 
 	private TreeSet<UMLClassRenameDiff> findRenameMatchesForRemovedClass(UMLClass removedClass, UMLClassMatcher matcher) {
@@ -852,7 +1089,7 @@ public class UMLModelDiff {
 					processedClassPairs.add(pair);
 				}
 			}
-			MatchResult matchResult = matcher.match(removedClass, addedClass);
+			MatchResult matchResult = matchClasses(matcher, removedClass, addedClass);
 			if(matchResult.isMatch()) {
 				if(!conflictingMoveOfTopLevelClass(removedClass, addedClass) && !innerClassWithTheSameName(removedClass, addedClass)) {
 					UMLClassRenameDiff classRenameDiff = new UMLClassRenameDiff(removedClass, addedClass, this, matchResult);
@@ -876,7 +1113,7 @@ public class UMLModelDiff {
 					processedClassPairs.add(pair);
 				}
 			}
-			MatchResult matchResult = matcher.match(removedClass, addedClass);
+			MatchResult matchResult = matchClasses(matcher, removedClass, addedClass);
 			if(matchResult.isMatch()) {
 				if(!conflictingMoveOfTopLevelClass(removedClass, addedClass) && !innerClassWithTheSameName(removedClass, addedClass)) {
 					UMLClassRenameDiff classRenameDiff = new UMLClassRenameDiff(removedClass, addedClass, this, matchResult);
@@ -1827,21 +2064,25 @@ public class UMLModelDiff {
 		Map<Replacement, Set<CandidateAttributeRefactoring>> renameMap = new LinkedHashMap<Replacement, Set<CandidateAttributeRefactoring>>();
 		Map<MergeVariableReplacement, Set<CandidateMergeVariableRefactoring>> mergeMap = new LinkedHashMap<MergeVariableReplacement, Set<CandidateMergeVariableRefactoring>>();
 		for(UMLClassDiff classDiff : commonClassDiffList) {
+			deadline.check();
 			refactorings.addAll(classDiff.getRefactorings());
 			extractMergePatterns(classDiff, mergeMap);
 			extractRenamePatterns(classDiff, renameMap);
 		}
 		for(UMLClassMoveDiff classDiff : classMoveDiffList) {
+			deadline.check();
 			refactorings.addAll(classDiff.getRefactorings());
 			extractMergePatterns(classDiff, mergeMap);
 			extractRenamePatterns(classDiff, renameMap);
 		}
 		for(UMLClassMoveDiff classDiff : innerClassMoveDiffList) {
+			deadline.check();
 			refactorings.addAll(classDiff.getRefactorings());
 			extractMergePatterns(classDiff, mergeMap);
 			extractRenamePatterns(classDiff, renameMap);
 		}
 		for(UMLClassRenameDiff classDiff : classRenameDiffList) {
+			deadline.check();
 			refactorings.addAll(classDiff.getRefactorings());
 			extractMergePatterns(classDiff, mergeMap);
 			extractRenamePatterns(classDiff, renameMap);
@@ -1858,6 +2099,7 @@ public class UMLModelDiff {
 					extractMergePatterns(renameDiff, mergeMap);
 					extractRenamePatterns(renameDiff, renameMap);
 					classRenameDiffList.add(renameDiff);
+					classDiffNameMap = null;
 					Refactoring refactoring = null;
 					if(renameDiff.samePackage())
 						refactoring = new RenameClassRefactoring(renameDiff.getOriginalClass(), renameDiff.getRenamedClass());
@@ -1999,6 +2241,7 @@ public class UMLModelDiff {
 				}
 			}
 		}
+		deadline.check();
 		refactorings.addAll(identifyExtractSuperclassRefactorings());
 		refactorings.addAll(identifyCollapseHierarchyRefactorings());
 		refactorings.addAll(identifyExtractClassRefactorings(commonClassDiffList));
@@ -2021,6 +2264,7 @@ public class UMLModelDiff {
 		if(removedAndInlinedOperationsInCommonClasses.size() <= MAXIMUM_NUMBER_OF_COMPARED_METHODS) {
 			checkForMovedAndInlinedOperations(getOperationBodyMappersInCommonClasses(), removedAndInlinedOperationsInCommonClasses);
 		}
+		deadline.check();
 		List<MoveAttributeRefactoring> moveAttributeRefactorings = new ArrayList<MoveAttributeRefactoring>();
 		moveAttributeRefactorings.addAll(checkForAttributeMovesBetweenCommonClasses());
 		moveAttributeRefactorings.addAll(checkForAttributeMovesIncludingAddedClasses());
@@ -2257,24 +2501,32 @@ public class UMLModelDiff {
 	private List<UMLOperationBodyMapper> findMappersWithMatchingSignatures(UMLOperation operation1, UMLOperation operation2) {
 		List<UMLOperationBodyMapper> mappers = new ArrayList<UMLOperationBodyMapper>();
 		for(UMLClassDiff classDiff : commonClassDiffList) {
+			if(!isVisible(classDiff))
+				continue;
 			UMLOperationBodyMapper mapper = classDiff.findMapperWithMatchingSignatures(operation1, operation2);
 			if(mapper != null) {
 				mappers.add(mapper);
 			}
 		}
 		for(UMLClassMoveDiff classDiff : classMoveDiffList) {
+			if(!isVisible(classDiff))
+				continue;
 			UMLOperationBodyMapper mapper = classDiff.findMapperWithMatchingSignatures(operation1, operation2);
 			if(mapper != null) {
 				mappers.add(mapper);
 			}
 		}
 		for(UMLClassMoveDiff classDiff : innerClassMoveDiffList) {
+			if(!isVisible(classDiff))
+				continue;
 			UMLOperationBodyMapper mapper = classDiff.findMapperWithMatchingSignatures(operation1, operation2);
 			if(mapper != null) {
 				mappers.add(mapper);
 			}
 		}
 		for(UMLClassRenameDiff classDiff : classRenameDiffList) {
+			if(!isVisible(classDiff))
+				continue;
 			UMLOperationBodyMapper mapper = classDiff.findMapperWithMatchingSignatures(operation1, operation2);
 			if(mapper != null) {
 				mappers.add(mapper);
@@ -2286,24 +2538,32 @@ public class UMLModelDiff {
 	public List<UMLOperationBodyMapper> findMappersWithMatchingSignature2(UMLOperation operation2) {
 		List<UMLOperationBodyMapper> mappers = new ArrayList<UMLOperationBodyMapper>();
 		for(UMLClassDiff classDiff : commonClassDiffList) {
+			if(!isVisible(classDiff))
+				continue;
 			UMLOperationBodyMapper mapper = classDiff.findMapperWithMatchingSignature2(operation2);
 			if(mapper != null) {
 				mappers.add(mapper);
 			}
 		}
 		for(UMLClassMoveDiff classDiff : classMoveDiffList) {
+			if(!isVisible(classDiff))
+				continue;
 			UMLOperationBodyMapper mapper = classDiff.findMapperWithMatchingSignature2(operation2);
 			if(mapper != null) {
 				mappers.add(mapper);
 			}
 		}
 		for(UMLClassMoveDiff classDiff : innerClassMoveDiffList) {
+			if(!isVisible(classDiff))
+				continue;
 			UMLOperationBodyMapper mapper = classDiff.findMapperWithMatchingSignature2(operation2);
 			if(mapper != null) {
 				mappers.add(mapper);
 			}
 		}
 		for(UMLClassRenameDiff classDiff : classRenameDiffList) {
+			if(!isVisible(classDiff))
+				continue;
 			UMLOperationBodyMapper mapper = classDiff.findMapperWithMatchingSignature2(operation2);
 			if(mapper != null) {
 				mappers.add(mapper);
@@ -2358,6 +2618,7 @@ public class UMLModelDiff {
 	private void checkForMovedAndInlinedOperations(List<UMLOperationBodyMapper> mappers, List<UMLOperation> removedOperations) throws RefactoringMinerTimedOutException {
 		for(Iterator<UMLOperation> removedOperationIterator = removedOperations.iterator(); removedOperationIterator.hasNext();) {
 			UMLOperation removedOperation = removedOperationIterator.next();
+			deadline.check();
 			for(UMLOperationBodyMapper mapper : mappers) {
 				if((!mapper.getNonMappedLeavesT2().isEmpty() || !mapper.getNonMappedInnerNodesT2().isEmpty() || !mapper.getReplacementsInvolvingMethodInvocation().isEmpty()) && !mapper.containsInlineOperationRefactoring(removedOperation)) {
 					List<AbstractCall> operationInvocations = mapper.getContainer1().getAllOperationInvocations();
@@ -2447,6 +2708,7 @@ public class UMLModelDiff {
 	private void checkForExtractedAndMovedOperations(List<UMLOperationBodyMapper> mappers, List<UMLOperation> addedOperations) throws RefactoringMinerTimedOutException {
 		for(Iterator<UMLOperation> addedOperationIterator = addedOperations.iterator(); addedOperationIterator.hasNext();) {
 			UMLOperation addedOperation = addedOperationIterator.next();
+			deadline.check();
 			for(UMLOperationBodyMapper mapper : mappers) {
 				Pair<VariableDeclarationContainer, VariableDeclarationContainer> pair = Pair.of(mapper.getContainer1(), addedOperation);
 				if((mapper.nonMappedElementsT1() > 0 || !mapper.getReplacementsInvolvingMethodInvocation().isEmpty()) && !mapper.containsExtractOperationRefactoring(addedOperation) && !processedOperationPairs.contains(pair)) {
@@ -2824,6 +3086,7 @@ public class UMLModelDiff {
 				for(Iterator<UMLOperation> removedOperationIterator = removedOperations.iterator(); removedOperationIterator.hasNext();) {
 					UMLOperation removedOperation = removedOperationIterator.next();
 
+					deadline.check();
 					Pair<VariableDeclarationContainer, VariableDeclarationContainer> pair = Pair.of(removedOperation, addedOperation);
 					if(!processedOperationPairs.contains(pair) && removedOperation.testMethodCheck(addedOperation)) {
 						UMLClassBaseDiff umlClassDiff = getUMLClassDiff(removedOperation.getClassName());
@@ -2927,6 +3190,7 @@ public class UMLModelDiff {
 				for(Iterator<UMLOperation> addedOperationIterator = addedOperations.iterator(); addedOperationIterator.hasNext();) {
 					UMLOperation addedOperation = addedOperationIterator.next();
 
+					deadline.check();
 					Pair<VariableDeclarationContainer, VariableDeclarationContainer> pair = Pair.of(removedOperation, addedOperation);
 					if(!processedOperationPairs.contains(pair) && removedOperation.testMethodCheck(addedOperation)) {
 						UMLClassBaseDiff umlClassDiff = getUMLClassDiff(removedOperation.getClassName());
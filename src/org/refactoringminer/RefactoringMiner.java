@@ -1,6 +1,7 @@
 package org.refactoringminer;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -16,9 +17,11 @@ import org.refactoringminer.api.Refactoring;
 import org.refactoringminer.api.RefactoringHandler;
 import org.refactoringminer.rm1.GitHistoryRefactoringMinerImpl;
 import org.refactoringminer.util.GitServiceImpl;
+import org.refactoringminer.util.RefactoringJSONWriter;
 
 public class RefactoringMiner {
 	private static Path path = null;
+	private static RefactoringJSONWriter jsonWriter = null;
 	public static void main(String[] args) throws Exception {
 		if (args.length < 1) {
 			throw argumentException();
@@ -64,14 +67,9 @@ public class RefactoringMiner {
 			GitHistoryRefactoringMiner detector = new GitHistoryRefactoringMinerImpl();
 			startJSON();
 			detector.detectAll(repo, branch, new RefactoringHandler() {
-				private int commitCount = 0;
 				@Override
 				public void handle(String commitId, List<Refactoring> refactorings) {
-					if(commitCount > 0) {
-						betweenCommitsJSON();
-					}
 					commitJSON(gitURL, commitId, refactorings);
-					commitCount++;
 				}
 
 				@Override
@@ -108,14 +106,9 @@ public class RefactoringMiner {
 			GitHistoryRefactoringMiner detector = new GitHistoryRefactoringMinerImpl();
 			startJSON();
 			detector.detectBetweenCommits(repo, startCommit, endCommit, new RefactoringHandler() {
-				private int commitCount = 0;
 				@Override
 				public void handle(String commitId, List<Refactoring> refactorings) {
-					if(commitCount > 0) {
-						betweenCommitsJSON();
-					}
 					commitJSON(gitURL, commitId, refactorings);
-					commitCount++;
 				}
 
 				@Override
@@ -148,14 +141,9 @@ public class RefactoringMiner {
 			GitHistoryRefactoringMiner detector = new GitHistoryRefactoringMinerImpl();
 			startJSON();
 			detector.detectBetweenTags(repo, startTag, endTag, new RefactoringHandler() {
-				private int commitCount = 0;
 				@Override
 				public void handle(String commitId, List<Refactoring> refactorings) {
-					if(commitCount > 0) {
-						betweenCommitsJSON();
-					}
 					commitJSON(gitURL, commitId, refactorings);
-					commitCount++;
 				}
 
 				@Override
@@ -244,16 +232,11 @@ public class RefactoringMiner {
 		GitHistoryRefactoringMiner detector = new GitHistoryRefactoringMinerImpl();
 		startJSON();
 		detector.detectAtPullRequest(gitURL, pullId, new RefactoringHandler() {
-			private int commitCount = 0;
 			@Override
 			public void handle(String commitId, List<Refactoring> refactorings) {
 				Comparator<Refactoring> comparator = (Refactoring r1, Refactoring r2) -> r1.toString().compareTo(r2.toString());
 				Collections.sort(refactorings, comparator);
-				if(commitCount > 0) {
-					betweenCommitsJSON();
-				}
 				commitJSON(gitURL, commitId, refactorings);
-				commitCount++;
 			}
 
 			@Override
@@ -284,40 +267,9 @@ public class RefactoringMiner {
 	}
 
 	private static void commitJSON(String cloneURL, String currentCommitId, List<Refactoring> refactoringsAtRevision) {
-		if(path != null) {
-			StringBuilder sb = new StringBuilder();
-			sb.append("{").append("\n");
-			sb.append("\t").append("\"").append("repository").append("\"").append(": ").append("\"").append(cloneURL).append("\"").append(",").append("\n");
-			sb.append("\t").append("\"").append("sha1").append("\"").append(": ").append("\"").append(currentCommitId).append("\"").append(",").append("\n");
-			String url = GitHistoryRefactoringMinerImpl.extractCommitURL(cloneURL, currentCommitId);
-			sb.append("\t").append("\"").append("url").append("\"").append(": ").append("\"").append(url).append("\"").append(",").append("\n");
-			sb.append("\t").append("\"").append("refactorings").append("\"").append(": ");
-			sb.append("[");
-			int counter = 0;
-			for(Refactoring refactoring : refactoringsAtRevision) {
-				sb.append(refactoring.toJSON());
-				if(counter < refactoringsAtRevision.size()-1) {
-					sb.append(",");
-				}
-				sb.append("\n");
-				counter++;
-			}
-			sb.append("]").append("\n");
-			sb.append("}");
+		if(jsonWriter != null) {
 			try {
-				Files.write(path, sb.toString().getBytes(), StandardOpenOption.APPEND);
-			} catch (IOException e) {
-				e.printStackTrace();
-			}
-		}
-	}
-
-	private static void betweenCommitsJSON() {
-		if(path != null) {
-			StringBuilder sb = new StringBuilder();
-			sb.append(",").append("\n");
-			try {
-				Files.write(path, sb.toString().getBytes(), StandardOpenOption.APPEND);
+				jsonWriter.writeCommit(cloneURL, currentCommitId, refactoringsAtRevision);
 			} catch (IOException e) {
 				e.printStackTrace();
 			}
@@ -326,12 +278,9 @@ public class RefactoringMiner {
 
 	private static void startJSON() {
 		if(path != null) {
-			StringBuilder sb = new StringBuilder();
-			sb.append("{").append("\n");
-			sb.append("\"").append("commits").append("\"").append(": ");
-			sb.append("[").append("\n");
 			try {
-				Files.write(path, sb.toString().getBytes(), StandardOpenOption.APPEND);
+				jsonWriter = new RefactoringJSONWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.APPEND));
+				jsonWriter.startCommits();
 			} catch (IOException e) {
 				e.printStackTrace();
 			}
@@ -339,15 +288,14 @@ public class RefactoringMiner {
 	}
 
 	private static void endJSON() {
-		if(path != null) {
-			StringBuilder sb = new StringBuilder();
-			sb.append("]").append("\n");
-			sb.append("}");
+		if(jsonWriter != null) {
 			try {
-				Files.write(path, sb.toString().getBytes(), StandardOpenOption.APPEND);
+				jsonWriter.endCommits();
+				jsonWriter.close();
 			} catch (IOException e) {
 				e.printStackTrace();
 			}
+			jsonWriter = null;
 		}
 	}
 
@@ -364,7 +312,7 @@ public class RefactoringMiner {
 		System.out.println(
 				"-gc <git-URL> <commit-sha1> <timeout> -json <path-to-json-file>\t\t\t\tDetect refactorings at specified commit <commit-sha1> for project <git-URL> within the given <timeout> in seconds. All required information is obtained directly from GitHub using the OAuth token in github-oauth.properties");
 		System.out.println(
-				"-gp <git-URL> <pull-request> <timeout> -json <path-to-json-file>\t\t\tDetect refactorings at specified pull request <pull-request> for project <git-URL> within the given <timeout> in seconds for each commit in the pull request. All required information is obtained directly from GitHub using the OAuth token in github-oauth.properties");
+				"-gp <git-URL> <pull-request> <timeout> -json <path-to-json-file>\t\t\tDetect refactorings at specified pull request <pull-request> for project <git-URL> within the given <timeout> in seconds for the whole pull request. All required information is obtained directly from GitHub using the OAuth token in github-oauth.properties");
 	}
 
 	private static IllegalArgumentException argumentException() {
@@ -1,25 +1,47 @@
 package org.refactoringminer;
 
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
-import org.refactoringminer.api.GitHistoryRefactoringMiner;
 import org.refactoringminer.api.Refactoring;
 import org.refactoringminer.api.RefactoringHandler;
+import org.refactoringminer.api.RefactoringMinerTimedOutException;
+import org.refactoringminer.api.RefactoringType;
 import org.refactoringminer.rm1.GitHistoryRefactoringMinerImpl;
+import org.refactoringminer.util.ArchivedRefactoring;
+import org.refactoringminer.util.Deadline;
+import org.refactoringminer.util.RefactoringJSONWriter;
+import org.refactoringminer.util.RefactoringResultCache;
 
 import com.sun.net.httpserver.Headers;
 import com.sun.net.httpserver.HttpExchange;
@@ -34,43 +56,367 @@ public class RefactoringMinerHttpServer {
 		prop.load(input);
 		String hostName = prop.getProperty("hostname");
 		int port = Integer.parseInt(prop.getProperty("port"));
-		
+
 		InetSocketAddress inetSocketAddress = new InetSocketAddress(InetAddress.getByName(hostName), port);
 		HttpServer server = HttpServer.create(inetSocketAddress, 0);
-		server.createContext("/RefactoringMiner", new MyHandler());
-		server.setExecutor(new ThreadPoolExecutor(4, 8, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(100)));
+		createContexts(server, prop);
 		server.start();
 		System.out.println(InetAddress.getLocalHost());
 	}
 
+	/**
+	 * Creates the contexts of the single commit and batch analysis requests, configured by the optional workers, queue,
+	 * retry-after, max-timeout, cache-memory and cache-directory server properties.
+	 */
+	static void createContexts(HttpServer server, Properties prop) {
+		int workers = Integer.parseInt(prop.getProperty("workers", String.valueOf(Runtime.getRuntime().availableProcessors())));
+		int queueCapacity = Integer.parseInt(prop.getProperty("queue", String.valueOf(4 * workers)));
+		int retryAfter = Integer.parseInt(prop.getProperty("retry-after", "5"));
+		int maxTimeout = Integer.parseInt(prop.getProperty("max-timeout", "300"));
+		long cacheMemory = Long.parseLong(prop.getProperty("cache-memory", String.valueOf(64L * 1024 * 1024)));
+		String cacheDirectory = prop.getProperty("cache-directory", "");
+		RefactoringResultCache cache = new RefactoringResultCache(cacheMemory, cacheDirectory.isEmpty() ? null : new File(cacheDirectory));
+		//the exchanges only parse requests and write responses, the analysis runs in the workers of the analyzer
+		ExecutorService exchangeExecutor = Executors.newFixedThreadPool(Math.max(2, workers));
+		CommitAnalyzer analyzer = new CommitAnalyzer(new GitHistoryRefactoringMinerImpl(), workers, queueCapacity, maxTimeout, cache);
+		server.createContext("/RefactoringMiner", new MyHandler(analyzer, exchangeExecutor, retryAfter));
+		server.createContext("/RefactoringMiner/batch", new BatchHandler(analyzer, retryAfter));
+		server.setExecutor(exchangeExecutor);
+	}
+
+	/**
+	 * Analyzes commits with a single miner in a fixed number of workers. Requests are rejected when all workers are busy
+	 * and the queue is full, concurrent requests for the same commit with the same timeout share a single analysis,
+	 * and the refactorings of the commits already analyzed are returned from the cache.
+	 * No analysis runs longer than the maximum timeout, which also applies to the requests without a timeout.
+	 */
+	static class CommitAnalyzer {
+		private final GitHistoryRefactoringMinerImpl miner;
+		private final ThreadPoolExecutor executor;
+		private final int maxTimeout;
+		private final RefactoringResultCache cache;
+		private final String configuration;
+		private final Map<String, CompletableFuture<List<Refactoring>>> inProgress = new ConcurrentHashMap<String, CompletableFuture<List<Refactoring>>>();
+
+		CommitAnalyzer(GitHistoryRefactoringMinerImpl miner, int workers, int queueCapacity, int maxTimeout, RefactoringResultCache cache) {
+			if(maxTimeout < 1) {
+				throw new IllegalArgumentException("The maximum timeout must be positive");
+			}
+			this.miner = miner;
+			this.executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(queueCapacity));
+			this.maxTimeout = maxTimeout;
+			this.cache = cache;
+			Set<RefactoringType> types = miner.getRefactoringTypesToConsider();
+			this.configuration = miner.getConfigId() + ":" + (types.isEmpty() ? types : EnumSet.copyOf(types));
+		}
+
+		/**
+		 * @return The timeout in seconds of an analysis requested with the given timeout, which is the maximum timeout
+		 * if the requested one is 0 (no timeout) or longer.
+		 */
+		int effectiveTimeout(int timeout) {
+			return timeout <= 0 ? maxTimeout : Math.min(timeout, maxTimeout);
+		}
+
+		/**
+		 * @return The refactorings detected at the commit, completed exceptionally with a {@link RejectedExecutionException}
+		 * if the analyzer is saturated, or a {@link RefactoringMinerTimedOutException} if the analysis exceeded the timeout.
+		 */
+		CompletableFuture<List<Refactoring>> analyze(String gitURL, String commitId, int timeout) {
+			List<ArchivedRefactoring> cached = cache.get(gitURL, commitId, configuration);
+			if(cached != null) {
+				return CompletableFuture.completedFuture(new ArrayList<Refactoring>(cached));
+			}
+			int effectiveTimeout = effectiveTimeout(timeout);
+			//an analysis is only shared by the requests with the same timeout, so that none is cut short by a shorter one
+			String key = gitURL + " " + commitId + " " + effectiveTimeout;
+			CompletableFuture<List<Refactoring>> future = new CompletableFuture<List<Refactoring>>();
+			CompletableFuture<List<Refactoring>> existing = inProgress.putIfAbsent(key, future);
+			if(existing != null) {
+				return existing;
+			}
+			future.whenComplete((refactorings, failure) -> inProgress.remove(key, future));
+			//the time spent in the queue counts towards the timeout
+			Deadline deadline = Deadline.after(effectiveTimeout, TimeUnit.SECONDS);
+			try {
+				executor.execute(() -> detect(gitURL, commitId, deadline, future));
+			} catch (RejectedExecutionException e) {
+				future.completeExceptionally(e);
+			}
+			return future;
+		}
+
+		private void detect(String gitURL, String commitId, Deadline deadline, CompletableFuture<List<Refactoring>> future) {
+			List<Refactoring> detectedRefactorings = new ArrayList<Refactoring>();
+			List<Exception> exceptions = new ArrayList<Exception>(1);
+			try {
+				miner.detectAtCommit(gitURL, commitId, new RefactoringHandler() {
+					@Override
+					public void handle(String commitId, List<Refactoring> refactorings) {
+						detectedRefactorings.addAll(refactorings);
+					}
+
+					@Override
+					public void handleException(String commitId, Exception e) {
+						exceptions.add(e);
+					}
+				}, deadline);
+			} catch (RuntimeException e) {
+				exceptions.add(e);
+			}
+			if(exceptions.isEmpty()) {
+				cache.put(gitURL, commitId, configuration, detectedRefactorings);
+				future.complete(detectedRefactorings);
+			}
+			else {
+				future.completeExceptionally(exceptions.get(0));
+			}
+		}
+
+		/**
+		 * Runs a batch of analyses in one of the workers.
+		 *
+		 * @return False if the analyzer is saturated.
+		 */
+		boolean tryExecute(Runnable batch) {
+			try {
+				executor.execute(batch);
+				return true;
+			} catch (RejectedExecutionException e) {
+				return false;
+			}
+		}
+
+		/**
+		 * Analyzes the commits of a repository together, writing every commit to the writer as soon as its refactorings
+		 * are found in the cache or detected, or as an error if its analysis failed. A commit already under analysis
+		 * for another request is awaited instead of analyzed again, and the other requests can join the analysis of the
+		 * commits of the batch, as with {@link #analyze(String, String, int)}. All the commits share the deadline.
+		 */
+		void analyzeBatch(String gitURL, List<String> commitIds, int timeout, Deadline deadline, RefactoringJSONWriter writer) throws IOException {
+			int effectiveTimeout = effectiveTimeout(timeout);
+			Map<String, CompletableFuture<List<Refactoring>>> analyzedCommits = new LinkedHashMap<String, CompletableFuture<List<Refactoring>>>();
+			Map<String, CompletableFuture<List<Refactoring>>> joinedCommits = new LinkedHashMap<String, CompletableFuture<List<Refactoring>>>();
+			for(String commitId : commitIds) {
+				List<ArchivedRefactoring> cached = cache.get(gitURL, commitId, configuration);
+				if(cached != null) {
+					writer.writeCommit(gitURL, commitId, cached);
+					continue;
+				}
+				String key = gitURL + " " + commitId + " " + effectiveTimeout;
+				CompletableFuture<List<Refactoring>> future = new CompletableFuture<List<Refactoring>>();
+				CompletableFuture<List<Refactoring>> existing = inProgress.putIfAbsent(key, future);
+				if(existing != null) {
+					joinedCommits.put(commitId, existing);
+				}
+				else {
+					future.whenComplete((refactorings, failure) -> inProgress.remove(key, future));
+					analyzedCommits.put(commitId, future);
+				}
+			}
+			try {
+				if(!analyzedCommits.isEmpty()) {
+					Map<String, Exception> exceptions = new ConcurrentHashMap<String, Exception>();
+					miner.detectAtCommits(gitURL, new ArrayList<String>(analyzedCommits.keySet()), new RefactoringHandler() {
+						@Override
+						public void handle(String commitId, List<Refactoring> refactorings) {
+							CompletableFuture<List<Refactoring>> future = analyzedCommits.get(commitId);
+							Exception exception = exceptions.get(commitId);
+							if(exception == null) {
+								cache.put(gitURL, commitId, configuration, refactorings);
+								future.complete(refactorings);
+							}
+							else {
+								future.completeExceptionally(exception);
+							}
+							try {
+								writeResult(writer, gitURL, commitId, future);
+							} catch (IOException e) {
+								//the client is gone, there is no point in analyzing the remaining commits
+								throw new UncheckedIOException(e);
+							}
+						}
+
+						@Override
+						public void handleException(String commitId, Exception e) {
+							exceptions.put(commitId, e);
+						}
+					}, deadline);
+				}
+				for(Map.Entry<String, CompletableFuture<List<Refactoring>>> joinedCommit : joinedCommits.entrySet()) {
+					try {
+						joinedCommit.getValue().get(deadline.remaining(TimeUnit.MILLISECONDS), TimeUnit.MILLISECONDS);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					} catch (ExecutionException | TimeoutException e) {
+						//written as an error below
+					}
+					writeResult(writer, gitURL, joinedCommit.getKey(), joinedCommit.getValue());
+				}
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			} finally {
+				//the requests that joined a commit the batch did not reach are not left waiting
+				for(CompletableFuture<List<Refactoring>> future : analyzedCommits.values()) {
+					future.completeExceptionally(new CancellationException("The analysis of the batch was stopped"));
+				}
+			}
+		}
+
+		private static void writeResult(RefactoringJSONWriter writer, String gitURL, String commitId, CompletableFuture<List<Refactoring>> future) throws IOException {
+			Throwable failure = null;
+			if(future.isDone()) {
+				try {
+					writer.writeCommit(gitURL, commitId, future.join());
+					return;
+				} catch (CompletionException | CancellationException e) {
+					failure = e.getCause() != null ? e.getCause() : e;
+				}
+			}
+			if(failure == null || failure instanceof RefactoringMinerTimedOutException) {
+				writer.writeError(gitURL, commitId, "Analysis of " + commitId + " timed out");
+			}
+			else {
+				System.err.println("Error processing commit " + commitId);
+				failure.printStackTrace(System.err);
+				writer.writeError(gitURL, commitId, "Analysis of " + commitId + " failed");
+			}
+		}
+	}
+
+	static class BatchHandler implements HttpHandler {
+		private final CommitAnalyzer analyzer;
+		private final int retryAfter;
+
+		BatchHandler(CommitAnalyzer analyzer, int retryAfter) {
+			this.analyzer = analyzer;
+			this.retryAfter = retryAfter;
+		}
+
+		@Override
+		public void handle(HttpExchange exchange) throws IOException {
+			printRequestInfo(exchange);
+			exchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
+			URI requestURI = exchange.getRequestURI();
+			String query = requestURI.getQuery();
+			Map<String, String> queryToMap = query != null ? queryToMap(query) : new HashMap<String, String>();
+
+			String gitURL = queryToMap.get("gitURL");
+			String commitIdsParameter = queryToMap.get("commitIds");
+			String timeoutParameter = queryToMap.get("timeout");
+			if(gitURL == null || commitIdsParameter == null || commitIdsParameter.isEmpty() || timeoutParameter == null || !timeoutParameter.matches("\\d+")) {
+				sendError(exchange, 400, "Expected gitURL, comma-separated commitIds and timeout parameters");
+				return;
+			}
+			List<String> commitIds = new ArrayList<String>(new LinkedHashSet<String>(Arrays.asList(commitIdsParameter.split(","))));
+			int timeout = Integer.parseInt(timeoutParameter);
+
+			//the time spent in the queue counts towards the timeout, which bounds the whole batch
+			Deadline deadline = Deadline.after(analyzer.effectiveTimeout(timeout), TimeUnit.SECONDS);
+			boolean accepted = analyzer.tryExecute(() -> {
+				try {
+					exchange.getResponseHeaders().add("Content-Type", "application/json; charset=UTF-8");
+					//the commits are streamed as they are analyzed
+					exchange.sendResponseHeaders(200, 0);
+					try (RefactoringJSONWriter writer = new RefactoringJSONWriter(exchange.getResponseBody())) {
+						writer.startCommits();
+						analyzer.analyzeBatch(gitURL, commitIds, timeout, deadline, writer);
+						writer.endCommits();
+					}
+				} catch (IOException | RuntimeException e) {
+					e.printStackTrace();
+				} finally {
+					exchange.close();
+				}
+			});
+			if(!accepted) {
+				exchange.getResponseHeaders().add("Retry-After", String.valueOf(retryAfter));
+				sendError(exchange, 429, "Too many commits under analysis");
+			}
+		}
+	}
+
 	static class MyHandler implements HttpHandler {
+		private final CommitAnalyzer analyzer;
+		private final ExecutorService exchangeExecutor;
+		private final int retryAfter;
+
+		MyHandler(CommitAnalyzer analyzer, ExecutorService exchangeExecutor, int retryAfter) {
+			this.analyzer = analyzer;
+			this.exchangeExecutor = exchangeExecutor;
+			this.retryAfter = retryAfter;
+		}
+
 		@Override
 		public void handle(HttpExchange exchange) throws IOException {
 			printRequestInfo(exchange);
+			exchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
 			URI requestURI = exchange.getRequestURI();
 			String query = requestURI.getQuery();
-			Map<String, String> queryToMap = queryToMap(query);
+			Map<String, String> queryToMap = query != null ? queryToMap(query) : new HashMap<String, String>();
 
 			String gitURL = queryToMap.get("gitURL");
 			String commitId = queryToMap.get("commitId");
-			int timeout = Integer.parseInt(queryToMap.get("timeout"));
-			List<Refactoring> detectedRefactorings = new ArrayList<Refactoring>();
+			String timeoutParameter = queryToMap.get("timeout");
+			if(gitURL == null || commitId == null || timeoutParameter == null || !timeoutParameter.matches("\\d+")) {
+				sendError(exchange, 400, "Expected gitURL, commitId and timeout parameters");
+				return;
+			}
+			int timeout = Integer.parseInt(timeoutParameter);
 
-			GitHistoryRefactoringMiner miner = new GitHistoryRefactoringMinerImpl();
-			miner.detectAtCommit(gitURL, commitId, new RefactoringHandler() {
-				@Override
-				public void handle(String commitId, List<Refactoring> refactorings) {
-					detectedRefactorings.addAll(refactorings);
+			//a request joining the analysis of another one still waits at most its own timeout
+			CompletableFuture<List<Refactoring>> response = analyzer.analyze(gitURL, commitId, timeout).copy()
+					.orTimeout(analyzer.effectiveTimeout(timeout), TimeUnit.SECONDS);
+			response.whenCompleteAsync((refactorings, failure) -> {
+				try {
+					if(failure == null) {
+						System.out.println(refactorings.size() + " refactorings detected at " + commitId);
+						sendJSON(exchange, gitURL, commitId, refactorings);
+					}
+					else {
+						sendFailure(exchange, commitId, failure);
+					}
+				} catch (IOException e) {
+					e.printStackTrace();
+				} finally {
+					exchange.close();
 				}
-			}, timeout);
+			}, exchangeExecutor);
+		}
 
-			String response = JSON(gitURL, commitId, detectedRefactorings);
-			System.out.println(response);
-			exchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
-			exchange.sendResponseHeaders(200, response.length());
-			OutputStream os = exchange.getResponseBody();
-			os.write(response.getBytes());
-			os.close();
+		private void sendFailure(HttpExchange exchange, String commitId, Throwable failure) throws IOException {
+			Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+			if(cause instanceof RejectedExecutionException) {
+				exchange.getResponseHeaders().add("Retry-After", String.valueOf(retryAfter));
+				sendError(exchange, 429, "Too many commits under analysis");
+			}
+			else if(cause instanceof TimeoutException || cause instanceof RefactoringMinerTimedOutException) {
+				sendError(exchange, 504, "Analysis of " + commitId + " timed out");
+			}
+			else {
+				System.err.println("Error processing commit " + commitId);
+				cause.printStackTrace(System.err);
+				sendError(exchange, 500, "Analysis of " + commitId + " failed");
+			}
+		}
+	}
+
+	private static void sendJSON(HttpExchange exchange, String gitURL, String commitId, List<Refactoring> refactorings) throws IOException {
+		exchange.getResponseHeaders().add("Content-Type", "application/json; charset=UTF-8");
+		//a zero length selects chunked encoding, so the response is streamed without knowing its size in bytes
+		exchange.sendResponseHeaders(200, 0);
+		try (RefactoringJSONWriter writer = new RefactoringJSONWriter(exchange.getResponseBody())) {
+			writer.writeCommit(gitURL, commitId, refactorings);
+			writer.endCommits();
+		}
+	}
+
+	private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+		byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().add("Content-Type", "text/plain; charset=UTF-8");
+		exchange.sendResponseHeaders(status, bytes.length);
+		try (OutputStream os = exchange.getResponseBody()) {
+			os.write(bytes);
 		}
 	}
 
@@ -88,34 +434,6 @@ public class RefactoringMinerHttpServer {
 		return result;
 	}
 
-	private static String JSON(String gitURL, String currentCommitId, List<Refactoring> refactoringsAtRevision) {
-		StringBuilder sb = new StringBuilder();
-		sb.append("{").append("\n");
-		sb.append("\"").append("commits").append("\"").append(": ");
-		sb.append("[");
-		sb.append("{");
-		sb.append("\t").append("\"").append("repository").append("\"").append(": ").append("\"").append(gitURL).append("\"").append(",").append("\n");
-		sb.append("\t").append("\"").append("sha1").append("\"").append(": ").append("\"").append(currentCommitId).append("\"").append(",").append("\n");
-		String url = GitHistoryRefactoringMinerImpl.extractCommitURL(gitURL, currentCommitId);
-		sb.append("\t").append("\"").append("url").append("\"").append(": ").append("\"").append(url).append("\"").append(",").append("\n");
-		sb.append("\t").append("\"").append("refactorings").append("\"").append(": ");
-		sb.append("[");
-		int counter = 0;
-		for(Refactoring refactoring : refactoringsAtRevision) {
-			sb.append(refactoring.toJSON());
-			if(counter < refactoringsAtRevision.size()-1) {
-				sb.append(",");
-			}
-			sb.append("\n");
-			counter++;
-		}
-		sb.append("]");
-		sb.append("}");
-		sb.append("]").append("\n");
-		sb.append("}");
-		return sb.toString();
-	}
-
 	private static void printRequestInfo(HttpExchange exchange) {
 		System.out.println("-- headers --");
 		Headers requestHeaders = exchange.getRequestHeaders();
@@ -1,5 +1,7 @@
 package org.refactoringminer.api;
 
+import java.util.List;
+
 import org.eclipse.jgit.lib.Repository;
 
 /**
@@ -87,13 +89,25 @@ public interface GitHistoryRefactoringMiner {
 	 */
 	void detectAtCommit(String gitURL, String commitId, RefactoringHandler handler, int timeout);
 
+	/**
+	 * Detect refactorings performed in the specified commits of a repository, in the given order. All required information is extracted using the GitHub API.
+	 * The commits share the repository handle, the downloaded files and the parsed files, so that consecutive commits, such as those of a pull request,
+	 * are analyzed faster than one at a time. The handler is notified of each commit as soon as its analysis finishes.
+	 *
+	 * @param gitURL The git URL of the repository.
+	 * @param commitIds The SHA keys that identify the commits.
+	 * @param handler A handler object that is responsible to process the detected refactorings.
+	 * @param timeout A timeout, in seconds, per commit. When timeout is reached, the analysis of the commit stops and returns no refactorings.
+	 */
+	void detectAtCommits(String gitURL, List<String> commitIds, RefactoringHandler handler, int timeout);
+
 	/**
 	 * Detect refactorings performed in the specified pull request. All required information is extracted using the GitHub API.
 	 *
 	 * @param gitURL The git URL of the repository.
 	 * @param pullRequest The pull request ID.
 	 * @param handler A handler object that is responsible to process the detected refactorings.
-	 * @param timeout A timeout, in seconds, per commit in the pull request. When timeout is reached, the operation stops and returns no refactorings.
+	 * @param timeout A timeout, in seconds, shared by all the commits of the pull request. The commits not analyzed when the timeout is reached return no refactorings.
 	 * @throws Exception propagated from org.kohsuke.github API
 	 */
 	void detectAtPullRequest(String gitURL, int pullRequest, RefactoringHandler handler, int timeout) throws Exception;
@@ -6,6 +6,7 @@ import java.util.Set;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.revwalk.RevWalk;
+import org.refactoringminer.util.RepositoryReader;
 
 /**
  * Simple service to make git related tasks easier.  
@@ -43,5 +44,13 @@ public interface GitService {
 
 	void fileTreeDiff(Repository repository, RevCommit currentCommit, Set<String> filesBefore, Set<String> filesCurrent, Map<String, String> renamedFilesHint) throws Exception;
 
+	/**
+	 * Same as {@link #fileTreeDiff(Repository, RevCommit, Set, Set, Map)}, reusing the object reader and rename detector
+	 * of the calling thread between commits.
+	 */
+	default void fileTreeDiff(RepositoryReader repositoryReader, RevCommit currentCommit, Set<String> filesBefore, Set<String> filesCurrent, Map<String, String> renamedFilesHint) throws Exception {
+		fileTreeDiff(repositoryReader.getRepository(), currentCommit, filesBefore, filesCurrent, renamedFilesHint);
+	}
+
 	Churn churn(Repository repository, RevCommit currentCommit) throws Exception;
 }
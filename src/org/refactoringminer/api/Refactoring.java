@@ -1,12 +1,18 @@
 package org.refactoringminer.api;
 
+import java.io.IOException;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.util.List;
 import java.util.Set;
 
 import org.apache.commons.lang3.tuple.ImmutablePair;
 
 import com.fasterxml.jackson.core.io.JsonStringEncoder;
 
+import gr.uom.java.xmi.diff.CodeRange;
+
 public interface Refactoring extends Serializable, CodeRangeProvider {
 
 	public RefactoringType getRefactoringType();
@@ -27,15 +33,41 @@ public interface Refactoring extends Serializable, CodeRangeProvider {
 	
 	default public String toJSON() {
 		StringBuilder sb = new StringBuilder();
-		JsonStringEncoder encoder = JsonStringEncoder.getInstance();
-		sb.append("{").append("\n");
-		sb.append("\t").append("\"").append("type").append("\"").append(": ").append("\"").append(getName()).append("\"").append(",").append("\n");
-		sb.append("\t").append("\"").append("description").append("\"").append(": ").append("\"");
-		encoder.quoteAsString(toString().replace('\t', ' '), sb);
-		sb.append("\"").append(",").append("\n");
-		sb.append("\t").append("\"").append("leftSideLocations").append("\"").append(": ").append(leftSide()).append(",").append("\n");
-		sb.append("\t").append("\"").append("rightSideLocations").append("\"").append(": ").append(rightSide()).append("\n");
-		sb.append("}");
+		try {
+			writeJSON(sb);
+		} catch (IOException e) {
+			//a StringBuilder does not throw IOException
+			throw new UncheckedIOException(e);
+		}
 		return sb.toString();
 	}
+
+	/**
+	 * Appends the JSON representation of the refactoring returned by {@link #toJSON()},
+	 * without building the whole document as a string.
+	 */
+	default public void writeJSON(Appendable out) throws IOException {
+		JsonStringEncoder encoder = JsonStringEncoder.getInstance();
+		out.append("{").append("\n");
+		out.append("\t").append("\"").append("type").append("\"").append(": ").append("\"").append(getName()).append("\"").append(",").append("\n");
+		out.append("\t").append("\"").append("description").append("\"").append(": ").append("\"");
+		out.append(CharBuffer.wrap(encoder.quoteAsString(toString().replace('\t', ' '))));
+		out.append("\"").append(",").append("\n");
+		out.append("\t").append("\"").append("leftSideLocations").append("\"").append(": ");
+		//same output as List.toString(), without building the string of the whole list
+		List<CodeRange> leftSide = leftSide();
+		out.append("[");
+		for(int i = 0; i < leftSide.size(); i++) {
+			out.append(i > 0 ? ", " : "").append(leftSide.get(i).toString());
+		}
+		out.append("]").append(",").append("\n");
+		out.append("\t").append("\"").append("rightSideLocations").append("\"").append(": ");
+		List<CodeRange> rightSide = rightSide();
+		out.append("[");
+		for(int i = 0; i < rightSide.size(); i++) {
+			out.append(i > 0 ? ", " : "").append(rightSide.get(i).toString());
+		}
+		out.append("]").append("\n");
+		out.append("}");
+	}
 }
\ No newline at end of file
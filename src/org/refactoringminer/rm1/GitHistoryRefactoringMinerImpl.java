@@ -1,940 +1,1534 @@
-package org.refactoringminer.rm1;
-
-import gr.uom.java.xmi.UMLModel;
-import gr.uom.java.xmi.UMLModelASTReader;
-import gr.uom.java.xmi.diff.MoveSourceFolderRefactoring;
-import gr.uom.java.xmi.diff.MovedClassToAnotherSourceFolder;
-import gr.uom.java.xmi.diff.RenamePattern;
-import gr.uom.java.xmi.diff.StringDistance;
-import gr.uom.java.xmi.diff.UMLModelDiff;
-
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.io.StringWriter;
-import java.net.URL;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Enumeration;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
-import java.util.List;
-import java.util.Map;
-import java.util.Properties;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
-import java.util.regex.Matcher;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
-
-import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.IOUtils;
-import org.apache.commons.lang3.tuple.Pair;
-import org.eclipse.jgit.errors.MissingObjectException;
-import org.eclipse.jgit.lib.ObjectId;
-import org.eclipse.jgit.lib.ObjectLoader;
-import org.eclipse.jgit.lib.Repository;
-import org.eclipse.jgit.revwalk.RevCommit;
-import org.eclipse.jgit.revwalk.RevTree;
-import org.eclipse.jgit.revwalk.RevWalk;
-import org.eclipse.jgit.treewalk.TreeWalk;
-import org.kohsuke.github.GHCommit;
-import org.kohsuke.github.GHPullRequest;
-import org.kohsuke.github.GHPullRequestCommitDetail;
-import org.kohsuke.github.GHRepository;
-import org.kohsuke.github.GHRepositoryWrapper;
-import org.kohsuke.github.GHTree;
-import org.kohsuke.github.GHTreeEntry;
-import org.kohsuke.github.GitHub;
-import org.kohsuke.github.PagedIterable;
-import org.refactoringminer.api.Churn;
-import org.refactoringminer.api.GitHistoryRefactoringMiner;
-import org.refactoringminer.api.GitService;
-import org.refactoringminer.api.Refactoring;
-import org.refactoringminer.api.RefactoringHandler;
-import org.refactoringminer.api.RefactoringMinerTimedOutException;
-import org.refactoringminer.api.RefactoringType;
-import org.refactoringminer.util.GitServiceImpl;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import com.fasterxml.jackson.databind.ObjectMapper;
-
-public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMiner {
-
-	private final static Logger logger = LoggerFactory.getLogger(GitHistoryRefactoringMinerImpl.class);
-	private Set<RefactoringType> refactoringTypesToConsider = null;
-	private GitHub gitHub;
-	
-	public GitHistoryRefactoringMinerImpl() {
-		this.setRefactoringTypesToConsider(RefactoringType.ALL);
-	}
-
-	public void setRefactoringTypesToConsider(RefactoringType ... types) {
-		this.refactoringTypesToConsider = new HashSet<RefactoringType>();
-		for (RefactoringType type : types) {
-			this.refactoringTypesToConsider.add(type);
-		}
-	}
-	
-	private void detect(GitService gitService, Repository repository, final RefactoringHandler handler, Iterator<RevCommit> i) {
-		int commitsCount = 0;
-		int errorCommitsCount = 0;
-		int refactoringsCount = 0;
-
-		File metadataFolder = repository.getDirectory();
-		File projectFolder = metadataFolder.getParentFile();
-		String projectName = projectFolder.getName();
-		
-		long time = System.currentTimeMillis();
-		while (i.hasNext()) {
-			RevCommit currentCommit = i.next();
-			try {
-				List<Refactoring> refactoringsAtRevision = detectRefactorings(gitService, repository, handler, currentCommit);
-				refactoringsCount += refactoringsAtRevision.size();
-				
-			} catch (Exception e) {
-				logger.warn(String.format("Ignored revision %s due to error", currentCommit.getId().getName()), e);
-				handler.handleException(currentCommit.getId().getName(),e);
-				errorCommitsCount++;
-			}
-
-			commitsCount++;
-			long time2 = System.currentTimeMillis();
-			if ((time2 - time) > 20000) {
-				time = time2;
-				logger.info(String.format("Processing %s [Commits: %d, Errors: %d, Refactorings: %d]", projectName, commitsCount, errorCommitsCount, refactoringsCount));
-			}
-		}
-
-		handler.onFinish(refactoringsCount, commitsCount, errorCommitsCount);
-		logger.info(String.format("Analyzed %s [Commits: %d, Errors: %d, Refactorings: %d]", projectName, commitsCount, errorCommitsCount, refactoringsCount));
-	}
-
-	protected List<Refactoring> detectRefactorings(GitService gitService, Repository repository, final RefactoringHandler handler, RevCommit currentCommit) throws Exception {
-		List<Refactoring> refactoringsAtRevision;
-		String commitId = currentCommit.getId().getName();
-		Set<String> filePathsBefore = new LinkedHashSet<String>();
-		Set<String> filePathsCurrent = new LinkedHashSet<String>();
-		Map<String, String> renamedFilesHint = new HashMap<String, String>();
-		gitService.fileTreeDiff(repository, currentCommit, filePathsBefore, filePathsCurrent, renamedFilesHint);
-		
-		Set<String> repositoryDirectoriesBefore = new LinkedHashSet<String>();
-		Set<String> repositoryDirectoriesCurrent = new LinkedHashSet<String>();
-		Map<String, String> fileContentsBefore = new LinkedHashMap<String, String>();
-		Map<String, String> fileContentsCurrent = new LinkedHashMap<String, String>();
-		try (RevWalk walk = new RevWalk(repository)) {
-			// If no java files changed, there is no refactoring. Also, if there are
-			// only ADD's or only REMOVE's there is no refactoring
-			if (!filePathsBefore.isEmpty() && !filePathsCurrent.isEmpty() && currentCommit.getParentCount() > 0) {
-				RevCommit parentCommit = currentCommit.getParent(0);
-				populateFileContents(repository, parentCommit, filePathsBefore, fileContentsBefore, repositoryDirectoriesBefore);
-				populateFileContents(repository, currentCommit, filePathsCurrent, fileContentsCurrent, repositoryDirectoriesCurrent);
-				List<MoveSourceFolderRefactoring> moveSourceFolderRefactorings = processIdenticalFiles(fileContentsBefore, fileContentsCurrent, renamedFilesHint);
-				UMLModel parentUMLModel = createModel(fileContentsBefore, repositoryDirectoriesBefore);
-				UMLModel currentUMLModel = createModel(fileContentsCurrent, repositoryDirectoriesCurrent);
-				
-				UMLModelDiff modelDiff = parentUMLModel.diff(currentUMLModel);
-				refactoringsAtRevision = modelDiff.getRefactorings();
-				refactoringsAtRevision.addAll(moveSourceFolderRefactorings);
-				refactoringsAtRevision = filter(refactoringsAtRevision);
-			} else {
-				//logger.info(String.format("Ignored revision %s with no changes in java files", commitId));
-				refactoringsAtRevision = Collections.emptyList();
-			}
-			handler.handle(commitId, refactoringsAtRevision);
-			
-			walk.dispose();
-		}
-		return refactoringsAtRevision;
-	}
-
-	public static List<MoveSourceFolderRefactoring> processIdenticalFiles(Map<String, String> fileContentsBefore, Map<String, String> fileContentsCurrent,
-			Map<String, String> renamedFilesHint) throws IOException {
-		Map<String, String> identicalFiles = new HashMap<String, String>();
-		Map<Pair<String, String>, Integer> consistentSourceFolderChanges = new HashMap<>();
-		Map<String, String> nonIdenticalFiles = new HashMap<String, String>();
-		for(String key : fileContentsBefore.keySet()) {
-			//take advantage of renamed file hints, if available
-			if(renamedFilesHint.containsKey(key)) {
-				String renamedFile = renamedFilesHint.get(key);
-				String fileBefore = fileContentsBefore.get(key);
-				String fileAfter = fileContentsCurrent.get(renamedFile);
-				if(fileBefore.equals(fileAfter) || StringDistance.trivialCommentChange(fileBefore, fileAfter)) {
-					identicalFiles.put(key, renamedFile);
-					if(key.contains("/") && renamedFile.contains("/")) {
-						String prefix1 = key.substring(0, key.indexOf("/"));
-						String prefix2 = renamedFile.substring(0, renamedFile.indexOf("/"));
-						Pair<String, String> p = Pair.of(prefix1, prefix2);
-						if(consistentSourceFolderChanges.containsKey(p)) {
-							consistentSourceFolderChanges.put(p, consistentSourceFolderChanges.get(p) + 1);
-						}
-						else {
-							consistentSourceFolderChanges.put(p, 1);
-						}
-					}
-				}
-				else {
-					nonIdenticalFiles.put(key, renamedFile);
-				}
-			}
-			if(fileContentsCurrent.containsKey(key)) {
-				String fileBefore = fileContentsBefore.get(key);
-				String fileAfter = fileContentsCurrent.get(key);
-				if(fileBefore.equals(fileAfter) || StringDistance.trivialCommentChange(fileBefore, fileAfter)) {
-					identicalFiles.put(key, key);
-				}
-				else {
-					nonIdenticalFiles.put(key, key);
-				}
-			}
-		}
-		fileContentsBefore.keySet().removeAll(identicalFiles.keySet());
-		fileContentsCurrent.keySet().removeAll(identicalFiles.values());
-		//second iteration to find renamed/moved files with identical contents
-		for(String key1 : fileContentsBefore.keySet()) {
-			if(!identicalFiles.containsKey(key1) && !nonIdenticalFiles.containsKey(key1)) {
-				String prefix1 = key1.substring(0, key1.indexOf("/"));
-				String fileBefore = fileContentsBefore.get(key1);
-				boolean matchWithConsistentSourceFolderChangeFound = false;
-				List<String> matches = new ArrayList<String>();
-				for(String key2 : fileContentsCurrent.keySet()) {
-					if(!identicalFiles.containsValue(key2) && !nonIdenticalFiles.containsValue(key2)) {
-						String prefix2 = key2.substring(0, key2.indexOf("/"));
-						String fileAfter = fileContentsCurrent.get(key2);
-						if(fileBefore.equals(fileAfter) || StringDistance.trivialCommentChange(fileBefore, fileAfter)) {
-							if(consistentSourceFolderChanges.containsKey(Pair.of(prefix1, prefix2))) {
-								identicalFiles.put(key1, key2);
-								matchWithConsistentSourceFolderChangeFound = true;
-								break;
-							}
-							else {
-								matches.add(key2);
-							}
-						}
-					}
-				}
-				if(!matchWithConsistentSourceFolderChangeFound) {
-					if(matches.size() == 1) {
-						identicalFiles.put(key1, matches.get(0));
-					}
-					else if(matches.size() > 1) {
-						int minEditDistance = key1.length();
-						String bestMatch = null;
-						for(int i=0; i< matches.size(); i++) {
-							String key2 = matches.get(i);
-							int editDistance = StringDistance.editDistance(key1, key2);
-							if(editDistance < minEditDistance) {
-								minEditDistance = editDistance;
-								bestMatch = key2;
-							}
-						}
-						if(bestMatch != null) {
-							identicalFiles.put(key1, bestMatch);
-						}
-					}
-				}
-			}
-		}
-		fileContentsBefore.keySet().removeAll(identicalFiles.keySet());
-		fileContentsCurrent.keySet().removeAll(identicalFiles.values());
-		
-		List<MoveSourceFolderRefactoring> moveSourceFolderRefactorings = new ArrayList<MoveSourceFolderRefactoring>();
-		for(String key : identicalFiles.keySet()) {
-			String originalPath = key;
-			String movedPath = identicalFiles.get(key);
-			String originalPathPrefix = "";
-			if(originalPath.contains("/")) {
-				originalPathPrefix = originalPath.substring(0, originalPath.lastIndexOf('/'));
-			}
-			String movedPathPrefix = "";
-			if(movedPath.contains("/")) {
-				movedPathPrefix = movedPath.substring(0, movedPath.lastIndexOf('/'));
-			}
-			if(!originalPathPrefix.equals(movedPathPrefix) && !key.endsWith("package-info.java")) {
-				MovedClassToAnotherSourceFolder refactoring = new MovedClassToAnotherSourceFolder(null, null, originalPathPrefix, movedPathPrefix);
-				RenamePattern renamePattern = refactoring.getRenamePattern();
-				boolean foundInMatchingMoveSourceFolderRefactoring = false;
-				for(MoveSourceFolderRefactoring moveSourceFolderRefactoring : moveSourceFolderRefactorings) {
-					if(moveSourceFolderRefactoring.getPattern().equals(renamePattern)) {
-						moveSourceFolderRefactoring.putIdenticalFilePaths(originalPath, movedPath);
-						foundInMatchingMoveSourceFolderRefactoring = true;
-						break;
-					}
-				}
-				if(!foundInMatchingMoveSourceFolderRefactoring) {
-					MoveSourceFolderRefactoring moveSourceFolderRefactoring = new MoveSourceFolderRefactoring(renamePattern);
-					moveSourceFolderRefactoring.putIdenticalFilePaths(originalPath, movedPath);
-					moveSourceFolderRefactorings.add(moveSourceFolderRefactoring);
-				}
-			}
-		}
-		return moveSourceFolderRefactorings;
-	}
-
-	public static void populateFileContents(Repository repository, RevCommit commit,
-			Set<String> filePaths, Map<String, String> fileContents, Set<String> repositoryDirectories) throws Exception {
-		logger.info("Processing {} {} ...", repository.getDirectory().getParent().toString(), commit.getName());
-		RevTree parentTree = commit.getTree();
-		try (TreeWalk treeWalk = new TreeWalk(repository)) {
-			treeWalk.addTree(parentTree);
-			treeWalk.setRecursive(true);
-			while (treeWalk.next()) {
-				String pathString = treeWalk.getPathString();
-				if(filePaths.contains(pathString)) {
-					ObjectId objectId = treeWalk.getObjectId(0);
-					ObjectLoader loader = repository.open(objectId);
-					StringWriter writer = new StringWriter();
-					IOUtils.copy(loader.openStream(), writer);
-					fileContents.put(pathString, writer.toString());
-				}
-				if(pathString.endsWith(".java") && pathString.contains("/")) {
-					String directory = pathString.substring(0, pathString.lastIndexOf("/"));
-					repositoryDirectories.add(directory);
-					//include sub-directories
-					String subDirectory = new String(directory);
-					while(subDirectory.contains("/")) {
-						subDirectory = subDirectory.substring(0, subDirectory.lastIndexOf("/"));
-						repositoryDirectories.add(subDirectory);
-					}
-				}
-			}
-		}
-	}
-
-	protected List<Refactoring> detectRefactorings(final RefactoringHandler handler, File projectFolder, String cloneURL, String currentCommitId) {
-		List<Refactoring> refactoringsAtRevision = Collections.emptyList();
-		try {
-			ChangedFileInfo changedFileInfo = populateWithGitHubAPI(projectFolder, cloneURL, currentCommitId);
-			String parentCommitId = changedFileInfo.getParentCommitId();
-			List<String> filesBefore = changedFileInfo.getFilesBefore();
-			List<String> filesCurrent = changedFileInfo.getFilesCurrent();
-			Map<String, String> renamedFilesHint = changedFileInfo.getRenamedFilesHint();
-			File currentFolder = new File(projectFolder.getParentFile(), projectFolder.getName() + "-" + currentCommitId);
-			File parentFolder = new File(projectFolder.getParentFile(), projectFolder.getName() + "-" + parentCommitId);
-			if (!currentFolder.exists()) {	
-				downloadAndExtractZipFile(projectFolder, cloneURL, currentCommitId);
-			}
-			if (!parentFolder.exists()) {	
-				downloadAndExtractZipFile(projectFolder, cloneURL, parentCommitId);
-			}
-			Set<String> repositoryDirectoriesBefore = new LinkedHashSet<String>();
-			Set<String> repositoryDirectoriesCurrent = new LinkedHashSet<String>();
-			Map<String, String> fileContentsBefore = new LinkedHashMap<String, String>();
-			Map<String, String> fileContentsCurrent = new LinkedHashMap<String, String>();
-			if (currentFolder.exists() && parentFolder.exists()) {
-				populateFileContents(currentFolder, filesCurrent, fileContentsCurrent, repositoryDirectoriesCurrent);
-				populateFileContents(parentFolder, filesBefore, fileContentsBefore, repositoryDirectoriesBefore);
-				List<MoveSourceFolderRefactoring> moveSourceFolderRefactorings = processIdenticalFiles(fileContentsBefore, fileContentsCurrent, renamedFilesHint); 
-				UMLModel parentUMLModel = createModel(fileContentsBefore, repositoryDirectoriesBefore);
-				UMLModel currentUMLModel = createModel(fileContentsCurrent, repositoryDirectoriesCurrent);
-				// Diff between currentModel e parentModel
-				UMLModelDiff modelDiff = parentUMLModel.diff(currentUMLModel);
-				refactoringsAtRevision = modelDiff.getRefactorings();
-				refactoringsAtRevision.addAll(moveSourceFolderRefactorings);
-				refactoringsAtRevision = filter(refactoringsAtRevision);
-			}
-			else {
-				logger.warn(String.format("Folder %s not found", currentFolder.getPath()));
-			}
-		} catch (Exception e) {
-			logger.warn(String.format("Ignored revision %s due to error", currentCommitId), e);
-			handler.handleException(currentCommitId, e);
-		}
-		handler.handle(currentCommitId, refactoringsAtRevision);
-
-		return refactoringsAtRevision;
-	}
-
-	private void populateFileContents(File projectFolder, List<String> filePaths, Map<String, String> fileContents,	Set<String> repositoryDirectories) throws IOException {
-		for(String path : filePaths) {
-			String fullPath = projectFolder + File.separator + path.replaceAll("/", systemFileSeparator);
-			String contents = FileUtils.readFileToString(new File(fullPath));
-			fileContents.put(path, contents);
-			String directory = new String(path);
-			while(directory.contains("/")) {
-				directory = directory.substring(0, directory.lastIndexOf("/"));
-				repositoryDirectories.add(directory);
-			}
-		}
-	}
-
-	private void downloadAndExtractZipFile(File projectFolder, String cloneURL, String commitId)
-			throws IOException {
-		String downloadLink = extractDownloadLink(cloneURL, commitId);
-		File destinationFile = new File(projectFolder.getParentFile(), projectFolder.getName() + "-" + commitId + ".zip");
-		logger.info(String.format("Downloading archive %s", downloadLink));
-		FileUtils.copyURLToFile(new URL(downloadLink), destinationFile);
-		logger.info(String.format("Unzipping archive %s", downloadLink));
-		java.util.zip.ZipFile zipFile = new ZipFile(destinationFile);
-		try {
-			Enumeration<? extends ZipEntry> entries = zipFile.entries();
-			while (entries.hasMoreElements()) {
-				ZipEntry entry = entries.nextElement();
-				File entryDestination = new File(projectFolder.getParentFile(),  entry.getName());
-				if (entry.isDirectory()) {
-					entryDestination.mkdirs();
-				} else {
-					entryDestination.getParentFile().mkdirs();
-					InputStream in = zipFile.getInputStream(entry);
-					OutputStream out = new FileOutputStream(entryDestination);
-					IOUtils.copy(in, out);
-					IOUtils.closeQuietly(in);
-					out.close();
-				}
-			}
-		} finally {
-			zipFile.close();
-		}
-	}
-
-	public static class ChangedFileInfo {
-		private String parentCommitId;
-		private List<String> filesBefore;
-		private List<String> filesCurrent;
-		private Map<String, String> renamedFilesHint;
-
-		public ChangedFileInfo() {
-			
-		}
-
-		public ChangedFileInfo(String parentCommitId, List<String> filesBefore,
-				List<String> filesCurrent, Map<String, String> renamedFilesHint) {
-			this.filesBefore = filesBefore;
-			this.filesCurrent = filesCurrent;
-			this.renamedFilesHint = renamedFilesHint;
-			this.parentCommitId = parentCommitId;
-		}
-
-		public String getParentCommitId() {
-			return parentCommitId;
-		}
-
-		public List<String> getFilesBefore() {
-			return filesBefore;
-		}
-
-		public List<String> getFilesCurrent() {
-			return filesCurrent;
-		}
-
-		public Map<String, String> getRenamedFilesHint() {
-			return renamedFilesHint;
-		}
-	}
-
-	private ChangedFileInfo populateWithGitHubAPI(File projectFolder, String cloneURL, String currentCommitId) throws IOException {
-		logger.info("Processing {} {} ...", cloneURL, currentCommitId);
-		String jsonFilePath = projectFolder.getName() + "-" + currentCommitId + ".json";
-		File jsonFile = new File(projectFolder.getParent(), jsonFilePath);
-		if(jsonFile.exists()) {
-			final ObjectMapper mapper = new ObjectMapper();
-			ChangedFileInfo changedFileInfo = mapper.readValue(jsonFile, ChangedFileInfo.class);
-			return changedFileInfo;
-		}
-		else {
-			GHRepository repository = getGitHubRepository(cloneURL);
-			List<GHCommit.File> commitFiles = new ArrayList<>();
-			GHCommit commit = new GHRepositoryWrapper(repository).getCommit(currentCommitId, commitFiles);
-			String parentCommitId = commit.getParents().get(0).getSHA1();
-			List<String> filesBefore = new ArrayList<String>();
-			List<String> filesCurrent = new ArrayList<String>();
-			Map<String, String> renamedFilesHint = new HashMap<String, String>();
-			for (GHCommit.File commitFile : commitFiles) {
-				if (commitFile.getFileName().endsWith(".java")) {
-					if (commitFile.getStatus().equals("modified")) {
-						filesBefore.add(commitFile.getFileName());
-						filesCurrent.add(commitFile.getFileName());
-					}
-					else if (commitFile.getStatus().equals("added")) {
-						filesCurrent.add(commitFile.getFileName());
-					}
-					else if (commitFile.getStatus().equals("removed")) {
-						filesBefore.add(commitFile.getFileName());
-					}
-					else if (commitFile.getStatus().equals("renamed")) {
-						filesBefore.add(commitFile.getPreviousFilename());
-						filesCurrent.add(commitFile.getFileName());
-						renamedFilesHint.put(commitFile.getPreviousFilename(), commitFile.getFileName());
-					}
-				}
-			}
-			ChangedFileInfo changedFileInfo = new ChangedFileInfo(parentCommitId, filesBefore, filesCurrent, renamedFilesHint);
-			final ObjectMapper mapper = new ObjectMapper();
-			mapper.writeValue(jsonFile, changedFileInfo);
-			return changedFileInfo;
-		}
-	}
-
-	private GitHub connectToGitHub() {
-		if(gitHub == null) {
-			try {
-				Properties prop = new Properties();
-				InputStream input = new FileInputStream("github-oauth.properties");
-				prop.load(input);
-				String oAuthToken = prop.getProperty("OAuthToken");
-				if (oAuthToken != null) {
-					gitHub = GitHub.connectUsingOAuth(oAuthToken);
-					if(gitHub.isCredentialValid()) {
-						logger.info("Connected to GitHub with OAuth token");
-					}
-				}
-				else {
-					gitHub = GitHub.connect();
-				}
-			} catch(FileNotFoundException e) {
-				logger.warn("File github-oauth.properties was not found in RefactoringMiner's execution directory", e);
-			} catch(IOException ioe) {
-				ioe.printStackTrace();
-			}
-		}
-		return gitHub;
-	}
-
-	protected List<Refactoring> filter(List<Refactoring> refactoringsAtRevision) {
-		if (this.refactoringTypesToConsider == null) {
-			return refactoringsAtRevision;
-		}
-		List<Refactoring> filteredList = new ArrayList<Refactoring>();
-		for (Refactoring ref : refactoringsAtRevision) {
-			if (this.refactoringTypesToConsider.contains(ref.getRefactoringType())) {
-				filteredList.add(ref);
-			}
-		}
-		return filteredList;
-	}
-	
-	@Override
-	public void detectAll(Repository repository, String branch, final RefactoringHandler handler) throws Exception {
-		GitService gitService = new GitServiceImpl() {
-			@Override
-			public boolean isCommitAnalyzed(String sha1) {
-				return handler.skipCommit(sha1);
-			}
-		};
-		RevWalk walk = gitService.createAllRevsWalk(repository, branch);
-		try {
-			detect(gitService, repository, handler, walk.iterator());
-		} finally {
-			walk.dispose();
-		}
-	}
-
-	@Override
-	public void fetchAndDetectNew(Repository repository, final RefactoringHandler handler) throws Exception {
-		GitService gitService = new GitServiceImpl() {
-			@Override
-			public boolean isCommitAnalyzed(String sha1) {
-				return handler.skipCommit(sha1);
-			}
-		};
-		RevWalk walk = gitService.fetchAndCreateNewRevsWalk(repository);
-		try {
-			detect(gitService, repository, handler, walk.iterator());
-		} finally {
-			walk.dispose();
-		}
-	}
-
-	public static UMLModel createModel(Map<String, String> fileContents, Set<String> repositoryDirectories) throws Exception {
-		return new UMLModelASTReader(fileContents, repositoryDirectories).getUmlModel();
-	}
-
-	private static final String systemFileSeparator = Matcher.quoteReplacement(File.separator);
-
-	@Override
-	public void detectAtCommit(Repository repository, String commitId, RefactoringHandler handler) {
-		String cloneURL = repository.getConfig().getString("remote", "origin", "url");
-		File metadataFolder = repository.getDirectory();
-		File projectFolder = metadataFolder.getParentFile();
-		GitService gitService = new GitServiceImpl();
-		RevWalk walk = new RevWalk(repository);
-		try {
-			RevCommit commit = walk.parseCommit(repository.resolve(commitId));
-			if (commit.getParentCount() > 0) {
-				walk.parseCommit(commit.getParent(0));
-				this.detectRefactorings(gitService, repository, handler, commit);
-			}
-			else {
-				logger.warn(String.format("Ignored revision %s because it has no parent", commitId));
-			}
-		} catch (MissingObjectException moe) {
-			this.detectRefactorings(handler, projectFolder, cloneURL, commitId);
-		} catch (RefactoringMinerTimedOutException e) {
-			logger.warn(String.format("Ignored revision %s due to timeout", commitId), e);
-		} catch (Exception e) {
-			logger.warn(String.format("Ignored revision %s due to error", commitId), e);
-			handler.handleException(commitId, e);
-		} finally {
-			walk.close();
-			walk.dispose();
-		}
-	}
-
-	public void detectAtCommit(Repository repository, String commitId, RefactoringHandler handler, int timeout) {
-		ExecutorService service = Executors.newSingleThreadExecutor();
-		Future<?> f = null;
-		try {
-			Runnable r = () -> detectAtCommit(repository, commitId, handler);
-			f = service.submit(r);
-			f.get(timeout, TimeUnit.SECONDS);
-		} catch (TimeoutException e) {
-			f.cancel(true);
-		} catch (ExecutionException e) {
-			e.printStackTrace();
-		} catch (InterruptedException e) {
-			e.printStackTrace();
-		} finally {
-			service.shutdown();
-		}
-	}
-
-	@Override
-	public String getConfigId() {
-	    return "RM1";
-	}
-
-	@Override
-	public void detectBetweenTags(Repository repository, String startTag, String endTag, RefactoringHandler handler)
-			throws Exception {
-		GitService gitService = new GitServiceImpl() {
-			@Override
-			public boolean isCommitAnalyzed(String sha1) {
-				return handler.skipCommit(sha1);
-			}
-		};
-		
-		Iterable<RevCommit> walk = gitService.createRevsWalkBetweenTags(repository, startTag, endTag);
-		detect(gitService, repository, handler, walk.iterator());
-	}
-
-	@Override
-	public void detectBetweenCommits(Repository repository, String startCommitId, String endCommitId,
-			RefactoringHandler handler) throws Exception {
-		GitService gitService = new GitServiceImpl() {
-			@Override
-			public boolean isCommitAnalyzed(String sha1) {
-				return handler.skipCommit(sha1);
-			}
-		};
-		
-		Iterable<RevCommit> walk = gitService.createRevsWalkBetweenCommits(repository, startCommitId, endCommitId);
-		detect(gitService, repository, handler, walk.iterator());
-	}
-
-	@Override
-	public Churn churnAtCommit(Repository repository, String commitId, RefactoringHandler handler) {
-		GitService gitService = new GitServiceImpl();
-		RevWalk walk = new RevWalk(repository);
-		try {
-			RevCommit commit = walk.parseCommit(repository.resolve(commitId));
-			if (commit.getParentCount() > 0) {
-				walk.parseCommit(commit.getParent(0));
-				return gitService.churn(repository, commit);
-			}
-			else {
-				logger.warn(String.format("Ignored revision %s because it has no parent", commitId));
-			}
-		} catch (MissingObjectException moe) {
-			logger.warn(String.format("Ignored revision %s due to missing commit", commitId), moe);
-		} catch (Exception e) {
-			logger.warn(String.format("Ignored revision %s due to error", commitId), e);
-			handler.handleException(commitId, e);
-		} finally {
-			walk.close();
-			walk.dispose();
-		}
-		return null;
-	}
-
-	@Override
-	public void detectAtCommit(String gitURL, String commitId, RefactoringHandler handler, int timeout) {
-		ExecutorService service = Executors.newSingleThreadExecutor();
-		Future<?> f = null;
-		try {
-			Runnable r = () -> detectRefactorings(handler, gitURL, commitId);
-			f = service.submit(r);
-			f.get(timeout, TimeUnit.SECONDS);
-		} catch (TimeoutException e) {
-			f.cancel(true);
-		} catch (ExecutionException e) {
-			e.printStackTrace();
-		} catch (InterruptedException e) {
-			e.printStackTrace();
-		} finally {
-			service.shutdown();
-		}
-	}
-
-	protected List<Refactoring> detectRefactorings(final RefactoringHandler handler, String gitURL, String currentCommitId) {
-		List<Refactoring> refactoringsAtRevision = Collections.emptyList();
-		try {
-			Set<String> repositoryDirectoriesBefore = ConcurrentHashMap.newKeySet();
-			Set<String> repositoryDirectoriesCurrent = ConcurrentHashMap.newKeySet();
-			Map<String, String> fileContentsBefore = new ConcurrentHashMap<String, String>();
-			Map<String, String> fileContentsCurrent = new ConcurrentHashMap<String, String>();
-			Map<String, String> renamedFilesHint = new ConcurrentHashMap<String, String>();
-			populateWithGitHubAPI(gitURL, currentCommitId, fileContentsBefore, fileContentsCurrent, renamedFilesHint, repositoryDirectoriesBefore, repositoryDirectoriesCurrent);
-			List<MoveSourceFolderRefactoring> moveSourceFolderRefactorings = processIdenticalFiles(fileContentsBefore, fileContentsCurrent, renamedFilesHint);
-			UMLModel currentUMLModel = createModel(fileContentsCurrent, repositoryDirectoriesCurrent);
-			UMLModel parentUMLModel = createModel(fileContentsBefore, repositoryDirectoriesBefore);
-			//  Diff between currentModel e parentModel
-			UMLModelDiff modelDiff = parentUMLModel.diff(currentUMLModel);
-			refactoringsAtRevision = modelDiff.getRefactorings();
-			refactoringsAtRevision.addAll(moveSourceFolderRefactorings);
-			refactoringsAtRevision = filter(refactoringsAtRevision);
-		}
-		catch(RefactoringMinerTimedOutException e) {
-			logger.warn(String.format("Ignored revision %s due to timeout", currentCommitId), e);
-			handler.handleException(currentCommitId, e);
-		}
-		catch (Exception e) {
-			logger.warn(String.format("Ignored revision %s due to error", currentCommitId), e);
-			handler.handleException(currentCommitId, e);
-		}
-		handler.handle(currentCommitId, refactoringsAtRevision);
-
-		return refactoringsAtRevision;
-	}
-
-	private void populateWithGitHubAPI(String cloneURL, String currentCommitId,
-			Map<String, String> filesBefore, Map<String, String> filesCurrent, Map<String, String> renamedFilesHint,
-			Set<String> repositoryDirectoriesBefore, Set<String> repositoryDirectoriesCurrent) throws IOException, InterruptedException {
-		logger.info("Processing {} {} ...", cloneURL, currentCommitId);
-		GHRepository repository = getGitHubRepository(cloneURL);
-		List<GHCommit.File> commitFiles = new ArrayList<>();
-		GHCommit currentCommit = new GHRepositoryWrapper(repository).getCommit(currentCommitId, commitFiles);
-		final String parentCommitId = currentCommit.getParents().get(0).getSHA1();
-		Set<String> deletedAndRenamedFileParentDirectories = ConcurrentHashMap.newKeySet();
-		ExecutorService pool = Executors.newFixedThreadPool(commitFiles.size());
-		for (GHCommit.File commitFile : commitFiles) {
-			String fileName = commitFile.getFileName();
-			if (commitFile.getFileName().endsWith(".java")) {
-				if (commitFile.getStatus().equals("modified")) {
-					Runnable r = () -> {
-						try {
-							URL currentRawURL = commitFile.getRawUrl();
-							InputStream currentRawFileInputStream = currentRawURL.openStream();
-							String currentRawFile = IOUtils.toString(currentRawFileInputStream);
-							String rawURLInParentCommit = currentRawURL.toString().replace(currentCommitId, parentCommitId);
-							InputStream parentRawFileInputStream = new URL(rawURLInParentCommit).openStream();
-							String parentRawFile = IOUtils.toString(parentRawFileInputStream);
-							filesBefore.put(fileName, parentRawFile);
-							filesCurrent.put(fileName, currentRawFile);
-						}
-						catch(IOException e) {
-							e.printStackTrace();
-						}
-					};
-					pool.submit(r);
-				}
-				else if (commitFile.getStatus().equals("added")) {
-					Runnable r = () -> {
-						try {
-							URL currentRawURL = commitFile.getRawUrl();
-							InputStream currentRawFileInputStream = currentRawURL.openStream();
-							String currentRawFile = IOUtils.toString(currentRawFileInputStream);
-							filesCurrent.put(fileName, currentRawFile);
-						}
-						catch(IOException e) {
-							e.printStackTrace();
-						}
-					};
-					pool.submit(r);
-				}
-				else if (commitFile.getStatus().equals("removed")) {
-					Runnable r = () -> {
-						try {
-							URL rawURL = commitFile.getRawUrl();
-							InputStream rawFileInputStream = rawURL.openStream();
-							String rawFile = IOUtils.toString(rawFileInputStream);
-							filesBefore.put(fileName, rawFile);
-							if(fileName.contains("/")) {
-								deletedAndRenamedFileParentDirectories.add(fileName.substring(0, fileName.lastIndexOf("/")));
-							}
-						}
-						catch(IOException e) {
-							e.printStackTrace();
-						}
-					};
-					pool.submit(r);
-				}
-				else if (commitFile.getStatus().equals("renamed")) {
-					Runnable r = () -> {
-						try {
-							String previousFilename = commitFile.getPreviousFilename();
-							URL currentRawURL = commitFile.getRawUrl();
-							InputStream currentRawFileInputStream = currentRawURL.openStream();
-							String currentRawFile = IOUtils.toString(currentRawFileInputStream);
-							String rawURLInParentCommit = currentRawURL.toString().replace(currentCommitId, parentCommitId).replace(fileName, previousFilename);
-							InputStream parentRawFileInputStream = new URL(rawURLInParentCommit).openStream();
-							String parentRawFile = IOUtils.toString(parentRawFileInputStream);
-							filesBefore.put(previousFilename, parentRawFile);
-							filesCurrent.put(fileName, currentRawFile);
-							renamedFilesHint.put(previousFilename, fileName);
-							if(previousFilename.contains("/")) {
-								deletedAndRenamedFileParentDirectories.add(previousFilename.substring(0, previousFilename.lastIndexOf("/")));
-							}
-						}
-						catch(IOException e) {
-							e.printStackTrace();
-						}
-					};
-					pool.submit(r);
-				}
-			}
-		}
-		pool.shutdown();
-		pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
-		repositoryDirectories(currentCommit.getTree(), "", repositoryDirectoriesCurrent, deletedAndRenamedFileParentDirectories);
-		repositoryDirectoriesCurrent.addAll(deletedAndRenamedFileParentDirectories);
-		//allRepositoryDirectories(currentCommit.getTree(), "", repositoryDirectoriesCurrent);
-		//GHCommit parentCommit = repository.getCommit(parentCommitId);
-		//allRepositoryDirectories(parentCommit.getTree(), "", repositoryDirectoriesBefore);
-	}
-
-	private void repositoryDirectories(GHTree tree, String pathFromRoot, Set<String> repositoryDirectories, Set<String> targetPaths) throws IOException {
-		for(GHTreeEntry entry : tree.getTree()) {
-			String path = null;
-			if(pathFromRoot.equals("")) {
-				path = entry.getPath();
-			}
-			else {
-				path = pathFromRoot + "/" + entry.getPath();
-			}
-			if(atLeastOneStartsWith(targetPaths, path)) {
-				if(targetPaths.contains(path)) {
-					repositoryDirectories.add(path);
-				}
-				else {
-					repositoryDirectories.add(path);
-					GHTree asTree = entry.asTree();
-					if(asTree != null) {
-						repositoryDirectories(asTree, path, repositoryDirectories, targetPaths);
-					}
-				}
-			}
-		}
-	}
-
-	private boolean atLeastOneStartsWith(Set<String> targetPaths, String path) {
-		for(String targetPath : targetPaths) {
-			if(path.endsWith("/") && targetPath.startsWith(path)) {
-				return true;
-			}
-			else if(!path.endsWith("/") && targetPath.startsWith(path + "/")) {
-				return true;
-			}
-		}
-		return false;
-	}
-	/*
-	private void allRepositoryDirectories(GHTree tree, String pathFromRoot, Set<String> repositoryDirectories) throws IOException {
-		for(GHTreeEntry entry : tree.getTree()) {
-			String path = null;
-			if(pathFromRoot.equals("")) {
-				path = entry.getPath();
-			}
-			else {
-				path = pathFromRoot + "/" + entry.getPath();
-			}
-			GHTree asTree = entry.asTree();
-			if(asTree != null) {
-				allRepositoryDirectories(asTree, path, repositoryDirectories);
-			}
-			else if(path.endsWith(".java")) {
-				repositoryDirectories.add(path.substring(0, path.lastIndexOf("/")));
-			}
-		}
-	}
-	*/
-
-	@Override
-	public void detectAtPullRequest(String cloneURL, int pullRequestId, RefactoringHandler handler, int timeout) throws IOException {
-		GHRepository repository = getGitHubRepository(cloneURL);
-		GHPullRequest pullRequest = repository.getPullRequest(pullRequestId);
-		PagedIterable<GHPullRequestCommitDetail> commits = pullRequest.listCommits();
-		for(GHPullRequestCommitDetail commit : commits) {
-			detectAtCommit(cloneURL, commit.getSha(), handler, timeout);
-		}
-	}
-
-	public GHRepository getGitHubRepository(String cloneURL) throws IOException {
-		GitHub gitHub = connectToGitHub();
-		String repoName = extractRepositoryName(cloneURL);
-		return gitHub.getRepository(repoName);
-	}
-
-	private static final String GITHUB_URL = "https://github.com/";
-	private static final String BITBUCKET_URL = "https://bitbucket.org/";
-
-	private static String extractRepositoryName(String cloneURL) {
-		int hostLength = 0;
-		if(cloneURL.startsWith(GITHUB_URL)) {
-			hostLength = GITHUB_URL.length();
-		}
-		else if(cloneURL.startsWith(BITBUCKET_URL)) {
-			hostLength = BITBUCKET_URL.length();
-		}
-		int indexOfDotGit = cloneURL.length();
-		if(cloneURL.endsWith(".git")) {
-			indexOfDotGit = cloneURL.indexOf(".git");
-		}
-		else if(cloneURL.endsWith("/")) {
-			indexOfDotGit = cloneURL.length() - 1;
-		}
-		String repoName = cloneURL.substring(hostLength, indexOfDotGit);
-		return repoName;
-	}
-
-	public static String extractCommitURL(String cloneURL, String commitId) {
-		int indexOfDotGit = cloneURL.length();
-		if(cloneURL.endsWith(".git")) {
-			indexOfDotGit = cloneURL.indexOf(".git");
-		}
-		else if(cloneURL.endsWith("/")) {
-			indexOfDotGit = cloneURL.length() - 1;
-		}
-		String commitResource = "/";
-		if(cloneURL.startsWith(GITHUB_URL)) {
-			commitResource = "/commit/";
-		}
-		else if(cloneURL.startsWith(BITBUCKET_URL)) {
-			commitResource = "/commits/";
-		}
-		String commitURL = cloneURL.substring(0, indexOfDotGit) + commitResource + commitId;
-		return commitURL;
-	}
-
-	private static String extractDownloadLink(String cloneURL, String commitId) {
-		int indexOfDotGit = cloneURL.length();
-		if(cloneURL.endsWith(".git")) {
-			indexOfDotGit = cloneURL.indexOf(".git");
-		}
-		else if(cloneURL.endsWith("/")) {
-			indexOfDotGit = cloneURL.length() - 1;
-		}
-		String downloadResource = "/";
-		if(cloneURL.startsWith(GITHUB_URL)) {
-			downloadResource = "/archive/";
-		}
-		else if(cloneURL.startsWith(BITBUCKET_URL)) {
-			downloadResource = "/get/";
-		}
-		String downloadLink = cloneURL.substring(0, indexOfDotGit) + downloadResource + commitId + ".zip";
-		return downloadLink;
-	}
-}
+package org.refactoringminer.rm1;
+
+import gr.uom.java.xmi.UMLModel;
+import gr.uom.java.xmi.UMLModelASTReader;
+import gr.uom.java.xmi.UMLModelCache;
+import gr.uom.java.xmi.diff.MoveSourceFolderRefactoring;
+import gr.uom.java.xmi.diff.MovedClassToAnotherSourceFolder;
+import gr.uom.java.xmi.diff.RenamePattern;
+import gr.uom.java.xmi.diff.StringDistance;
+import gr.uom.java.xmi.diff.UMLModelDiff;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.tuple.Pair;
+import org.eclipse.jgit.errors.MissingObjectException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevTree;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.PathFilterGroup;
+import org.kohsuke.github.GHCommit;
+import org.kohsuke.github.GHPullRequest;
+import org.kohsuke.github.GHPullRequestCommitDetail;
+import org.kohsuke.github.GHRepository;
+import org.kohsuke.github.GHRepositoryWrapper;
+import org.kohsuke.github.GHTree;
+import org.kohsuke.github.GHTreeEntry;
+import org.kohsuke.github.GitHub;
+import org.kohsuke.github.PagedIterable;
+import org.refactoringminer.api.Churn;
+import org.refactoringminer.api.GitHistoryRefactoringMiner;
+import org.refactoringminer.api.GitService;
+import org.refactoringminer.api.Refactoring;
+import org.refactoringminer.api.RefactoringHandler;
+import org.refactoringminer.api.RefactoringMinerTimedOutException;
+import org.refactoringminer.api.RefactoringType;
+import org.refactoringminer.util.BlobLoader;
+import org.refactoringminer.util.Deadline;
+import org.refactoringminer.util.DirectoryIndex;
+import org.refactoringminer.util.DirectoryIndexCache;
+import org.refactoringminer.util.GitServiceImpl;
+import org.refactoringminer.util.ModelReuseWindow;
+import org.refactoringminer.util.ProgressStore;
+import org.refactoringminer.util.RemoteFileFetcher;
+import org.refactoringminer.util.RepositoryReader;
+import org.refactoringminer.util.ResultStore;
+import org.refactoringminer.util.StringInterner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class GitHistoryRefactoringMinerImpl implements GitHistoryRefactoringMiner {
+
+	private final static Logger logger = LoggerFactory.getLogger(GitHistoryRefactoringMinerImpl.class);
+	private Set<RefactoringType> refactoringTypesToConsider = null;
+	private GitHub gitHub;
+	private int commitWorkers = 1;
+	private boolean orderedHandling = true;
+	private int commitTimeout = 0;
+	private int parserThreads = 1;
+	private int classDiffThreads = 1;
+	private UMLModelCache modelCache;
+	private boolean reuseModels = false;
+	private BlobLoader blobLoader = new BlobLoader(0);
+	private final DirectoryIndexCache directoryIndexCache = new DirectoryIndexCache(4);
+	private ProgressStore progressStore;
+	private boolean retryFailedCommits;
+	private ResultStore resultStore;
+	private RemoteFileFetcher remoteFileFetcher = RemoteFileFetcher.getShared();
+	
+	public GitHistoryRefactoringMinerImpl() {
+		this.setRefactoringTypesToConsider(RefactoringType.ALL);
+	}
+
+	public void setRefactoringTypesToConsider(RefactoringType ... types) {
+		this.refactoringTypesToConsider = new HashSet<RefactoringType>();
+		for (RefactoringType type : types) {
+			this.refactoringTypesToConsider.add(type);
+		}
+	}
+
+	public Set<RefactoringType> getRefactoringTypesToConsider() {
+		return Collections.unmodifiableSet(refactoringTypesToConsider);
+	}
+	
+	/**
+	 * Sets the number of worker threads used to analyze commits when walking a commit history
+	 * (detectAll, detectBetweenTags, detectBetweenCommits, fetchAndDetectNew), or the commits of a pull request or batch
+	 * fetched from GitHub (detectAtPullRequest, detectAtCommits).
+	 * A value of 1 (default) analyzes the commits sequentially in the calling thread.
+	 * 
+	 * @param commitWorkers The number of commits analyzed concurrently.
+	 */
+	public void setCommitWorkers(int commitWorkers) {
+		if (commitWorkers < 1) {
+			throw new IllegalArgumentException("The number of commit workers must be positive");
+		}
+		this.commitWorkers = commitWorkers;
+	}
+
+	/**
+	 * When commits are analyzed in parallel, controls whether {@link RefactoringHandler#handle(String, List)} is
+	 * called in the order the commits are returned by the history walk (default), or as soon as each commit completes.
+	 * In both cases the handler callbacks are always invoked from the thread that started the history walk.
+	 * 
+	 * @param orderedHandling True to report the commits in walk order, false to report them in completion order.
+	 */
+	public void setOrderedHandling(boolean orderedHandling) {
+		this.orderedHandling = orderedHandling;
+	}
+
+	/**
+	 * Sets a time budget for the analysis of each commit when walking a commit history.
+	 * The budget covers parsing and diffing; a commit exceeding it is reported through
+	 * {@link RefactoringHandler#handleException(String, Exception)} with a {@link RefactoringMinerTimedOutException}
+	 * and the walk continues with the next commit. A value of 0 (default) means no time limit.
+	 * 
+	 * @param commitTimeout The time budget of each commit in seconds.
+	 */
+	public void setCommitTimeout(int commitTimeout) {
+		if (commitTimeout < 0) {
+			throw new IllegalArgumentException("The commit timeout must not be negative");
+		}
+		this.commitTimeout = commitTimeout;
+	}
+
+	/**
+	 * Sets the number of threads used to parse the Java files of each analyzed revision.
+	 * A value of 1 (default) parses the files sequentially. The models built are the same in both cases.
+	 * 
+	 * @param parserThreads The number of files parsed concurrently.
+	 */
+	public void setParserThreads(int parserThreads) {
+		if (parserThreads < 1) {
+			throw new IllegalArgumentException("The number of parser threads must be positive");
+		}
+		this.parserThreads = parserThreads;
+	}
+
+	/**
+	 * Sets the number of threads used to process the diffs of the classes that exist in both revisions of a commit,
+	 * and of the classes moved or renamed in it. A value of 1 (default) processes them sequentially.
+	 * The detected refactorings do not depend on the number of threads.
+	 * 
+	 * @param classDiffThreads The number of class diffs processed concurrently.
+	 */
+	public void setClassDiffThreads(int classDiffThreads) {
+		if (classDiffThreads < 1) {
+			throw new IllegalArgumentException("The number of class diff threads must be positive");
+		}
+		this.classDiffThreads = classDiffThreads;
+	}
+
+	/**
+	 * Sets a cache of the parsed files, keyed by their path and git blob id, so that a file that is unchanged
+	 * between the analyzed revisions is parsed only once. Use a {@link org.refactoringminer.util.ParsedFileCache}
+	 * with a directory to also reuse the parsed files across runs on the same repository.
+	 * 
+	 * @param modelCache The cache of the parsed files, or null (default) to parse every file of every revision.
+	 */
+	public void setModelCache(UMLModelCache modelCache) {
+		this.modelCache = modelCache;
+	}
+
+	/**
+	 * When commits are analyzed sequentially, controls whether the files parsed for a commit are kept and reused
+	 * by the next commit of the history walk or of detectAtCommits, if they have the same path and blob id (default false).
+	 * In a first-parent linear history, the parent side of a commit is mostly the current side of the next one.
+	 * The refactorings handed to the handler refer to the reused classes and code fragments, whose state is reset
+	 * and computed again by the next commit, so the refactorings of a commit should be consumed when it is handled.
+	 * 
+	 * @param reuseModels True to reuse the parsed files of the previous commit, false to parse every commit from scratch.
+	 */
+	public void setReuseModels(boolean reuseModels) {
+		this.reuseModels = reuseModels;
+	}
+
+	/**
+	 * Sets the maximum size of the files loaded from the repository. Larger files, such as generated sources,
+	 * are left out of the analysis as if they did not exist, and so are binary files.
+	 * 
+	 * @param maxFileSize The maximum size in bytes of an analyzed file, or 0 (default) to analyze files of any size.
+	 */
+	public void setMaxFileSize(long maxFileSize) {
+		if (maxFileSize < 0) {
+			throw new IllegalArgumentException("The maximum file size must not be negative");
+		}
+		this.blobLoader = new BlobLoader(maxFileSize);
+	}
+
+	/**
+	 * Sets a store recording the commits analyzed by the history walks of this miner. The commits found in the store,
+	 * including those analyzed by previous runs, are skipped, so that an interrupted walk can be resumed where it stopped.
+	 * 
+	 * @param progressStore The store of the analyzed commits, or null (default) to analyze every commit of the walk.
+	 */
+	public void setProgressStore(ProgressStore progressStore) {
+		this.progressStore = progressStore;
+	}
+
+	/**
+	 * Sets whether the history walks analyze again the commits whose analysis failed in a previous run,
+	 * as recorded in the progress store.
+	 * 
+	 * @param retryFailedCommits True to analyze them again, or false (default) to skip them like the analyzed commits.
+	 */
+	public void setRetryFailedCommits(boolean retryFailedCommits) {
+		this.retryFailedCommits = retryFailedCommits;
+	}
+
+	/**
+	 * Sets a store where the refactorings detected by the history walks of this miner are written as each commit
+	 * is handled, so that they can be queried by commit, refactoring type and involved class without mining again.
+	 * 
+	 * @param resultStore The store of the detected refactorings, or null (default) to only pass them to the handler.
+	 */
+	public void setResultStore(ResultStore resultStore) {
+		this.resultStore = resultStore;
+	}
+
+	/**
+	 * Sets the fetcher downloading the files of the commits analyzed with the GitHub API
+	 * (detectAtCommit, detectAtCommits and detectAtPullRequest with a git URL).
+	 * 
+	 * @param remoteFileFetcher The fetcher, by default the one shared by all the miners of the process.
+	 */
+	public void setRemoteFileFetcher(RemoteFileFetcher remoteFileFetcher) {
+		if (remoteFileFetcher == null) {
+			throw new IllegalArgumentException("The remote file fetcher must not be null");
+		}
+		this.remoteFileFetcher = remoteFileFetcher;
+	}
+
+	private boolean isRecordedAsAnalyzed(RevCommit commit) {
+		if (progressStore == null) {
+			return false;
+		}
+		String commitId = commit.getId().getName();
+		return progressStore.isAnalyzed(commitId) || (!retryFailedCommits && progressStore.isFailed(commitId));
+	}
+
+	private void recordProgress(String commitId, List<Refactoring> refactorings, Exception exception) {
+		//the results are stored first, as the store ignores the commits stored by an interrupted run
+		if (resultStore != null && exception == null) {
+			try {
+				resultStore.add(commitId, refactorings);
+			} catch (IOException e) {
+				//not recorded as analyzed, so that a resumed walk stores them
+				logger.warn(String.format("Could not store the refactorings of revision %s", commitId), e);
+				return;
+			}
+		}
+		if (progressStore != null) {
+			try {
+				if (exception == null) {
+					progressStore.recordAnalyzed(commitId, refactorings.size());
+				}
+				else {
+					progressStore.recordFailed(commitId);
+				}
+			} catch (IOException e) {
+				logger.warn(String.format("Could not record the progress of revision %s", commitId), e);
+			}
+		}
+	}
+
+	private void detect(GitService gitService, Repository repository, final RefactoringHandler handler, Iterator<RevCommit> i) {
+		//a subclass analyzing the commits on its own is called for every commit, in the calling thread
+		boolean commitAnalysisOverridden = overridesDetectRefactorings();
+		if (commitWorkers > 1 && !commitAnalysisOverridden) {
+			detectInParallel(gitService, repository, handler, i);
+			return;
+		}
+		int commitsCount = 0;
+		int errorCommitsCount = 0;
+		int refactoringsCount = 0;
+
+		File metadataFolder = repository.getDirectory();
+		File projectFolder = metadataFolder.getParentFile();
+		String projectName = projectFolder.getName();
+		
+		ModelReuseWindow reuseWindow = reuseModels ? new ModelReuseWindow(modelCache) : null;
+		long time = System.currentTimeMillis();
+		try (RepositoryReader repositoryReader = new RepositoryReader(repository)) {
+			while (i.hasNext()) {
+				RevCommit currentCommit = i.next();
+				if (isRecordedAsAnalyzed(currentCommit)) {
+					continue;
+				}
+				try {
+					List<Refactoring> refactoringsAtRevision = commitAnalysisOverridden ?
+							detectRefactorings(gitService, repository, handler, currentCommit) :
+							detectRefactorings(gitService, repositoryReader, handler, currentCommit, reuseWindow != null ? reuseWindow : modelCache);
+					refactoringsCount += refactoringsAtRevision.size();
+					recordProgress(currentCommit.getId().getName(), refactoringsAtRevision, null);
+				} catch (RefactoringMinerTimedOutException e) {
+					if (Thread.currentThread().isInterrupted()) {
+						//the walk is stopped, and the commit is left unrecorded so that a resumed walk analyzes it
+						logger.warn(String.format("Interrupted while analyzing revision %s", currentCommit.getId().getName()));
+						break;
+					}
+					logger.warn(String.format("Ignored revision %s due to timeout", currentCommit.getId().getName()));
+					recordProgress(currentCommit.getId().getName(), null, e);
+					handler.handleException(currentCommit.getId().getName(),e);
+					errorCommitsCount++;
+				} catch (Exception e) {
+					logger.warn(String.format("Ignored revision %s due to error", currentCommit.getId().getName()), e);
+					recordProgress(currentCommit.getId().getName(), null, e);
+					handler.handleException(currentCommit.getId().getName(),e);
+					errorCommitsCount++;
+				}
+				if (reuseWindow != null) {
+					reuseWindow.advance();
+				}
+	
+				commitsCount++;
+				long time2 = System.currentTimeMillis();
+				if ((time2 - time) > 20000) {
+					time = time2;
+					logger.info(String.format("Processing %s [Commits: %d, Errors: %d, Refactorings: %d]", projectName, commitsCount, errorCommitsCount, refactoringsCount));
+				}
+			}
+		}
+
+		handler.onFinish(refactoringsCount, commitsCount, errorCommitsCount);
+		logger.info(String.format("Analyzed %s [Commits: %d, Errors: %d, Refactorings: %d]", projectName, commitsCount, errorCommitsCount, refactoringsCount));
+	}
+
+	private void detectInParallel(GitService gitService, Repository repository, final RefactoringHandler handler, Iterator<RevCommit> i) {
+		int commitsCount = 0;
+		int errorCommitsCount = 0;
+		int refactoringsCount = 0;
+
+		File metadataFolder = repository.getDirectory();
+		File projectFolder = metadataFolder.getParentFile();
+		String projectName = projectFolder.getName();
+
+		//the walk is consumed by the calling thread, while at most maxPendingCommits commits are in flight
+		int maxPendingCommits = 2 * commitWorkers;
+		ExecutorService pool = Executors.newFixedThreadPool(commitWorkers);
+		CompletionService<CommitResult> completionService = new ExecutorCompletionService<CommitResult>(pool);
+		Deque<Future<CommitResult>> pendingCommits = new ArrayDeque<Future<CommitResult>>();
+		//a worker takes a reader from the queue for each commit, so there are at most commitWorkers readers
+		Queue<RepositoryReader> repositoryReaders = new ConcurrentLinkedQueue<RepositoryReader>();
+		long time = System.currentTimeMillis();
+		try {
+			while (i.hasNext() || !pendingCommits.isEmpty()) {
+				if (i.hasNext() && pendingCommits.size() < maxPendingCommits) {
+					RevCommit nextCommit = i.next();
+					if (isRecordedAsAnalyzed(nextCommit)) {
+						continue;
+					}
+					final ObjectId commitId = nextCommit.getId().copy();
+					Callable<CommitResult> task = () -> analyzeCommit(gitService, repository, repositoryReaders, commitId);
+					pendingCommits.addLast(orderedHandling ? pool.submit(task) : completionService.submit(task));
+					continue;
+				}
+				CommitResult result;
+				if (orderedHandling) {
+					Future<CommitResult> head = pendingCommits.removeFirst();
+					result = head.get();
+				}
+				else {
+					Future<CommitResult> completed = completionService.take();
+					pendingCommits.remove(completed);
+					result = completed.get();
+				}
+				if (result.getException() == null) {
+					try {
+						handler.handle(result.getCommitId(), result.getRefactorings());
+						refactoringsCount += result.getRefactorings().size();
+						recordProgress(result.getCommitId(), result.getRefactorings(), null);
+					} catch (Exception e) {
+						logger.warn(String.format("Ignored revision %s due to error", result.getCommitId()), e);
+						recordProgress(result.getCommitId(), null, e);
+						handler.handleException(result.getCommitId(), e);
+						errorCommitsCount++;
+					}
+				}
+				else {
+					logger.warn(String.format("Ignored revision %s due to error", result.getCommitId()), result.getException());
+					recordProgress(result.getCommitId(), null, result.getException());
+					handler.handleException(result.getCommitId(), result.getException());
+					errorCommitsCount++;
+				}
+
+				commitsCount++;
+				long time2 = System.currentTimeMillis();
+				if ((time2 - time) > 20000) {
+					time = time2;
+					logger.info(String.format("Processing %s [Commits: %d, Errors: %d, Refactorings: %d]", projectName, commitsCount, errorCommitsCount, refactoringsCount));
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			logger.warn(String.format("Interrupted while analyzing %s", projectName), e);
+		} catch (ExecutionException e) {
+			//analyzeCommit captures all exceptions, so this can only be an unexpected error
+			throw new RuntimeException(e.getCause());
+		} finally {
+			pool.shutdownNow();
+			try {
+				pool.awaitTermination(1, TimeUnit.MINUTES);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			for (RepositoryReader repositoryReader : repositoryReaders) {
+				repositoryReader.close();
+			}
+		}
+
+		handler.onFinish(refactoringsCount, commitsCount, errorCommitsCount);
+		logger.info(String.format("Analyzed %s [Commits: %d, Errors: %d, Refactorings: %d]", projectName, commitsCount, errorCommitsCount, refactoringsCount));
+	}
+
+	private CommitResult analyzeCommit(GitService gitService, Repository repository, Queue<RepositoryReader> repositoryReaders, ObjectId commitId) {
+		String commitName = commitId.getName();
+		RepositoryReader repositoryReader = repositoryReaders.poll();
+		if (repositoryReader == null) {
+			repositoryReader = new RepositoryReader(repository);
+		}
+		//RevWalk is not thread-safe, so every worker parses the commit and its parent with its own walk, sharing the reader of the worker
+		try (RevWalk walk = new RevWalk(repositoryReader.getObjectReader())) {
+			RevCommit currentCommit = walk.parseCommit(commitId);
+			if (currentCommit.getParentCount() > 0) {
+				walk.parseHeaders(currentCommit.getParent(0));
+			}
+			return new CommitResult(commitName, computeRefactorings(gitService, repositoryReader, currentCommit, modelCache), null);
+		} catch (Exception e) {
+			return new CommitResult(commitName, Collections.emptyList(), e);
+		} finally {
+			repositoryReaders.offer(repositoryReader);
+		}
+	}
+
+	private static class CommitResult {
+		private final String commitId;
+		private final List<Refactoring> refactorings;
+		private final Exception exception;
+
+		public CommitResult(String commitId, List<Refactoring> refactorings, Exception exception) {
+			this.commitId = commitId;
+			this.refactorings = refactorings;
+			this.exception = exception;
+		}
+
+		public String getCommitId() {
+			return commitId;
+		}
+
+		public List<Refactoring> getRefactorings() {
+			return refactorings;
+		}
+
+		public Exception getException() {
+			return exception;
+		}
+	}
+
+	/**
+	 * Detects the refactorings at a commit and reports them to the handler. When this method is overridden, the history
+	 * walks call it for every commit in the calling thread, instead of sharing a repository reader and the parsed models
+	 * between commits or analyzing them in the commit workers.
+	 */
+	protected List<Refactoring> detectRefactorings(GitService gitService, Repository repository, final RefactoringHandler handler, RevCommit currentCommit) throws Exception {
+		return detectRefactorings(gitService, repository, handler, currentCommit, modelCache);
+	}
+
+	private boolean overridesDetectRefactorings() {
+		for (Class<?> type = getClass(); type != GitHistoryRefactoringMinerImpl.class; type = type.getSuperclass()) {
+			try {
+				type.getDeclaredMethod("detectRefactorings", GitService.class, Repository.class, RefactoringHandler.class, RevCommit.class);
+				return true;
+			} catch (NoSuchMethodException e) {
+				//not overridden at this level of the hierarchy
+			}
+		}
+		return false;
+	}
+
+	protected List<Refactoring> detectRefactorings(GitService gitService, Repository repository, final RefactoringHandler handler, RevCommit currentCommit, UMLModelCache modelCache) throws Exception {
+		try (RepositoryReader repositoryReader = new RepositoryReader(repository)) {
+			return detectRefactorings(gitService, repositoryReader, handler, currentCommit, modelCache);
+		}
+	}
+
+	private List<Refactoring> detectRefactorings(GitService gitService, RepositoryReader repositoryReader, final RefactoringHandler handler, RevCommit currentCommit, UMLModelCache modelCache) throws Exception {
+		String commitId = currentCommit.getId().getName();
+		List<Refactoring> refactoringsAtRevision = computeRefactorings(gitService, repositoryReader, currentCommit, modelCache);
+		handler.handle(commitId, refactoringsAtRevision);
+		return refactoringsAtRevision;
+	}
+
+	private List<Refactoring> computeRefactorings(GitService gitService, RepositoryReader repositoryReader, RevCommit currentCommit, UMLModelCache modelCache) throws Exception {
+		List<Refactoring> refactoringsAtRevision;
+		Set<String> filePathsBefore = new LinkedHashSet<String>();
+		Set<String> filePathsCurrent = new LinkedHashSet<String>();
+		Map<String, String> renamedFilesHint = new HashMap<String, String>();
+		//the timeout covers the whole analysis of the commit, from the diff of its tree to the diff of its models
+		Deadline deadline = Deadline.after(commitTimeout, TimeUnit.SECONDS);
+		gitService.fileTreeDiff(repositoryReader, currentCommit, filePathsBefore, filePathsCurrent, renamedFilesHint);
+		
+		Set<String> repositoryDirectoriesBefore = new LinkedHashSet<String>();
+		Set<String> repositoryDirectoriesCurrent = new LinkedHashSet<String>();
+		Map<String, String> fileContentsBefore = new LinkedHashMap<String, String>();
+		Map<String, String> fileContentsCurrent = new LinkedHashMap<String, String>();
+		Map<String, String> contentIdsBefore = new HashMap<String, String>();
+		Map<String, String> contentIdsCurrent = new HashMap<String, String>();
+		// If no java files changed, there is no refactoring. Also, if there are
+		// only ADD's or only REMOVE's there is no refactoring
+		if (!filePathsBefore.isEmpty() && !filePathsCurrent.isEmpty() && currentCommit.getParentCount() > 0) {
+			RevCommit parentCommit = currentCommit.getParent(0);
+			populateFileContents(repositoryReader, parentCommit, filePathsBefore, fileContentsBefore, repositoryDirectoriesBefore, contentIdsBefore, blobLoader, directoryIndexCache);
+			populateFileContents(repositoryReader, currentCommit, filePathsCurrent, fileContentsCurrent, repositoryDirectoriesCurrent, contentIdsCurrent, blobLoader, directoryIndexCache);
+			List<MoveSourceFolderRefactoring> moveSourceFolderRefactorings = processIdenticalFiles(fileContentsBefore, fileContentsCurrent, renamedFilesHint);
+			StringInterner interner = new StringInterner();
+			UMLModel parentUMLModel = createModel(fileContentsBefore, repositoryDirectoriesBefore, parserThreads, contentIdsBefore, modelCache, interner, deadline);
+			deadline.check();
+			UMLModel currentUMLModel = createModel(fileContentsCurrent, repositoryDirectoriesCurrent, parserThreads, contentIdsCurrent, modelCache, interner, deadline);
+			deadline.check();
+			
+			UMLModelDiff modelDiff = parentUMLModel.diff(currentUMLModel, deadline, classDiffThreads);
+			refactoringsAtRevision = modelDiff.getRefactorings();
+			refactoringsAtRevision.addAll(moveSourceFolderRefactorings);
+			refactoringsAtRevision = filter(refactoringsAtRevision);
+		} else {
+			//logger.info(String.format("Ignored revision %s with no changes in java files", commitId));
+			refactoringsAtRevision = Collections.emptyList();
+		}
+		return refactoringsAtRevision;
+	}
+
+	public static List<MoveSourceFolderRefactoring> processIdenticalFiles(Map<String, String> fileContentsBefore, Map<String, String> fileContentsCurrent,
+			Map<String, String> renamedFilesHint) throws IOException {
+		Map<String, String> identicalFiles = new HashMap<String, String>();
+		Map<Pair<String, String>, Integer> consistentSourceFolderChanges = new HashMap<>();
+		Map<String, String> nonIdenticalFiles = new HashMap<String, String>();
+		for(String key : fileContentsBefore.keySet()) {
+			//take advantage of renamed file hints, if available
+			if(renamedFilesHint.containsKey(key)) {
+				String renamedFile = renamedFilesHint.get(key);
+				String fileBefore = fileContentsBefore.get(key);
+				String fileAfter = fileContentsCurrent.get(renamedFile);
+				if(fileBefore.equals(fileAfter) || StringDistance.trivialCommentChange(fileBefore, fileAfter)) {
+					identicalFiles.put(key, renamedFile);
+					if(key.contains("/") && renamedFile.contains("/")) {
+						String prefix1 = key.substring(0, key.indexOf("/"));
+						String prefix2 = renamedFile.substring(0, renamedFile.indexOf("/"));
+						Pair<String, String> p = Pair.of(prefix1, prefix2);
+						if(consistentSourceFolderChanges.containsKey(p)) {
+							consistentSourceFolderChanges.put(p, consistentSourceFolderChanges.get(p) + 1);
+						}
+						else {
+							consistentSourceFolderChanges.put(p, 1);
+						}
+					}
+				}
+				else {
+					nonIdenticalFiles.put(key, renamedFile);
+				}
+			}
+			if(fileContentsCurrent.containsKey(key)) {
+				String fileBefore = fileContentsBefore.get(key);
+				String fileAfter = fileContentsCurrent.get(key);
+				if(fileBefore.equals(fileAfter) || StringDistance.trivialCommentChange(fileBefore, fileAfter)) {
+					identicalFiles.put(key, key);
+				}
+				else {
+					nonIdenticalFiles.put(key, key);
+				}
+			}
+		}
+		fileContentsBefore.keySet().removeAll(identicalFiles.keySet());
+		fileContentsCurrent.keySet().removeAll(identicalFiles.values());
+		//second iteration to find renamed/moved files with identical contents
+		for(String key1 : fileContentsBefore.keySet()) {
+			if(!identicalFiles.containsKey(key1) && !nonIdenticalFiles.containsKey(key1)) {
+				String prefix1 = key1.substring(0, key1.indexOf("/"));
+				String fileBefore = fileContentsBefore.get(key1);
+				boolean matchWithConsistentSourceFolderChangeFound = false;
+				List<String> matches = new ArrayList<String>();
+				for(String key2 : fileContentsCurrent.keySet()) {
+					if(!identicalFiles.containsValue(key2) && !nonIdenticalFiles.containsValue(key2)) {
+						String prefix2 = key2.substring(0, key2.indexOf("/"));
+						String fileAfter = fileContentsCurrent.get(key2);
+						if(fileBefore.equals(fileAfter) || StringDistance.trivialCommentChange(fileBefore, fileAfter)) {
+							if(consistentSourceFolderChanges.containsKey(Pair.of(prefix1, prefix2))) {
+								identicalFiles.put(key1, key2);
+								matchWithConsistentSourceFolderChangeFound = true;
+								break;
+							}
+							else {
+								matches.add(key2);
+							}
+						}
+					}
+				}
+				if(!matchWithConsistentSourceFolderChangeFound) {
+					if(matches.size() == 1) {
+						identicalFiles.put(key1, matches.get(0));
+					}
+					else if(matches.size() > 1) {
+						int minEditDistance = key1.length();
+						String bestMatch = null;
+						for(int i=0; i< matches.size(); i++) {
+							String key2 = matches.get(i);
+							int editDistance = StringDistance.editDistance(key1, key2);
+							if(editDistance < minEditDistance) {
+								minEditDistance = editDistance;
+								bestMatch = key2;
+							}
+						}
+						if(bestMatch != null) {
+							identicalFiles.put(key1, bestMatch);
+						}
+					}
+				}
+			}
+		}
+		fileContentsBefore.keySet().removeAll(identicalFiles.keySet());
+		fileContentsCurrent.keySet().removeAll(identicalFiles.values());
+		
+		List<MoveSourceFolderRefactoring> moveSourceFolderRefactorings = new ArrayList<MoveSourceFolderRefactoring>();
+		for(String key : identicalFiles.keySet()) {
+			String originalPath = key;
+			String movedPath = identicalFiles.get(key);
+			String originalPathPrefix = "";
+			if(originalPath.contains("/")) {
+				originalPathPrefix = originalPath.substring(0, originalPath.lastIndexOf('/'));
+			}
+			String movedPathPrefix = "";
+			if(movedPath.contains("/")) {
+				movedPathPrefix = movedPath.substring(0, movedPath.lastIndexOf('/'));
+			}
+			if(!originalPathPrefix.equals(movedPathPrefix) && !key.endsWith("package-info.java")) {
+				MovedClassToAnotherSourceFolder refactoring = new MovedClassToAnotherSourceFolder(null, null, originalPathPrefix, movedPathPrefix);
+				RenamePattern renamePattern = refactoring.getRenamePattern();
+				boolean foundInMatchingMoveSourceFolderRefactoring = false;
+				for(MoveSourceFolderRefactoring moveSourceFolderRefactoring : moveSourceFolderRefactorings) {
+					if(moveSourceFolderRefactoring.getPattern().equals(renamePattern)) {
+						moveSourceFolderRefactoring.putIdenticalFilePaths(originalPath, movedPath);
+						foundInMatchingMoveSourceFolderRefactoring = true;
+						break;
+					}
+				}
+				if(!foundInMatchingMoveSourceFolderRefactoring) {
+					MoveSourceFolderRefactoring moveSourceFolderRefactoring = new MoveSourceFolderRefactoring(renamePattern);
+					moveSourceFolderRefactoring.putIdenticalFilePaths(originalPath, movedPath);
+					moveSourceFolderRefactorings.add(moveSourceFolderRefactoring);
+				}
+			}
+		}
+		return moveSourceFolderRefactorings;
+	}
+
+	public static void populateFileContents(Repository repository, RevCommit commit,
+			Set<String> filePaths, Map<String, String> fileContents, Set<String> repositoryDirectories) throws Exception {
+		populateFileContents(repository, commit, filePaths, fileContents, repositoryDirectories, null);
+	}
+
+	/**
+	 * @param contentIds If not null, it is populated with the blob id of each file in {@code fileContents}.
+	 */
+	public static void populateFileContents(Repository repository, RevCommit commit,
+			Set<String> filePaths, Map<String, String> fileContents, Set<String> repositoryDirectories, Map<String, String> contentIds) throws Exception {
+		try (RepositoryReader repositoryReader = new RepositoryReader(repository)) {
+			populateFileContents(repositoryReader, commit, filePaths, fileContents, repositoryDirectories, contentIds, new BlobLoader(0), null);
+		}
+	}
+
+	/**
+	 * @param contentIds If not null, it is populated with the blob id of each file in {@code fileContents}.
+	 * @param blobLoader The loader of the file contents. The skipped files are not added to {@code fileContents}.
+	 * @param directoryIndexCache The cache of the repository directories of each tree, or null to index the tree of the commit.
+	 */
+	public static void populateFileContents(RepositoryReader repositoryReader, RevCommit commit,
+			Set<String> filePaths, Map<String, String> fileContents, Set<String> repositoryDirectories, Map<String, String> contentIds,
+			BlobLoader blobLoader, DirectoryIndexCache directoryIndexCache) throws Exception {
+		logger.info("Processing {} {} ...", repositoryReader.getRepository().getDirectory().getParent().toString(), commit.getName());
+		RevTree tree = commit.getTree();
+		ObjectReader reader = repositoryReader.getObjectReader();
+		if(!filePaths.isEmpty()) {
+			try (TreeWalk treeWalk = new TreeWalk(reader)) {
+				treeWalk.addTree(tree);
+				treeWalk.setRecursive(true);
+				treeWalk.setFilter(PathFilterGroup.createFromStrings(filePaths));
+				while (treeWalk.next()) {
+					String pathString = treeWalk.getPathString();
+					if(filePaths.contains(pathString)) {
+						ObjectId objectId = treeWalk.getObjectId(0);
+						String contents = blobLoader.load(reader, objectId, pathString);
+						if(contents != null) {
+							fileContents.put(pathString, contents);
+							if(contentIds != null) {
+								contentIds.put(pathString, objectId.getName());
+							}
+						}
+					}
+				}
+			}
+		}
+		DirectoryIndex directoryIndex = directoryIndexCache != null ? directoryIndexCache.get(reader, tree) : DirectoryIndex.build(reader, tree);
+		repositoryDirectories.addAll(directoryIndex.getDirectories());
+	}
+
+	protected List<Refactoring> detectRefactorings(final RefactoringHandler handler, File projectFolder, String cloneURL, String currentCommitId) {
+		List<Refactoring> refactoringsAtRevision = Collections.emptyList();
+		try {
+			ChangedFileInfo changedFileInfo = populateWithGitHubAPI(projectFolder, cloneURL, currentCommitId);
+			String parentCommitId = changedFileInfo.getParentCommitId();
+			List<String> filesBefore = changedFileInfo.getFilesBefore();
+			List<String> filesCurrent = changedFileInfo.getFilesCurrent();
+			Map<String, String> renamedFilesHint = changedFileInfo.getRenamedFilesHint();
+			File currentFolder = new File(projectFolder.getParentFile(), projectFolder.getName() + "-" + currentCommitId);
+			File parentFolder = new File(projectFolder.getParentFile(), projectFolder.getName() + "-" + parentCommitId);
+			if (!currentFolder.exists()) {	
+				downloadAndExtractZipFile(projectFolder, cloneURL, currentCommitId);
+			}
+			if (!parentFolder.exists()) {	
+				downloadAndExtractZipFile(projectFolder, cloneURL, parentCommitId);
+			}
+			Set<String> repositoryDirectoriesBefore = new LinkedHashSet<String>();
+			Set<String> repositoryDirectoriesCurrent = new LinkedHashSet<String>();
+			Map<String, String> fileContentsBefore = new LinkedHashMap<String, String>();
+			Map<String, String> fileContentsCurrent = new LinkedHashMap<String, String>();
+			if (currentFolder.exists() && parentFolder.exists()) {
+				populateFileContents(currentFolder, filesCurrent, fileContentsCurrent, repositoryDirectoriesCurrent);
+				populateFileContents(parentFolder, filesBefore, fileContentsBefore, repositoryDirectoriesBefore);
+				List<MoveSourceFolderRefactoring> moveSourceFolderRefactorings = processIdenticalFiles(fileContentsBefore, fileContentsCurrent, renamedFilesHint); 
+				UMLModel parentUMLModel = createModel(fileContentsBefore, repositoryDirectoriesBefore, parserThreads);
+				UMLModel currentUMLModel = createModel(fileContentsCurrent, repositoryDirectoriesCurrent, parserThreads);
+				// Diff between currentModel e parentModel
+				UMLModelDiff modelDiff = parentUMLModel.diff(currentUMLModel, Deadline.NONE, classDiffThreads);
+				refactoringsAtRevision = modelDiff.getRefactorings();
+				refactoringsAtRevision.addAll(moveSourceFolderRefactorings);
+				refactoringsAtRevision = filter(refactoringsAtRevision);
+			}
+			else {
+				logger.warn(String.format("Folder %s not found", currentFolder.getPath()));
+			}
+		} catch (Exception e) {
+			logger.warn(String.format("Ignored revision %s due to error", currentCommitId), e);
+			handler.handleException(currentCommitId, e);
+		}
+		handler.handle(currentCommitId, refactoringsAtRevision);
+
+		return refactoringsAtRevision;
+	}
+
+	private void populateFileContents(File projectFolder, List<String> filePaths, Map<String, String> fileContents,	Set<String> repositoryDirectories) throws IOException {
+		for(String path : filePaths) {
+			String fullPath = projectFolder + File.separator + path.replaceAll("/", systemFileSeparator);
+			String contents = FileUtils.readFileToString(new File(fullPath));
+			fileContents.put(path, contents);
+			String directory = new String(path);
+			while(directory.contains("/")) {
+				directory = directory.substring(0, directory.lastIndexOf("/"));
+				repositoryDirectories.add(directory);
+			}
+		}
+	}
+
+	private void downloadAndExtractZipFile(File projectFolder, String cloneURL, String commitId)
+			throws IOException {
+		String downloadLink = extractDownloadLink(cloneURL, commitId);
+		File destinationFile = new File(projectFolder.getParentFile(), projectFolder.getName() + "-" + commitId + ".zip");
+		logger.info(String.format("Downloading archive %s", downloadLink));
+		FileUtils.copyURLToFile(new URL(downloadLink), destinationFile);
+		logger.info(String.format("Unzipping archive %s", downloadLink));
+		java.util.zip.ZipFile zipFile = new ZipFile(destinationFile);
+		try {
+			Enumeration<? extends ZipEntry> entries = zipFile.entries();
+			while (entries.hasMoreElements()) {
+				ZipEntry entry = entries.nextElement();
+				File entryDestination = new File(projectFolder.getParentFile(),  entry.getName());
+				if (entry.isDirectory()) {
+					entryDestination.mkdirs();
+				} else {
+					entryDestination.getParentFile().mkdirs();
+					InputStream in = zipFile.getInputStream(entry);
+					OutputStream out = new FileOutputStream(entryDestination);
+					IOUtils.copy(in, out);
+					IOUtils.closeQuietly(in);
+					out.close();
+				}
+			}
+		} finally {
+			zipFile.close();
+		}
+	}
+
+	public static class ChangedFileInfo {
+		private String parentCommitId;
+		private List<String> filesBefore;
+		private List<String> filesCurrent;
+		private Map<String, String> renamedFilesHint;
+
+		public ChangedFileInfo() {
+			
+		}
+
+		public ChangedFileInfo(String parentCommitId, List<String> filesBefore,
+				List<String> filesCurrent, Map<String, String> renamedFilesHint) {
+			this.filesBefore = filesBefore;
+			this.filesCurrent = filesCurrent;
+			this.renamedFilesHint = renamedFilesHint;
+			this.parentCommitId = parentCommitId;
+		}
+
+		public String getParentCommitId() {
+			return parentCommitId;
+		}
+
+		public List<String> getFilesBefore() {
+			return filesBefore;
+		}
+
+		public List<String> getFilesCurrent() {
+			return filesCurrent;
+		}
+
+		public Map<String, String> getRenamedFilesHint() {
+			return renamedFilesHint;
+		}
+	}
+
+	private ChangedFileInfo populateWithGitHubAPI(File projectFolder, String cloneURL, String currentCommitId) throws IOException {
+		logger.info("Processing {} {} ...", cloneURL, currentCommitId);
+		String jsonFilePath = projectFolder.getName() + "-" + currentCommitId + ".json";
+		File jsonFile = new File(projectFolder.getParent(), jsonFilePath);
+		if(jsonFile.exists()) {
+			final ObjectMapper mapper = new ObjectMapper();
+			ChangedFileInfo changedFileInfo = mapper.readValue(jsonFile, ChangedFileInfo.class);
+			return changedFileInfo;
+		}
+		else {
+			GHRepository repository = getGitHubRepository(cloneURL);
+			List<GHCommit.File> commitFiles = new ArrayList<>();
+			GHCommit commit = new GHRepositoryWrapper(repository).getCommit(currentCommitId, commitFiles);
+			String parentCommitId = commit.getParents().get(0).getSHA1();
+			List<String> filesBefore = new ArrayList<String>();
+			List<String> filesCurrent = new ArrayList<String>();
+			Map<String, String> renamedFilesHint = new HashMap<String, String>();
+			for (GHCommit.File commitFile : commitFiles) {
+				if (commitFile.getFileName().endsWith(".java")) {
+					if (commitFile.getStatus().equals("modified")) {
+						filesBefore.add(commitFile.getFileName());
+						filesCurrent.add(commitFile.getFileName());
+					}
+					else if (commitFile.getStatus().equals("added")) {
+						filesCurrent.add(commitFile.getFileName());
+					}
+					else if (commitFile.getStatus().equals("removed")) {
+						filesBefore.add(commitFile.getFileName());
+					}
+					else if (commitFile.getStatus().equals("renamed")) {
+						filesBefore.add(commitFile.getPreviousFilename());
+						filesCurrent.add(commitFile.getFileName());
+						renamedFilesHint.put(commitFile.getPreviousFilename(), commitFile.getFileName());
+					}
+				}
+			}
+			ChangedFileInfo changedFileInfo = new ChangedFileInfo(parentCommitId, filesBefore, filesCurrent, renamedFilesHint);
+			final ObjectMapper mapper = new ObjectMapper();
+			mapper.writeValue(jsonFile, changedFileInfo);
+			return changedFileInfo;
+		}
+	}
+
+	private synchronized GitHub connectToGitHub() {
+		if(gitHub == null) {
+			try {
+				Properties prop = new Properties();
+				InputStream input = new FileInputStream("github-oauth.properties");
+				prop.load(input);
+				String oAuthToken = prop.getProperty("OAuthToken");
+				if (oAuthToken != null) {
+					gitHub = GitHub.connectUsingOAuth(oAuthToken);
+					if(gitHub.isCredentialValid()) {
+						logger.info("Connected to GitHub with OAuth token");
+					}
+				}
+				else {
+					gitHub = GitHub.connect();
+				}
+			} catch(FileNotFoundException e) {
+				logger.warn("File github-oauth.properties was not found in RefactoringMiner's execution directory", e);
+			} catch(IOException ioe) {
+				ioe.printStackTrace();
+			}
+		}
+		return gitHub;
+	}
+
+	protected List<Refactoring> filter(List<Refactoring> refactoringsAtRevision) {
+		if (this.refactoringTypesToConsider == null) {
+			return refactoringsAtRevision;
+		}
+		List<Refactoring> filteredList = new ArrayList<Refactoring>();
+		for (Refactoring ref : refactoringsAtRevision) {
+			if (this.refactoringTypesToConsider.contains(ref.getRefactoringType())) {
+				filteredList.add(ref);
+			}
+		}
+		return filteredList;
+	}
+	
+	@Override
+	public void detectAll(Repository repository, String branch, final RefactoringHandler handler) throws Exception {
+		GitService gitService = new GitServiceImpl() {
+			@Override
+			public boolean isCommitAnalyzed(String sha1) {
+				return handler.skipCommit(sha1);
+			}
+		};
+		RevWalk walk = gitService.createAllRevsWalk(repository, branch);
+		try {
+			detect(gitService, repository, handler, walk.iterator());
+		} finally {
+			walk.dispose();
+		}
+	}
+
+	@Override
+	public void fetchAndDetectNew(Repository repository, final RefactoringHandler handler) throws Exception {
+		GitService gitService = new GitServiceImpl() {
+			@Override
+			public boolean isCommitAnalyzed(String sha1) {
+				return handler.skipCommit(sha1);
+			}
+		};
+		RevWalk walk = gitService.fetchAndCreateNewRevsWalk(repository);
+		try {
+			detect(gitService, repository, handler, walk.iterator());
+		} finally {
+			walk.dispose();
+		}
+	}
+
+	public static UMLModel createModel(Map<String, String> fileContents, Set<String> repositoryDirectories) throws Exception {
+		return new UMLModelASTReader(fileContents, repositoryDirectories).getUmlModel();
+	}
+
+	public static UMLModel createModel(Map<String, String> fileContents, Set<String> repositoryDirectories, int parserThreads) throws Exception {
+		return new UMLModelASTReader(fileContents, repositoryDirectories, parserThreads).getUmlModel();
+	}
+
+	public static UMLModel createModel(Map<String, String> fileContents, Set<String> repositoryDirectories, int parserThreads,
+			Map<String, String> contentIds, UMLModelCache modelCache) throws Exception {
+		return new UMLModelASTReader(fileContents, repositoryDirectories, parserThreads, contentIds, modelCache).getUmlModel();
+	}
+
+	public static UMLModel createModel(Map<String, String> fileContents, Set<String> repositoryDirectories, int parserThreads,
+			Map<String, String> contentIds, UMLModelCache modelCache, StringInterner interner) throws Exception {
+		return new UMLModelASTReader(fileContents, repositoryDirectories, parserThreads, contentIds, modelCache, interner).getUmlModel();
+	}
+
+	public static UMLModel createModel(Map<String, String> fileContents, Set<String> repositoryDirectories, int parserThreads,
+			Map<String, String> contentIds, UMLModelCache modelCache, StringInterner interner, Deadline deadline) throws Exception {
+		return new UMLModelASTReader(fileContents, repositoryDirectories, parserThreads, contentIds, modelCache, interner, deadline).getUmlModel();
+	}
+
+	private static final String systemFileSeparator = Matcher.quoteReplacement(File.separator);
+
+	@Override
+	public void detectAtCommit(Repository repository, String commitId, RefactoringHandler handler) {
+		String cloneURL = repository.getConfig().getString("remote", "origin", "url");
+		File metadataFolder = repository.getDirectory();
+		File projectFolder = metadataFolder.getParentFile();
+		GitService gitService = new GitServiceImpl();
+		RevWalk walk = new RevWalk(repository);
+		try {
+			RevCommit commit = walk.parseCommit(repository.resolve(commitId));
+			if (commit.getParentCount() > 0) {
+				walk.parseCommit(commit.getParent(0));
+				this.detectRefactorings(gitService, repository, handler, commit);
+			}
+			else {
+				logger.warn(String.format("Ignored revision %s because it has no parent", commitId));
+			}
+		} catch (MissingObjectException moe) {
+			this.detectRefactorings(handler, projectFolder, cloneURL, commitId);
+		} catch (RefactoringMinerTimedOutException e) {
+			logger.warn(String.format("Ignored revision %s due to timeout", commitId), e);
+		} catch (Exception e) {
+			logger.warn(String.format("Ignored revision %s due to error", commitId), e);
+			handler.handleException(commitId, e);
+		} finally {
+			walk.close();
+			walk.dispose();
+		}
+	}
+
+	public void detectAtCommit(Repository repository, String commitId, RefactoringHandler handler, int timeout) {
+		ExecutorService service = Executors.newSingleThreadExecutor();
+		Future<?> f = null;
+		try {
+			Runnable r = () -> detectAtCommit(repository, commitId, handler);
+			f = service.submit(r);
+			f.get(timeout, TimeUnit.SECONDS);
+		} catch (TimeoutException e) {
+			f.cancel(true);
+		} catch (ExecutionException e) {
+			e.printStackTrace();
+		} catch (InterruptedException e) {
+			e.printStackTrace();
+		} finally {
+			service.shutdown();
+		}
+	}
+
+	@Override
+	public String getConfigId() {
+	    return "RM1";
+	}
+
+	@Override
+	public void detectBetweenTags(Repository repository, String startTag, String endTag, RefactoringHandler handler)
+			throws Exception {
+		GitService gitService = new GitServiceImpl() {
+			@Override
+			public boolean isCommitAnalyzed(String sha1) {
+				return handler.skipCommit(sha1);
+			}
+		};
+		
+		Iterable<RevCommit> walk = gitService.createRevsWalkBetweenTags(repository, startTag, endTag);
+		detect(gitService, repository, handler, walk.iterator());
+	}
+
+	@Override
+	public void detectBetweenCommits(Repository repository, String startCommitId, String endCommitId,
+			RefactoringHandler handler) throws Exception {
+		GitService gitService = new GitServiceImpl() {
+			@Override
+			public boolean isCommitAnalyzed(String sha1) {
+				return handler.skipCommit(sha1);
+			}
+		};
+		
+		Iterable<RevCommit> walk = gitService.createRevsWalkBetweenCommits(repository, startCommitId, endCommitId);
+		detect(gitService, repository, handler, walk.iterator());
+	}
+
+	@Override
+	public Churn churnAtCommit(Repository repository, String commitId, RefactoringHandler handler) {
+		GitService gitService = new GitServiceImpl();
+		RevWalk walk = new RevWalk(repository);
+		try {
+			RevCommit commit = walk.parseCommit(repository.resolve(commitId));
+			if (commit.getParentCount() > 0) {
+				walk.parseCommit(commit.getParent(0));
+				return gitService.churn(repository, commit);
+			}
+			else {
+				logger.warn(String.format("Ignored revision %s because it has no parent", commitId));
+			}
+		} catch (MissingObjectException moe) {
+			logger.warn(String.format("Ignored revision %s due to missing commit", commitId), moe);
+		} catch (Exception e) {
+			logger.warn(String.format("Ignored revision %s due to error", commitId), e);
+			handler.handleException(commitId, e);
+		} finally {
+			walk.close();
+			walk.dispose();
+		}
+		return null;
+	}
+
+	@Override
+	public void detectAtCommit(String gitURL, String commitId, RefactoringHandler handler, int timeout) {
+		ExecutorService service = Executors.newSingleThreadExecutor();
+		Future<?> f = null;
+		try {
+			Runnable r = () -> detectRefactorings(handler, gitURL, commitId);
+			f = service.submit(r);
+			f.get(timeout, TimeUnit.SECONDS);
+		} catch (TimeoutException e) {
+			f.cancel(true);
+		} catch (ExecutionException e) {
+			e.printStackTrace();
+		} catch (InterruptedException e) {
+			e.printStackTrace();
+		} finally {
+			service.shutdown();
+		}
+	}
+
+	/**
+	 * Detects the refactorings at a commit fetched from GitHub in the calling thread. The analysis is abandoned when
+	 * the deadline expires, and the timeout is reported to {@link RefactoringHandler#handleException(String, Exception)}.
+	 */
+	public void detectAtCommit(String gitURL, String commitId, RefactoringHandler handler, Deadline deadline) {
+		detectRefactorings(handler, gitURL, commitId, deadline);
+	}
+
+	protected List<Refactoring> detectRefactorings(final RefactoringHandler handler, String gitURL, String currentCommitId) {
+		return detectRefactorings(handler, gitURL, currentCommitId, Deadline.NONE);
+	}
+
+	private List<Refactoring> detectRefactorings(final RefactoringHandler handler, String gitURL, String currentCommitId, Deadline deadline) {
+		return detectRefactorings(handler, gitURL, null, currentCommitId, deadline, null);
+	}
+
+	@Override
+	public void detectAtCommits(String gitURL, List<String> commitIds, RefactoringHandler handler, int timeout) {
+		detectAtGitHubCommits(gitURL, commitIds, handler, () -> Deadline.after(timeout, TimeUnit.SECONDS));
+	}
+
+	/**
+	 * Detects the refactorings at several commits fetched from GitHub, like {@link #detectAtCommits(String, List, RefactoringHandler, int)},
+	 * with a single deadline for all of them. The commits not analyzed before it expires are reported as timed out.
+	 */
+	public void detectAtCommits(String gitURL, List<String> commitIds, RefactoringHandler handler, Deadline deadline) {
+		detectAtGitHubCommits(gitURL, commitIds, handler, () -> deadline);
+	}
+
+	/**
+	 * @param deadlines Supplies the deadline of each commit when its analysis starts.
+	 */
+	private void detectAtGitHubCommits(String gitURL, List<String> commitIds, RefactoringHandler handler, Supplier<Deadline> deadlines) {
+		GHRepository repository;
+		try {
+			repository = getGitHubRepository(gitURL);
+		} catch (IOException e) {
+			logger.warn(String.format("Could not access repository %s", gitURL), e);
+			for (String commitId : commitIds) {
+				handler.handleException(commitId, e);
+				handler.handle(commitId, Collections.emptyList());
+			}
+			handler.onFinish(0, commitIds.size(), commitIds.size());
+			return;
+		}
+		detectAtGitHubCommits(gitURL, repository, commitIds, handler, deadlines);
+	}
+
+	private void detectAtGitHubCommits(String gitURL, GHRepository repository, List<String> commitIds, RefactoringHandler handler, Supplier<Deadline> deadlines) {
+		if (commitWorkers > 1 && commitIds.size() > 1) {
+			detectAtGitHubCommitsInParallel(gitURL, repository, commitIds, handler, deadlines);
+			return;
+		}
+		ModelReuseWindow reuseWindow = reuseModels ? new ModelReuseWindow(modelCache) : null;
+		int refactoringsCount = 0;
+		int errorCommitsCount = 0;
+		for (String commitId : commitIds) {
+			CommitResult result = analyzeGitHubCommit(gitURL, repository, commitId, deadlines.get(), reuseWindow != null ? reuseWindow : modelCache);
+			reportGitHubCommit(handler, result);
+			refactoringsCount += result.getRefactorings().size();
+			if (result.getException() != null) {
+				errorCommitsCount++;
+			}
+			if (reuseWindow != null) {
+				reuseWindow.advance();
+			}
+		}
+		handler.onFinish(refactoringsCount, commitIds.size(), errorCommitsCount);
+	}
+
+	//the parsed models cannot be handed from one commit to the next when the commits are analyzed concurrently, so only the model cache is shared
+	private void detectAtGitHubCommitsInParallel(String gitURL, GHRepository repository, List<String> commitIds, RefactoringHandler handler,
+			Supplier<Deadline> deadlines) {
+		int refactoringsCount = 0;
+		int errorCommitsCount = 0;
+		ExecutorService pool = Executors.newFixedThreadPool(Math.min(commitWorkers, commitIds.size()));
+		CompletionService<CommitResult> completionService = new ExecutorCompletionService<CommitResult>(pool);
+		List<Future<CommitResult>> pendingCommits = new ArrayList<Future<CommitResult>>();
+		try {
+			for (String commitId : commitIds) {
+				Callable<CommitResult> task = () -> analyzeGitHubCommit(gitURL, repository, commitId, deadlines.get(), modelCache);
+				pendingCommits.add(orderedHandling ? pool.submit(task) : completionService.submit(task));
+			}
+			for (int i = 0; i < pendingCommits.size(); i++) {
+				CommitResult result = orderedHandling ? pendingCommits.get(i).get() : completionService.take().get();
+				reportGitHubCommit(handler, result);
+				refactoringsCount += result.getRefactorings().size();
+				if (result.getException() != null) {
+					errorCommitsCount++;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			logger.warn(String.format("Interrupted while analyzing %s", gitURL), e);
+		} catch (ExecutionException e) {
+			//analyzeGitHubCommit captures all exceptions, so this can only be an unexpected error
+			throw new RuntimeException(e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+		handler.onFinish(refactoringsCount, commitIds.size(), errorCommitsCount);
+	}
+
+	private static void reportGitHubCommit(RefactoringHandler handler, CommitResult result) {
+		if (result.getException() != null) {
+			handler.handleException(result.getCommitId(), result.getException());
+		}
+		handler.handle(result.getCommitId(), result.getRefactorings());
+	}
+
+	private CommitResult analyzeGitHubCommit(String gitURL, GHRepository repository, String commitId, Deadline deadline, UMLModelCache modelCache) {
+		try {
+			return new CommitResult(commitId, computeRefactorings(gitURL, repository, commitId, deadline, modelCache), null);
+		}
+		catch (RefactoringMinerTimedOutException e) {
+			logger.warn(String.format("Ignored revision %s due to timeout", commitId), e);
+			return new CommitResult(commitId, Collections.emptyList(), e);
+		}
+		catch (Exception e) {
+			logger.warn(String.format("Ignored revision %s due to error", commitId), e);
+			return new CommitResult(commitId, Collections.emptyList(), e);
+		}
+	}
+
+	private List<Refactoring> detectRefactorings(final RefactoringHandler handler, String gitURL, GHRepository repository, String currentCommitId, Deadline deadline,
+			UMLModelCache modelCache) {
+		CommitResult result = analyzeGitHubCommit(gitURL, repository, currentCommitId, deadline, modelCache);
+		reportGitHubCommit(handler, result);
+		return result.getRefactorings();
+	}
+
+	private List<Refactoring> computeRefactorings(String gitURL, GHRepository repository, String currentCommitId, Deadline deadline,
+			UMLModelCache modelCache) throws Exception {
+		//a commit queued behind others sharing the same deadline does not start when it has already expired
+		deadline.check();
+		Set<String> repositoryDirectoriesBefore = ConcurrentHashMap.newKeySet();
+		Set<String> repositoryDirectoriesCurrent = ConcurrentHashMap.newKeySet();
+		Map<String, String> fileContentsBefore = new ConcurrentHashMap<String, String>();
+		Map<String, String> fileContentsCurrent = new ConcurrentHashMap<String, String>();
+		Map<String, String> renamedFilesHint = new ConcurrentHashMap<String, String>();
+		populateWithGitHubAPI(gitURL, repository, currentCommitId, fileContentsBefore, fileContentsCurrent, renamedFilesHint, repositoryDirectoriesBefore, repositoryDirectoriesCurrent, deadline);
+		deadline.check();
+		List<MoveSourceFolderRefactoring> moveSourceFolderRefactorings = processIdenticalFiles(fileContentsBefore, fileContentsCurrent, renamedFilesHint);
+		UMLModel currentUMLModel;
+		UMLModel parentUMLModel;
+		if (modelCache != null) {
+			//the parent files are parsed first, so that they can reuse the models of the previous commit
+			StringInterner interner = new StringInterner();
+			parentUMLModel = createModel(fileContentsBefore, repositoryDirectoriesBefore, parserThreads, contentIds(fileContentsBefore), modelCache, interner, deadline);
+			deadline.check();
+			currentUMLModel = createModel(fileContentsCurrent, repositoryDirectoriesCurrent, parserThreads, contentIds(fileContentsCurrent), modelCache, interner, deadline);
+			deadline.check();
+		}
+		else {
+			currentUMLModel = createModel(fileContentsCurrent, repositoryDirectoriesCurrent, parserThreads, null, null, null, deadline);
+			deadline.check();
+			parentUMLModel = createModel(fileContentsBefore, repositoryDirectoriesBefore, parserThreads, null, null, null, deadline);
+			deadline.check();
+		}
+		//  Diff between currentModel e parentModel
+		UMLModelDiff modelDiff = parentUMLModel.diff(currentUMLModel, deadline, classDiffThreads);
+		List<Refactoring> refactoringsAtRevision = modelDiff.getRefactorings();
+		refactoringsAtRevision.addAll(moveSourceFolderRefactorings);
+		return filter(refactoringsAtRevision);
+	}
+
+	//the ids of the contents fetched from GitHub, computed like the git blob ids, so that identical files share their parsed model
+	private static Map<String, String> contentIds(Map<String, String> fileContents) {
+		ObjectInserter.Formatter formatter = new ObjectInserter.Formatter();
+		Map<String, String> contentIds = new HashMap<String, String>();
+		for (Map.Entry<String, String> entry : fileContents.entrySet()) {
+			contentIds.put(entry.getKey(), formatter.idFor(Constants.OBJ_BLOB, entry.getValue().getBytes(StandardCharsets.UTF_8)).getName());
+		}
+		return contentIds;
+	}
+
+	private void populateWithGitHubAPI(String cloneURL, GHRepository repository, String currentCommitId,
+			Map<String, String> filesBefore, Map<String, String> filesCurrent, Map<String, String> renamedFilesHint,
+			Set<String> repositoryDirectoriesBefore, Set<String> repositoryDirectoriesCurrent, Deadline deadline)
+					throws IOException, InterruptedException, RefactoringMinerTimedOutException {
+		logger.info("Processing {} {} ...", cloneURL, currentCommitId);
+		if (repository == null) {
+			repository = getGitHubRepository(cloneURL);
+		}
+		List<GHCommit.File> commitFiles = new ArrayList<>();
+		GHCommit currentCommit = new GHRepositoryWrapper(repository).getCommit(currentCommitId, commitFiles);
+		final String parentCommitId = currentCommit.getParents().get(0).getSHA1();
+		//the downloads are keyed by the resolved SHA-1, as the given id may be a branch, tag or abbreviated id
+		final String currentSHA1 = currentCommit.getSHA1();
+		Set<String> deletedAndRenamedFileParentDirectories = ConcurrentHashMap.newKeySet();
+		String repositoryName = repository.getFullName();
+		List<CompletableFuture<Void>> downloads = new ArrayList<CompletableFuture<Void>>();
+		for (GHCommit.File commitFile : commitFiles) {
+			String fileName = commitFile.getFileName();
+			if (commitFile.getFileName().endsWith(".java")) {
+				if (commitFile.getStatus().equals("modified")) {
+					URL currentRawURL = commitFile.getRawUrl();
+					String rawURLInParentCommit = currentRawURL.toString().replace(currentCommitId, parentCommitId);
+					downloads.add(remoteFileFetcher.fetch(repositoryName, currentSHA1, fileName, currentRawURL)
+							.thenAccept(currentRawFile -> filesCurrent.put(fileName, currentRawFile)));
+					downloads.add(remoteFileFetcher.fetch(repositoryName, parentCommitId, fileName, new URL(rawURLInParentCommit))
+							.thenAccept(parentRawFile -> filesBefore.put(fileName, parentRawFile)));
+				}
+				else if (commitFile.getStatus().equals("added")) {
+					URL currentRawURL = commitFile.getRawUrl();
+					downloads.add(remoteFileFetcher.fetch(repositoryName, currentSHA1, fileName, currentRawURL)
+							.thenAccept(currentRawFile -> filesCurrent.put(fileName, currentRawFile)));
+				}
+				else if (commitFile.getStatus().equals("removed")) {
+					URL rawURL = commitFile.getRawUrl();
+					downloads.add(remoteFileFetcher.fetch(repositoryName, parentCommitId, fileName, rawURL)
+							.thenAccept(rawFile -> filesBefore.put(fileName, rawFile)));
+					if(fileName.contains("/")) {
+						deletedAndRenamedFileParentDirectories.add(fileName.substring(0, fileName.lastIndexOf("/")));
+					}
+				}
+				else if (commitFile.getStatus().equals("renamed")) {
+					String previousFilename = commitFile.getPreviousFilename();
+					URL currentRawURL = commitFile.getRawUrl();
+					String rawURLInParentCommit = currentRawURL.toString().replace(currentCommitId, parentCommitId).replace(fileName, previousFilename);
+					downloads.add(remoteFileFetcher.fetch(repositoryName, currentSHA1, fileName, currentRawURL)
+							.thenAccept(currentRawFile -> filesCurrent.put(fileName, currentRawFile)));
+					downloads.add(remoteFileFetcher.fetch(repositoryName, parentCommitId, previousFilename, new URL(rawURLInParentCommit))
+							.thenAccept(parentRawFile -> filesBefore.put(previousFilename, parentRawFile)));
+					renamedFilesHint.put(previousFilename, fileName);
+					if(previousFilename.contains("/")) {
+						deletedAndRenamedFileParentDirectories.add(previousFilename.substring(0, previousFilename.lastIndexOf("/")));
+					}
+				}
+			}
+		}
+		//a commit missing some of its files would report wrong refactorings, so a failed download fails the commit
+		try {
+			CompletableFuture.allOf(downloads.toArray(new CompletableFuture<?>[downloads.size()])).get(deadline.remaining(TimeUnit.MILLISECONDS), TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			//the downloads still running complete in the background, and their contents remain available to the next commits
+			throw new RefactoringMinerTimedOutException();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			throw new IOException(String.format("Could not download the files of %s", currentCommitId), cause);
+		}
+		repositoryDirectories(currentCommit.getTree(), "", repositoryDirectoriesCurrent, deletedAndRenamedFileParentDirectories);
+		repositoryDirectoriesCurrent.addAll(deletedAndRenamedFileParentDirectories);
+		//allRepositoryDirectories(currentCommit.getTree(), "", repositoryDirectoriesCurrent);
+		//GHCommit parentCommit = repository.getCommit(parentCommitId);
+		//allRepositoryDirectories(parentCommit.getTree(), "", repositoryDirectoriesBefore);
+	}
+
+	private void repositoryDirectories(GHTree tree, String pathFromRoot, Set<String> repositoryDirectories, Set<String> targetPaths) throws IOException {
+		for(GHTreeEntry entry : tree.getTree()) {
+			String path = null;
+			if(pathFromRoot.equals("")) {
+				path = entry.getPath();
+			}
+			else {
+				path = pathFromRoot + "/" + entry.getPath();
+			}
+			if(atLeastOneStartsWith(targetPaths, path)) {
+				if(targetPaths.contains(path)) {
+					repositoryDirectories.add(path);
+				}
+				else {
+					repositoryDirectories.add(path);
+					GHTree asTree = entry.asTree();
+					if(asTree != null) {
+						repositoryDirectories(asTree, path, repositoryDirectories, targetPaths);
+					}
+				}
+			}
+		}
+	}
+
+	private boolean atLeastOneStartsWith(Set<String> targetPaths, String path) {
+		for(String targetPath : targetPaths) {
+			if(path.endsWith("/") && targetPath.startsWith(path)) {
+				return true;
+			}
+			else if(!path.endsWith("/") && targetPath.startsWith(path + "/")) {
+				return true;
+			}
+		}
+		return false;
+	}
+	/*
+	private void allRepositoryDirectories(GHTree tree, String pathFromRoot, Set<String> repositoryDirectories) throws IOException {
+		for(GHTreeEntry entry : tree.getTree()) {
+			String path = null;
+			if(pathFromRoot.equals("")) {
+				path = entry.getPath();
+			}
+			else {
+				path = pathFromRoot + "/" + entry.getPath();
+			}
+			GHTree asTree = entry.asTree();
+			if(asTree != null) {
+				allRepositoryDirectories(asTree, path, repositoryDirectories);
+			}
+			else if(path.endsWith(".java")) {
+				repositoryDirectories.add(path.substring(0, path.lastIndexOf("/")));
+			}
+		}
+	}
+	*/
+
+	@Override
+	public void detectAtPullRequest(String cloneURL, int pullRequestId, RefactoringHandler handler, int timeout) throws IOException {
+		detectAtPullRequest(cloneURL, pullRequestId, handler, Deadline.after(timeout, TimeUnit.SECONDS));
+	}
+
+	/**
+	 * Detects the refactorings at the commits of a pull request with a deadline shared by the whole pull request.
+	 * The commits are analyzed concurrently when more than one commit worker is set, and reported in the order of the pull request
+	 * unless ordered handling is disabled. The commits not analyzed before the deadline expires are reported to
+	 * {@link RefactoringHandler#handleException(String, Exception)} with a {@link RefactoringMinerTimedOutException}.
+	 */
+	public void detectAtPullRequest(String cloneURL, int pullRequestId, RefactoringHandler handler, Deadline deadline) throws IOException {
+		GHRepository repository = getGitHubRepository(cloneURL);
+		detectAtGitHubCommits(cloneURL, repository, pullRequestCommits(repository, pullRequestId), handler, () -> deadline);
+	}
+
+	private List<String> pullRequestCommits(GHRepository repository, int pullRequestId) throws IOException {
+		GHPullRequest pullRequest = repository.getPullRequest(pullRequestId);
+		PagedIterable<GHPullRequestCommitDetail> commits = pullRequest.listCommits();
+		List<String> commitIds = new ArrayList<String>();
+		for(GHPullRequestCommitDetail commit : commits) {
+			commitIds.add(commit.getSha());
+		}
+		return commitIds;
+	}
+
+	public GHRepository getGitHubRepository(String cloneURL) throws IOException {
+		GitHub gitHub = connectToGitHub();
+		String repoName = extractRepositoryName(cloneURL);
+		return gitHub.getRepository(repoName);
+	}
+
+	private static final String GITHUB_URL = "https://github.com/";
+	private static final String BITBUCKET_URL = "https://bitbucket.org/";
+
+	private static String extractRepositoryName(String cloneURL) {
+		int hostLength = 0;
+		if(cloneURL.startsWith(GITHUB_URL)) {
+			hostLength = GITHUB_URL.length();
+		}
+		else if(cloneURL.startsWith(BITBUCKET_URL)) {
+			hostLength = BITBUCKET_URL.length();
+		}
+		int indexOfDotGit = cloneURL.length();
+		if(cloneURL.endsWith(".git")) {
+			indexOfDotGit = cloneURL.indexOf(".git");
+		}
+		else if(cloneURL.endsWith("/")) {
+			indexOfDotGit = cloneURL.length() - 1;
+		}
+		String repoName = cloneURL.substring(hostLength, indexOfDotGit);
+		return repoName;
+	}
+
+	public static String extractCommitURL(String cloneURL, String commitId) {
+		int indexOfDotGit = cloneURL.length();
+		if(cloneURL.endsWith(".git")) {
+			indexOfDotGit = cloneURL.indexOf(".git");
+		}
+		else if(cloneURL.endsWith("/")) {
+			indexOfDotGit = cloneURL.length() - 1;
+		}
+		String commitResource = "/";
+		if(cloneURL.startsWith(GITHUB_URL)) {
+			commitResource = "/commit/";
+		}
+		else if(cloneURL.startsWith(BITBUCKET_URL)) {
+			commitResource = "/commits/";
+		}
+		String commitURL = cloneURL.substring(0, indexOfDotGit) + commitResource + commitId;
+		return commitURL;
+	}
+
+	private static String extractDownloadLink(String cloneURL, String commitId) {
+		int indexOfDotGit = cloneURL.length();
+		if(cloneURL.endsWith(".git")) {
+			indexOfDotGit = cloneURL.indexOf(".git");
+		}
+		else if(cloneURL.endsWith("/")) {
+			indexOfDotGit = cloneURL.length() - 1;
+		}
+		String downloadResource = "/";
+		if(cloneURL.startsWith(GITHUB_URL)) {
+			downloadResource = "/archive/";
+		}
+		else if(cloneURL.startsWith(BITBUCKET_URL)) {
+			downloadResource = "/get/";
+		}
+		String downloadLink = cloneURL.substring(0, indexOfDotGit) + downloadResource + commitId + ".zip";
+		return downloadLink;
+	}
+}
@@ -0,0 +1,62 @@
+package org.refactoringminer.util;
+
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.refactoringminer.api.Refactoring;
+import org.refactoringminer.api.RefactoringType;
+
+import gr.uom.java.xmi.diff.CodeRange;
+
+/**
+ * A refactoring read back from the binary format of {@link BinaryResultWriter}.
+ */
+public class ArchivedRefactoring implements Refactoring {
+	private static final long serialVersionUID = 1L;
+	private final RefactoringType refactoringType;
+	private final String description;
+	private final Set<ImmutablePair<String, String>> involvedClassesBefore;
+	private final Set<ImmutablePair<String, String>> involvedClassesAfter;
+	private final List<CodeRange> leftSide;
+	private final List<CodeRange> rightSide;
+
+	public ArchivedRefactoring(RefactoringType refactoringType, String description,
+			Set<ImmutablePair<String, String>> involvedClassesBefore, Set<ImmutablePair<String, String>> involvedClassesAfter,
+			List<CodeRange> leftSide, List<CodeRange> rightSide) {
+		this.refactoringType = refactoringType;
+		this.description = description;
+		this.involvedClassesBefore = involvedClassesBefore;
+		this.involvedClassesAfter = involvedClassesAfter;
+		this.leftSide = leftSide;
+		this.rightSide = rightSide;
+	}
+
+	public RefactoringType getRefactoringType() {
+		return refactoringType;
+	}
+
+	public String getName() {
+		return refactoringType.getDisplayName();
+	}
+
+	public Set<ImmutablePair<String, String>> getInvolvedClassesBeforeRefactoring() {
+		return involvedClassesBefore;
+	}
+
+	public Set<ImmutablePair<String, String>> getInvolvedClassesAfterRefactoring() {
+		return involvedClassesAfter;
+	}
+
+	public List<CodeRange> leftSide() {
+		return leftSide;
+	}
+
+	public List<CodeRange> rightSide() {
+		return rightSide;
+	}
+
+	public String toString() {
+		return description;
+	}
+}
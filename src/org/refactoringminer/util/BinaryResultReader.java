@@ -0,0 +1,201 @@
+package org.refactoringminer.util;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.refactoringminer.api.RefactoringType;
+
+import gr.uom.java.xmi.LocationInfo.CodeElementType;
+import gr.uom.java.xmi.diff.CodeRange;
+
+/**
+ * Reads, one commit at a time, the refactorings written by {@link BinaryResultWriter}.
+ */
+public class BinaryResultReader implements Closeable {
+	private final DataInputStream in;
+	private final List<String> stringTable = new ArrayList<String>();
+	private boolean ended;
+
+	public BinaryResultReader(InputStream in) throws IOException {
+		this.in = new DataInputStream(new BufferedInputStream(in));
+		if(this.in.readInt() != BinaryResultWriter.MAGIC) {
+			throw new IOException("Not a binary refactoring results stream");
+		}
+		int version = readInt();
+		//version 1 streams differ only by the lack of reset records
+		if(version < 1 || version > BinaryResultWriter.VERSION) {
+			throw new IOException("Unsupported binary refactoring results version " + version);
+		}
+	}
+
+	public static class Commit {
+		private final String repository;
+		private final String commitId;
+		private final List<ArchivedRefactoring> refactorings;
+
+		private Commit(String repository, String commitId, List<ArchivedRefactoring> refactorings) {
+			this.repository = repository;
+			this.commitId = commitId;
+			this.refactorings = refactorings;
+		}
+
+		public String getRepository() {
+			return repository;
+		}
+
+		public String getCommitId() {
+			return commitId;
+		}
+
+		public List<ArchivedRefactoring> getRefactorings() {
+			return refactorings;
+		}
+	}
+
+	/**
+	 * @return The next commit, or null at the end of the results. A stream cut by a crash of the writing process
+	 * ends after the last complete commit, and the incomplete commit that follows it is dropped.
+	 */
+	public Commit next() throws IOException {
+		if(ended) {
+			return null;
+		}
+		try {
+			int tag = readInt();
+			while(tag == BinaryResultWriter.RESET) {
+				stringTable.clear();
+				tag = readInt();
+			}
+			if(tag == BinaryResultWriter.END) {
+				ended = true;
+				return null;
+			}
+			if(tag != BinaryResultWriter.COMMIT) {
+				throw new IOException("Unexpected record " + tag);
+			}
+			return readCommit();
+		} catch (EOFException e) {
+			ended = true;
+			return null;
+		}
+	}
+
+	private Commit readCommit() throws IOException {
+		String repository = readSharedString();
+		String commitId = readString();
+		int count = readInt();
+		List<ArchivedRefactoring> refactorings = new ArrayList<ArchivedRefactoring>(count);
+		for(int i = 0; i < count; i++) {
+			RefactoringType type = RefactoringType.valueOf(readSharedString());
+			String description = readString();
+			Set<ImmutablePair<String, String>> involvedClassesBefore = readClasses();
+			Set<ImmutablePair<String, String>> involvedClassesAfter = readClasses();
+			List<CodeRange> leftSide = readCodeRanges();
+			List<CodeRange> rightSide = readCodeRanges();
+			refactorings.add(new ArchivedRefactoring(type, description, involvedClassesBefore, involvedClassesAfter, leftSide, rightSide));
+		}
+		return new Commit(repository, commitId, refactorings);
+	}
+
+	/**
+	 * Converts the remaining commits to the JSON document written by the command line interface.
+	 */
+	public void writeJSON(RefactoringJSONWriter writer) throws IOException {
+		writer.startCommits();
+		Commit commit;
+		while((commit = next()) != null) {
+			writer.writeCommit(commit.getRepository(), commit.getCommitId(), commit.getRefactorings());
+		}
+		writer.endCommits();
+	}
+
+	public static void convertToJSON(InputStream in, OutputStream out) throws IOException {
+		try (BinaryResultReader reader = new BinaryResultReader(in);
+				RefactoringJSONWriter writer = new RefactoringJSONWriter(out)) {
+			reader.writeJSON(writer);
+		}
+	}
+
+	private Set<ImmutablePair<String, String>> readClasses() throws IOException {
+		int size = readInt();
+		Set<ImmutablePair<String, String>> classes = new LinkedHashSet<ImmutablePair<String, String>>();
+		for(int i = 0; i < size; i++) {
+			String filePath = readSharedString();
+			String className = readSharedString();
+			classes.add(ImmutablePair.of(filePath, className));
+		}
+		return classes;
+	}
+
+	private List<CodeRange> readCodeRanges() throws IOException {
+		int size = readInt();
+		List<CodeRange> codeRanges = new ArrayList<CodeRange>(size);
+		for(int i = 0; i < size; i++) {
+			String filePath = readSharedString();
+			int startLine = readInt();
+			int endLine = startLine + readInt();
+			int startColumn = readInt();
+			int endColumn = readInt();
+			CodeElementType codeElementType = CodeElementType.valueOf(readSharedString());
+			CodeRange codeRange = new CodeRange(filePath, startLine, endLine, startColumn, endColumn, codeElementType);
+			codeRange.setDescription(readSharedString());
+			codeRange.setCodeElement(readSharedString());
+			codeRanges.add(codeRange);
+		}
+		return codeRanges;
+	}
+
+	private String readSharedString() throws IOException {
+		int reference = readInt();
+		if(reference == BinaryResultWriter.NULL_STRING) {
+			return null;
+		}
+		if(reference == BinaryResultWriter.NEW_STRING) {
+			String s = readString();
+			stringTable.add(s);
+			return s;
+		}
+		int position = reference - BinaryResultWriter.STRING_REFERENCE;
+		if(position < 0 || position >= stringTable.size()) {
+			throw new IOException("Invalid string reference " + reference);
+		}
+		return stringTable.get(position);
+	}
+
+	private String readString() throws IOException {
+		byte[] bytes = new byte[readInt()];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private int readInt() throws IOException {
+		int v = 0;
+		int shift = 0;
+		int b;
+		do {
+			if(shift > 28) {
+				throw new IOException("Malformed variable-length integer");
+			}
+			b = in.readUnsignedByte();
+			v |= (b & 0x7F) << shift;
+			shift += 7;
+		} while((b & 0x80) != 0);
+		return (v >>> 1) ^ -(v & 1);
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+}
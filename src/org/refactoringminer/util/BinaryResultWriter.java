@@ -0,0 +1,169 @@
+package org.refactoringminer.util;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.refactoringminer.api.Refactoring;
+
+import gr.uom.java.xmi.diff.CodeRange;
+
+/**
+ * Writes the refactorings detected in a sequence of commits in a compact binary format, read back by
+ * {@link BinaryResultReader}. Integers are written as variable-length quantities, and the strings repeated across
+ * refactorings, such as file paths, class names, code elements and type names, are written once and then referred to
+ * by their position in a string table shared by the whole stream.
+ * <p>
+ * The stream starts with a header, followed by one record per commit and an end marker. A string reference is
+ * 0 for null, 1 for a new string that follows inline and is appended to the table, or 2 plus the position of a
+ * string already in the table. When the table reaches its maximum size, a reset record empties it before the next
+ * commit, so that the memory used by the writer and the reader does not grow with the length of the stream.
+ * Every commit is flushed once written, so that a stream cut by a crash keeps the commits written before it.
+ */
+public class BinaryResultWriter implements Closeable, Flushable {
+	static final int MAGIC = 0x524D4252;
+	static final int VERSION = 2;
+	static final int COMMIT = 1;
+	static final int RESET = 2;
+	static final int END = 0;
+	static final int NULL_STRING = 0;
+	static final int NEW_STRING = 1;
+	static final int STRING_REFERENCE = 2;
+	static final int DEFAULT_MAX_STRING_TABLE_SIZE = 1 << 16;
+	private final DataOutputStream out;
+	private final int maxStringTableSize;
+	private final Map<String, Integer> stringTable = new HashMap<String, Integer>();
+	private boolean ended;
+
+	public BinaryResultWriter(OutputStream out) throws IOException {
+		this(out, DEFAULT_MAX_STRING_TABLE_SIZE);
+	}
+
+	/**
+	 * @param maxStringTableSize The number of strings in the table after which it is emptied before the next commit.
+	 */
+	public BinaryResultWriter(OutputStream out, int maxStringTableSize) throws IOException {
+		if(maxStringTableSize < 1) {
+			throw new IllegalArgumentException("The maximum size of the string table must be positive");
+		}
+		this.out = new DataOutputStream(new BufferedOutputStream(out));
+		this.maxStringTableSize = maxStringTableSize;
+		this.out.writeInt(MAGIC);
+		writeInt(VERSION);
+	}
+
+	public synchronized void writeCommit(String cloneURL, String commitId, List<? extends Refactoring> refactorings) throws IOException {
+		if(ended) {
+			throw new IllegalStateException("The end of the results has already been written");
+		}
+		if(stringTable.size() >= maxStringTableSize) {
+			writeInt(RESET);
+			stringTable.clear();
+		}
+		writeInt(COMMIT);
+		writeSharedString(cloneURL);
+		writeString(commitId);
+		writeInt(refactorings.size());
+		for(Refactoring refactoring : refactorings) {
+			writeSharedString(refactoring.getRefactoringType().name());
+			writeString(refactoring.toString());
+			writeClasses(refactoring.getInvolvedClassesBeforeRefactoring());
+			writeClasses(refactoring.getInvolvedClassesAfterRefactoring());
+			writeCodeRanges(refactoring.leftSide());
+			writeCodeRanges(refactoring.rightSide());
+		}
+		out.flush();
+	}
+
+	private void writeClasses(Set<ImmutablePair<String, String>> classes) throws IOException {
+		writeInt(classes.size());
+		for(ImmutablePair<String, String> pair : classes) {
+			writeSharedString(pair.getLeft());
+			writeSharedString(pair.getRight());
+		}
+	}
+
+	private void writeCodeRanges(List<CodeRange> codeRanges) throws IOException {
+		writeInt(codeRanges.size());
+		for(CodeRange codeRange : codeRanges) {
+			writeSharedString(codeRange.getFilePath());
+			writeInt(codeRange.getStartLine());
+			//the end line and columns are close to the start, so their differences are shorter
+			writeInt(codeRange.getEndLine() - codeRange.getStartLine());
+			writeInt(codeRange.getStartColumn());
+			writeInt(codeRange.getEndColumn());
+			writeSharedString(codeRange.getCodeElementType().name());
+			writeSharedString(codeRange.getDescription());
+			writeSharedString(codeRange.getCodeElement());
+		}
+	}
+
+	private void writeSharedString(String s) throws IOException {
+		if(s == null) {
+			writeInt(NULL_STRING);
+			return;
+		}
+		Integer position = stringTable.get(s);
+		if(position != null) {
+			writeInt(STRING_REFERENCE + position);
+		}
+		else {
+			stringTable.put(s, stringTable.size());
+			writeInt(NEW_STRING);
+			writeString(s);
+		}
+	}
+
+	private void writeString(String s) throws IOException {
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	//zigzag encoding keeps the negative values, such as unknown columns, short
+	private void writeInt(int value) throws IOException {
+		int v = (value << 1) ^ (value >> 31);
+		while((v & ~0x7F) != 0) {
+			out.writeByte((v & 0x7F) | 0x80);
+			v >>>= 7;
+		}
+		out.writeByte(v);
+	}
+
+	/**
+	 * Writes the end marker, after which no more commits can be written.
+	 */
+	public synchronized void end() throws IOException {
+		if(!ended) {
+			writeInt(END);
+			ended = true;
+		}
+		out.flush();
+	}
+
+	@Override
+	public synchronized void flush() throws IOException {
+		out.flush();
+	}
+
+	/**
+	 * Writes the end marker, if not already written, and closes the stream.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		try {
+			end();
+		} finally {
+			out.close();
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package org.refactoringminer.util;
+
+import java.io.IOException;
+
+import org.eclipse.jgit.diff.RawText;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectLoader;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.ObjectStream;
+import org.eclipse.jgit.util.IO;
+import org.eclipse.jgit.util.RawParseUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads the contents of source files from git blobs. The blob is read into a buffer of its exact size and decoded
+ * as UTF-8 (falling back to the legacy encodings for invalid input), while the files above the size limit,
+ * such as generated sources, and the binary files are skipped.
+ */
+public class BlobLoader {
+	private static final Logger logger = LoggerFactory.getLogger(BlobLoader.class);
+	private static final long MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+	private final long maxFileSize;
+
+	/**
+	 * @param maxFileSize The maximum size in bytes of a loaded file, or 0 to load files of any size.
+	 */
+	public BlobLoader(long maxFileSize) {
+		if(maxFileSize < 0) {
+			throw new IllegalArgumentException("Maximum file size must not be negative");
+		}
+		this.maxFileSize = maxFileSize;
+	}
+
+	public long getMaxFileSize() {
+		return maxFileSize;
+	}
+
+	/**
+	 * @return The contents of the blob, or null if the blob is larger than the maximum file size or is binary.
+	 */
+	public String load(ObjectReader reader, ObjectId blobId, String path) throws IOException {
+		ObjectLoader loader = reader.open(blobId, Constants.OBJ_BLOB);
+		long size = loader.getSize();
+		if((maxFileSize > 0 && size > maxFileSize) || size > MAX_ARRAY_SIZE) {
+			logger.info("Skipped {} with {} bytes", path, size);
+			return null;
+		}
+		byte[] bytes;
+		if(loader.isLarge()) {
+			bytes = new byte[(int) size];
+			try (ObjectStream in = loader.openStream()) {
+				IO.readFully(in, bytes, 0, bytes.length);
+			}
+		}
+		else {
+			bytes = loader.getCachedBytes();
+		}
+		if(RawText.isBinary(bytes)) {
+			logger.info("Skipped binary file {}", path);
+			return null;
+		}
+		return RawParseUtils.decode(bytes);
+	}
+}
@@ -0,0 +1,54 @@
+package org.refactoringminer.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.refactoringminer.api.RefactoringMinerTimedOutException;
+
+/**
+ * A point in time after which the analysis of a commit should be abandoned.
+ * The deadline is checked cooperatively by the model diff and the operation body mappers,
+ * so that no extra thread is required to bound the analysis time of a commit.
+ */
+public class Deadline {
+	public static final Deadline NONE = new Deadline(Long.MAX_VALUE, false);
+	private final long expirationNanos;
+	private final boolean bounded;
+
+	private Deadline(long expirationNanos, boolean bounded) {
+		this.expirationNanos = expirationNanos;
+		this.bounded = bounded;
+	}
+
+	public static Deadline after(long timeout, TimeUnit unit) {
+		if(timeout <= 0) {
+			return NONE;
+		}
+		return new Deadline(System.nanoTime() + unit.toNanos(timeout), true);
+	}
+
+	public boolean isBounded() {
+		return bounded;
+	}
+
+	public boolean isExpired() {
+		return bounded && System.nanoTime() - expirationNanos >= 0;
+	}
+
+	public long remaining(TimeUnit unit) {
+		if(!bounded) {
+			return Long.MAX_VALUE;
+		}
+		return unit.convert(Math.max(0, expirationNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * The interrupt status of the current thread is kept, so that the caller can tell an interrupt from an expired deadline.
+	 * 
+	 * @throws RefactoringMinerTimedOutException if the deadline has expired or the current thread has been interrupted.
+	 */
+	public void check() throws RefactoringMinerTimedOutException {
+		if(Thread.currentThread().isInterrupted() || isExpired()) {
+			throw new RefactoringMinerTimedOutException();
+		}
+	}
+}
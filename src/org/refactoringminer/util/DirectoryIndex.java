@@ -0,0 +1,106 @@
+package org.refactoringminer.util;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.AndTreeFilter;
+import org.eclipse.jgit.treewalk.filter.PathSuffixFilter;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+
+/**
+ * The directories of a git tree containing java files, directly or in their sub-directories.
+ * Each directory is kept with the number of java files it contains, so that the index of another tree can be
+ * derived from the java files added and deleted between the two trees, without walking the whole tree.
+ */
+public class DirectoryIndex {
+	private final ObjectId treeId;
+	private final Map<String, Integer> javaFileCounts;
+
+	private DirectoryIndex(ObjectId treeId, Map<String, Integer> javaFileCounts) {
+		this.treeId = treeId.copy();
+		this.javaFileCounts = javaFileCounts;
+	}
+
+	public static DirectoryIndex build(ObjectReader reader, ObjectId treeId) throws IOException {
+		Map<String, Integer> javaFileCounts = new LinkedHashMap<String, Integer>();
+		try (TreeWalk treeWalk = new TreeWalk(reader)) {
+			treeWalk.addTree(treeId);
+			treeWalk.setRecursive(true);
+			treeWalk.setFilter(PathSuffixFilter.create(".java"));
+			while (treeWalk.next()) {
+				addJavaFile(javaFileCounts, treeWalk.getPathString());
+			}
+		}
+		return new DirectoryIndex(treeId, javaFileCounts);
+	}
+
+	/**
+	 * @return The index of the tree {@code otherTreeId}, computed from the java files that differ between the indexed tree and the other tree.
+	 */
+	public DirectoryIndex derive(ObjectReader reader, ObjectId otherTreeId) throws IOException {
+		Map<String, Integer> javaFileCounts = new LinkedHashMap<String, Integer>(this.javaFileCounts);
+		try (TreeWalk treeWalk = new TreeWalk(reader)) {
+			treeWalk.addTree(treeId);
+			treeWalk.addTree(otherTreeId);
+			treeWalk.setRecursive(true);
+			treeWalk.setFilter(AndTreeFilter.create(PathSuffixFilter.create(".java"), TreeFilter.ANY_DIFF));
+			for(DiffEntry entry : DiffEntry.scan(treeWalk)) {
+				switch(entry.getChangeType()) {
+				case ADD:
+					addJavaFile(javaFileCounts, entry.getNewPath());
+					break;
+				case DELETE:
+					removeJavaFile(javaFileCounts, entry.getOldPath());
+					break;
+				default:
+					break;
+				}
+			}
+		}
+		return new DirectoryIndex(otherTreeId, javaFileCounts);
+	}
+
+	private static void addJavaFile(Map<String, Integer> javaFileCounts, String path) {
+		int index = path.lastIndexOf('/');
+		while(index > 0) {
+			String directory = path.substring(0, index);
+			Integer count = javaFileCounts.get(directory);
+			javaFileCounts.put(directory, count != null ? count + 1 : 1);
+			index = directory.lastIndexOf('/');
+		}
+	}
+
+	private static void removeJavaFile(Map<String, Integer> javaFileCounts, String path) {
+		int index = path.lastIndexOf('/');
+		while(index > 0) {
+			String directory = path.substring(0, index);
+			Integer count = javaFileCounts.get(directory);
+			if(count != null && count > 1) {
+				javaFileCounts.put(directory, count - 1);
+			}
+			else {
+				javaFileCounts.remove(directory);
+			}
+			index = directory.lastIndexOf('/');
+		}
+	}
+
+	public ObjectId getTreeId() {
+		return treeId;
+	}
+
+	public Set<String> getDirectories() {
+		return Collections.unmodifiableSet(javaFileCounts.keySet());
+	}
+
+	public int size() {
+		return javaFileCounts.size();
+	}
+}
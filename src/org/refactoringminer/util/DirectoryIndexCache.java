@@ -0,0 +1,55 @@
+package org.refactoringminer.util;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+
+/**
+ * Keeps the directory indexes of the most recently used git trees, so that the tree shared by a commit and
+ * its parent, which is analyzed next in a history walk, is indexed once. The index of a tree that is not cached
+ * is derived from the most recently used index, paying only for the java files that differ between the two trees,
+ * which are few for the neighboring commits of a history walk.
+ */
+public class DirectoryIndexCache {
+	private final int capacity;
+	private final LinkedHashMap<ObjectId, DirectoryIndex> indexes;
+
+	/**
+	 * @param capacity The maximum number of trees whose directory index is kept.
+	 */
+	public DirectoryIndexCache(int capacity) {
+		if(capacity <= 0) {
+			throw new IllegalArgumentException("Capacity must be positive");
+		}
+		this.capacity = capacity;
+		this.indexes = new LinkedHashMap<ObjectId, DirectoryIndex>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<ObjectId, DirectoryIndex> eldest) {
+				return size() > DirectoryIndexCache.this.capacity;
+			}
+		};
+	}
+
+	public DirectoryIndex get(ObjectReader reader, ObjectId treeId) throws IOException {
+		DirectoryIndex index;
+		DirectoryIndex recentIndex = null;
+		synchronized (this) {
+			index = indexes.get(treeId);
+			if(index == null) {
+				for(DirectoryIndex cachedIndex : indexes.values()) {
+					recentIndex = cachedIndex;
+				}
+			}
+		}
+		if(index == null) {
+			index = recentIndex != null ? recentIndex.derive(reader, treeId) : DirectoryIndex.build(reader, treeId);
+			synchronized (this) {
+				indexes.put(treeId.copy(), index);
+			}
+		}
+		return index;
+	}
+}
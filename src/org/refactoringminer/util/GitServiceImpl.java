@@ -275,39 +275,47 @@ public class GitServiceImpl implements GitService {
 	}
 
 	public void fileTreeDiff(Repository repository, RevCommit currentCommit, Set<String> javaFilesBefore, Set<String> javaFilesCurrent, Map<String, String> renamedFilesHint) throws Exception {
-        if (currentCommit.getParentCount() > 0) {
-        	ObjectId oldTree = currentCommit.getParent(0).getTree();
-	        ObjectId newTree = currentCommit.getTree();
-        	final TreeWalk tw = new TreeWalk(repository);
-        	tw.setRecursive(true);
-        	tw.addTree(oldTree);
-        	tw.addTree(newTree);
+		try (RepositoryReader repositoryReader = new RepositoryReader(repository)) {
+			fileTreeDiff(repositoryReader, currentCommit, javaFilesBefore, javaFilesCurrent, renamedFilesHint);
+		}
+	}
 
-        	final RenameDetector rd = new RenameDetector(repository);
-        	rd.setRenameScore(55);
-        	rd.addAll(DiffEntry.scan(tw));
+	@Override
+	public void fileTreeDiff(RepositoryReader repositoryReader, RevCommit currentCommit, Set<String> javaFilesBefore, Set<String> javaFilesCurrent, Map<String, String> renamedFilesHint) throws Exception {
+		if (currentCommit.getParentCount() > 0) {
+			ObjectId oldTree = currentCommit.getParent(0).getTree();
+			ObjectId newTree = currentCommit.getTree();
+			try (TreeWalk tw = new TreeWalk(repositoryReader.getObjectReader())) {
+				tw.setRecursive(true);
+				tw.addTree(oldTree);
+				tw.addTree(newTree);
 
-        	for (DiffEntry diff : rd.compute(tw.getObjectReader(), null)) {
-        		ChangeType changeType = diff.getChangeType();
-        		String oldPath = diff.getOldPath();
-        		String newPath = diff.getNewPath();
-        		if (changeType != ChangeType.ADD) {
-	        		if (isJavafile(oldPath)) {
-	        			javaFilesBefore.add(oldPath);
-	        		}
-	        	}
-        		if (changeType != ChangeType.DELETE) {
-	        		if (isJavafile(newPath)) {
-	        			javaFilesCurrent.add(newPath);
-	        		}
-        		}
-        		if (changeType == ChangeType.RENAME && diff.getScore() >= rd.getRenameScore()) {
-        			if (isJavafile(oldPath) && isJavafile(newPath)) {
-        				renamedFilesHint.put(oldPath, newPath);
-        			}
-        		}
-        	}
-        }
+				final RenameDetector rd = repositoryReader.getRenameDetector();
+				rd.setRenameScore(55);
+				rd.addAll(DiffEntry.scan(tw));
+
+				for (DiffEntry diff : rd.compute(tw.getObjectReader(), null)) {
+					ChangeType changeType = diff.getChangeType();
+					String oldPath = diff.getOldPath();
+					String newPath = diff.getNewPath();
+					if (changeType != ChangeType.ADD) {
+						if (isJavafile(oldPath)) {
+							javaFilesBefore.add(oldPath);
+						}
+					}
+					if (changeType != ChangeType.DELETE) {
+						if (isJavafile(newPath)) {
+							javaFilesCurrent.add(newPath);
+						}
+					}
+					if (changeType == ChangeType.RENAME && diff.getScore() >= rd.getRenameScore()) {
+						if (isJavafile(oldPath) && isJavafile(newPath)) {
+							renamedFilesHint.put(oldPath, newPath);
+						}
+					}
+				}
+			}
+		}
 	}
 
 	private boolean isJavafile(String path) {
@@ -0,0 +1,67 @@
+package org.refactoringminer.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import gr.uom.java.xmi.UMLClass;
+import gr.uom.java.xmi.UMLModel;
+import gr.uom.java.xmi.UMLModelCache;
+
+/**
+ * Keeps the parsed files of the previously analyzed commit, so that the files with the same path and blob id
+ * in the next commit of a history walk reuse the same model instances instead of being parsed again.
+ * A model is handed out at most once, after clearing the state left in its code fragments by the previous diff.
+ * Files not found in the window are looked up in the fallback cache, if any.
+ */
+public class ModelReuseWindow implements UMLModelCache {
+	private final UMLModelCache fallback;
+	private Map<String, UMLModel> previousModels = new HashMap<String, UMLModel>();
+	private Map<String, UMLModel> currentModels = new HashMap<String, UMLModel>();
+
+	/**
+	 * @param fallback The cache used for the files that were not part of the previous commit, or null.
+	 */
+	public ModelReuseWindow(UMLModelCache fallback) {
+		this.fallback = fallback;
+	}
+
+	/**
+	 * Discards the models of the previous commit, and makes the models of the current commit available for reuse.
+	 */
+	public synchronized void advance() {
+		previousModels = currentModels;
+		currentModels = new HashMap<String, UMLModel>();
+	}
+
+	@Override
+	public UMLModel get(String filePath, String contentId) {
+		String key = contentId + ":" + filePath;
+		UMLModel fileModel;
+		synchronized (this) {
+			fileModel = previousModels.remove(key);
+		}
+		if (fileModel != null) {
+			for (UMLClass umlClass : fileModel.getClassList()) {
+				umlClass.clearArgumentization();
+			}
+		} else if (fallback != null) {
+			fileModel = fallback.get(filePath, contentId);
+		}
+		if (fileModel != null) {
+			synchronized (this) {
+				currentModels.put(key, fileModel);
+			}
+		}
+		return fileModel;
+	}
+
+	@Override
+	public void put(String filePath, String contentId, UMLModel fileModel) {
+		synchronized (this) {
+			currentModels.put(contentId + ":" + filePath, fileModel);
+		}
+		if (fallback != null) {
+			fallback.put(filePath, contentId, fileModel);
+		}
+	}
+}
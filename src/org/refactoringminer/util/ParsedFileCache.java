@@ -0,0 +1,169 @@
+package org.refactoringminer.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import gr.uom.java.xmi.UMLModel;
+import gr.uom.java.xmi.UMLModelCache;
+
+/**
+ * Caches the parsed model of each file keyed by its path and git blob id.
+ * The models are kept serialized in a memory bounded LRU map, and optionally in a directory on disk,
+ * so that they survive between runs on the same repository. Every lookup returns a new copy of the model.
+ * The files on disk are stamped with the format version of the cache, so that the models written by a build with another
+ * parser or model are parsed again instead of being read with missing or misinterpreted fields.
+ * The cache is best-effort: entries that cannot be written or read are parsed again.
+ */
+public class ParsedFileCache implements UMLModelCache {
+	private static final Logger logger = LoggerFactory.getLogger(ParsedFileCache.class);
+	/**
+	 * The version of the serialized models, to be incremented whenever UMLModelASTReader or the serializable classes of
+	 * the model change. The classes of the model do not declare a serialVersionUID, so a change of their fields is also
+	 * detected by the default one, but a change in how the parser fills them is not.
+	 */
+	private static final int FORMAT_VERSION = 1;
+	private final long memoryLimit;
+	private final File directory;
+	private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<String, byte[]>(16, 0.75f, true);
+	private long memorySize;
+
+	/**
+	 * @param memoryLimit The maximum number of bytes of serialized models kept in memory.
+	 */
+	public ParsedFileCache(long memoryLimit) {
+		this(memoryLimit, null);
+	}
+
+	/**
+	 * @param memoryLimit The maximum number of bytes of serialized models kept in memory.
+	 * @param directory The directory storing the serialized models on disk, or null to keep them only in memory.
+	 */
+	public ParsedFileCache(long memoryLimit, File directory) {
+		this.memoryLimit = memoryLimit;
+		this.directory = directory;
+	}
+
+	@Override
+	public UMLModel get(String filePath, String contentId) {
+		String key = contentId + ":" + filePath;
+		byte[] data;
+		synchronized (this) {
+			data = entries.get(key);
+		}
+		if (data == null && directory != null) {
+			data = readFromDisk(filePath, contentId);
+			if (data != null) {
+				store(key, data);
+			}
+		}
+		if (data == null) {
+			return null;
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data))) {
+			return (UMLModel) in.readObject();
+		} catch (IOException | ClassNotFoundException | ClassCastException e) {
+			logger.warn(String.format("Ignored cached model of %s", filePath), e);
+			synchronized (this) {
+				remove(key);
+			}
+			return null;
+		}
+	}
+
+	@Override
+	public void put(String filePath, String contentId, UMLModel fileModel) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(fileModel);
+		} catch (IOException e) {
+			logger.warn(String.format("Could not cache the model of %s", filePath), e);
+			return;
+		}
+		byte[] data = bytes.toByteArray();
+		store(contentId + ":" + filePath, data);
+		if (directory != null) {
+			writeToDisk(filePath, contentId, data);
+		}
+	}
+
+	private synchronized void store(String key, byte[] data) {
+		remove(key);
+		entries.put(key, data);
+		memorySize += data.length;
+		Iterator<Map.Entry<String, byte[]>> it = entries.entrySet().iterator();
+		while (memorySize > memoryLimit && it.hasNext()) {
+			memorySize -= it.next().getValue().length;
+			it.remove();
+		}
+	}
+
+	private void remove(String key) {
+		byte[] previous = entries.remove(key);
+		if (previous != null) {
+			memorySize -= previous.length;
+		}
+	}
+
+	private File diskFile(String filePath, String contentId) {
+		String prefix = contentId.length() > 2 ? contentId.substring(0, 2) : "00";
+		return new File(new File(directory, prefix), contentId + "-" + Integer.toHexString(filePath.hashCode()));
+	}
+
+	private byte[] readFromDisk(String filePath, String contentId) {
+		File file = diskFile(filePath, contentId);
+		if (!file.isFile()) {
+			return null;
+		}
+		try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+			if (in.readInt() != FORMAT_VERSION || !filePath.equals(in.readUTF())) {
+				return null;
+			}
+			byte[] data = new byte[in.readInt()];
+			in.readFully(data);
+			return data;
+		} catch (IOException e) {
+			logger.warn(String.format("Could not read cached model %s", file), e);
+			return null;
+		}
+	}
+
+	private void writeToDisk(String filePath, String contentId, byte[] data) {
+		File file = diskFile(filePath, contentId);
+		File folder = file.getParentFile();
+		try {
+			if (!folder.isDirectory() && !folder.mkdirs() && !folder.isDirectory()) {
+				throw new IOException("Could not create " + folder);
+			}
+			File temp = File.createTempFile(file.getName(), ".tmp", folder);
+			try {
+				try (DataOutputStream out = new DataOutputStream(new FileOutputStream(temp))) {
+					out.writeInt(FORMAT_VERSION);
+					out.writeUTF(filePath);
+					out.writeInt(data.length);
+					out.write(data);
+				}
+				Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				Files.deleteIfExists(temp.toPath());
+			}
+		} catch (IOException e) {
+			logger.warn(String.format("Could not write cached model %s", file), e);
+		}
+	}
+}
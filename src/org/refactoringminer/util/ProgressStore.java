@@ -0,0 +1,155 @@
+package org.refactoringminer.util;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Records the commits analyzed by the miner in an append-only file, one line per commit with its id and result,
+ * so that a history walk interrupted by a crash can be resumed, skipping the commits analyzed by the previous runs.
+ * The commits whose analysis failed are kept apart from the analyzed ones, so that they can be retried on request.
+ * A line left incomplete by a crash is discarded when the file is opened.
+ */
+public class ProgressStore implements Closeable {
+	private static final Logger logger = LoggerFactory.getLogger(ProgressStore.class);
+	private static final String ANALYZED = "ok";
+	private static final String FAILED = "failed";
+	private static final int FAILURE = -1;
+	private final File file;
+	private final Map<ObjectId, Integer> commits = new HashMap<ObjectId, Integer>();
+	private final Set<ObjectId> failedCommits = new LinkedHashSet<ObjectId>();
+	private final Writer writer;
+
+	public ProgressStore(File file) throws IOException {
+		this.file = file;
+		if (file.isFile()) {
+			load();
+		}
+		this.writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.US_ASCII));
+	}
+
+	private void load() throws IOException {
+		long validLength = 0;
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.US_ASCII))) {
+			StringBuilder line = new StringBuilder();
+			int c;
+			while ((c = reader.read()) != -1) {
+				if (c != '\n') {
+					line.append((char) c);
+					continue;
+				}
+				validLength += line.length() + 1;
+				parse(line.toString());
+				line.setLength(0);
+			}
+		}
+		if (validLength < file.length()) {
+			logger.warn("Discarded incomplete last record of {}", file);
+			try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+				raf.setLength(validLength);
+			}
+		}
+	}
+
+	private void parse(String line) {
+		String[] fields = line.split(" ");
+		if (fields.length >= 2 && ObjectId.isId(fields[0])) {
+			ObjectId commitId = ObjectId.fromString(fields[0]);
+			if (fields[1].equals(ANALYZED) && fields.length == 3 && fields[2].matches("\\d+")) {
+				commits.put(commitId, Integer.parseInt(fields[2]));
+				failedCommits.remove(commitId);
+			}
+			else if (fields[1].equals(FAILED) && !commits.containsKey(commitId)) {
+				failedCommits.add(commitId);
+			}
+		}
+	}
+
+	/**
+	 * @return True if the commit was analyzed successfully by this or a previous run.
+	 */
+	public synchronized boolean isAnalyzed(String commitId) {
+		return ObjectId.isId(commitId) && commits.containsKey(ObjectId.fromString(commitId));
+	}
+
+	/**
+	 * @return True if the analysis of the commit failed in this or a previous run, and did not succeed since.
+	 */
+	public synchronized boolean isFailed(String commitId) {
+		return ObjectId.isId(commitId) && failedCommits.contains(ObjectId.fromString(commitId));
+	}
+
+	/**
+	 * @return The ids of the commits whose analysis failed and did not succeed since, in the order they were recorded.
+	 */
+	public synchronized List<String> getFailedCommits() {
+		List<String> commitIds = new ArrayList<String>(failedCommits.size());
+		for (ObjectId commitId : failedCommits) {
+			commitIds.add(commitId.getName());
+		}
+		return commitIds;
+	}
+
+	/**
+	 * @return The number of refactorings detected in the commit, or -1 if it was not analyzed successfully.
+	 */
+	public synchronized int getRefactoringsCount(String commitId) {
+		Integer count = ObjectId.isId(commitId) ? commits.get(ObjectId.fromString(commitId)) : null;
+		return count != null ? count : FAILURE;
+	}
+
+	/**
+	 * @return The number of commits analyzed successfully.
+	 */
+	public synchronized int size() {
+		return commits.size();
+	}
+
+	public synchronized void recordAnalyzed(String commitId, int refactoringsCount) throws IOException {
+		append(commitId, ANALYZED + " " + refactoringsCount);
+		ObjectId id = ObjectId.fromString(commitId);
+		commits.put(id, refactoringsCount);
+		failedCommits.remove(id);
+	}
+
+	/**
+	 * Records a failed analysis, unless the commit was already analyzed successfully.
+	 */
+	public synchronized void recordFailed(String commitId) throws IOException {
+		ObjectId id = ObjectId.fromString(commitId);
+		if (!commits.containsKey(id)) {
+			append(commitId, FAILED);
+			failedCommits.add(id);
+		}
+	}
+
+	//every record is flushed, so that it survives a crash of the process
+	private void append(String commitId, String result) throws IOException {
+		writer.write(commitId + " " + result + "\n");
+		writer.flush();
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		writer.close();
+	}
+}
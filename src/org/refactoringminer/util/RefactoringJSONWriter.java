@@ -0,0 +1,120 @@
+package org.refactoringminer.util;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.refactoringminer.api.Refactoring;
+import org.refactoringminer.rm1.GitHistoryRefactoringMinerImpl;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+/**
+ * Writes the refactorings detected in a sequence of commits as a JSON document of the form
+ * {@code {"commits": [...]}}, streaming every commit to the underlying writer as soon as it is written,
+ * so that the memory used does not depend on the number of commits and refactorings.
+ */
+public class RefactoringJSONWriter implements Closeable, Flushable {
+	private final Writer writer;
+	private boolean started;
+	private boolean ended;
+	private int commitCount;
+
+	public RefactoringJSONWriter(Writer writer) {
+		this.writer = writer;
+	}
+
+	/**
+	 * Writes to the stream in UTF-8.
+	 */
+	public RefactoringJSONWriter(OutputStream out) {
+		this(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+	}
+
+	public synchronized void startCommits() throws IOException {
+		if(!started) {
+			writer.write("{\n\"commits\": [\n");
+			started = true;
+		}
+	}
+
+	/**
+	 * Writes a commit with its refactorings, and flushes it to the underlying writer.
+	 */
+	public synchronized void writeCommit(String cloneURL, String commitId, List<? extends Refactoring> refactorings) throws IOException {
+		startCommit(cloneURL, commitId);
+		writer.write("\t\"refactorings\": [");
+		int counter = 0;
+		for(Refactoring refactoring : refactorings) {
+			writeRefactoring(refactoring);
+			if(counter < refactorings.size()-1) {
+				writer.write(",");
+			}
+			writer.write("\n");
+			counter++;
+		}
+		writer.write("]\n}");
+		commitCount++;
+		writer.flush();
+	}
+
+	/**
+	 * Writes a commit whose analysis failed, with an error message in place of its refactorings, and flushes it to the
+	 * underlying writer.
+	 */
+	public synchronized void writeError(String cloneURL, String commitId, String message) throws IOException {
+		startCommit(cloneURL, commitId);
+		writer.write("\t\"error\": \"");
+		writer.write(JsonStringEncoder.getInstance().quoteAsString(message));
+		writer.write("\"\n}");
+		commitCount++;
+		writer.flush();
+	}
+
+	private void startCommit(String cloneURL, String commitId) throws IOException {
+		startCommits();
+		if(commitCount > 0) {
+			writer.write(",\n");
+		}
+		writer.write("{\n");
+		writer.write("\t\"repository\": \"" + cloneURL + "\",\n");
+		writer.write("\t\"sha1\": \"" + commitId + "\",\n");
+		writer.write("\t\"url\": \"" + GitHistoryRefactoringMinerImpl.extractCommitURL(cloneURL, commitId) + "\",\n");
+	}
+
+	/**
+	 * Writes a single refactoring, in the format of {@link Refactoring#toJSON()}.
+	 */
+	public synchronized void writeRefactoring(Refactoring refactoring) throws IOException {
+		refactoring.writeJSON(writer);
+	}
+
+	public synchronized void endCommits() throws IOException {
+		if(!ended) {
+			startCommits();
+			writer.write("]\n}");
+			ended = true;
+		}
+		writer.flush();
+	}
+
+	public synchronized int getCommitCount() {
+		return commitCount;
+	}
+
+	@Override
+	public synchronized void flush() throws IOException {
+		writer.flush();
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		writer.close();
+	}
+}
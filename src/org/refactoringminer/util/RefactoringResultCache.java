@@ -0,0 +1,213 @@
+package org.refactoringminer.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.refactoringminer.api.Refactoring;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches the refactorings detected at a commit, keyed by the digest of the repository, the commit id and the
+ * configuration of the miner, such as its id and the refactoring types it considers.
+ * The refactorings are kept in the binary format of {@link BinaryResultWriter} in a memory bounded LRU map,
+ * and optionally in a directory on disk, so that they survive restarts.
+ * Only the commits referred to by their full SHA-1 are cached, since a branch, tag or abbreviated id may later
+ * resolve to another commit.
+ * The cache is best-effort: entries that cannot be written or read are analyzed again.
+ */
+public class RefactoringResultCache {
+	private static final Logger logger = LoggerFactory.getLogger(RefactoringResultCache.class);
+	private final long memoryLimit;
+	private final File directory;
+	private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<String, byte[]>(16, 0.75f, true);
+	private long memorySize;
+	private long hits;
+	private long misses;
+
+	/**
+	 * @param memoryLimit The maximum number of bytes of encoded refactorings kept in memory.
+	 * @param directory The directory storing the encoded refactorings on disk, or null to keep them only in memory.
+	 */
+	public RefactoringResultCache(long memoryLimit, File directory) {
+		this.memoryLimit = memoryLimit;
+		this.directory = directory;
+	}
+
+	/**
+	 * @return The refactorings detected at the commit with the given configuration, or null if they are not cached.
+	 */
+	public List<ArchivedRefactoring> get(String cloneURL, String commitId, String configuration) {
+		if (!ObjectId.isId(commitId)) {
+			synchronized (this) {
+				misses++;
+			}
+			return null;
+		}
+		String key = key(cloneURL, commitId, configuration);
+		String digest = digest(key);
+		byte[] data;
+		synchronized (this) {
+			data = entries.get(digest);
+		}
+		if (data == null && directory != null) {
+			data = readFromDisk(key, digest);
+			if (data != null) {
+				store(digest, data);
+			}
+		}
+		if (data == null) {
+			synchronized (this) {
+				misses++;
+			}
+			return null;
+		}
+		try (BinaryResultReader reader = new BinaryResultReader(new ByteArrayInputStream(data))) {
+			BinaryResultReader.Commit commit = reader.next();
+			if (commit != null) {
+				synchronized (this) {
+					hits++;
+				}
+				return commit.getRefactorings();
+			}
+		} catch (IOException | IllegalArgumentException e) {
+			logger.warn(String.format("Ignored cached refactorings of %s", commitId), e);
+		}
+		synchronized (this) {
+			remove(digest);
+			misses++;
+		}
+		return null;
+	}
+
+	/**
+	 * Caches the refactorings detected at the commit, unless it is not referred to by its full SHA-1.
+	 */
+	public void put(String cloneURL, String commitId, String configuration, List<? extends Refactoring> refactorings) {
+		if (!ObjectId.isId(commitId)) {
+			return;
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (BinaryResultWriter writer = new BinaryResultWriter(bytes)) {
+			writer.writeCommit(cloneURL, commitId, refactorings);
+		} catch (IOException e) {
+			logger.warn(String.format("Could not cache the refactorings of %s", commitId), e);
+			return;
+		}
+		byte[] data = bytes.toByteArray();
+		String key = key(cloneURL, commitId, configuration);
+		String digest = digest(key);
+		store(digest, data);
+		if (directory != null) {
+			writeToDisk(key, digest, data);
+		}
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	//the same repository may be referred to with or without the .git suffix
+	private static String key(String cloneURL, String commitId, String configuration) {
+		String repository = cloneURL;
+		if (repository.endsWith("/")) {
+			repository = repository.substring(0, repository.length() - 1);
+		}
+		if (repository.endsWith(".git")) {
+			repository = repository.substring(0, repository.length() - 4);
+		}
+		return repository + "\n" + ObjectId.fromString(commitId).name() + "\n" + configuration;
+	}
+
+	private static String digest(String key) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-1");
+			return ObjectId.fromRaw(digest.digest(key.getBytes(StandardCharsets.UTF_8))).name();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private synchronized void store(String digest, byte[] data) {
+		remove(digest);
+		entries.put(digest, data);
+		memorySize += data.length;
+		Iterator<Map.Entry<String, byte[]>> it = entries.entrySet().iterator();
+		while (memorySize > memoryLimit && it.hasNext()) {
+			memorySize -= it.next().getValue().length;
+			it.remove();
+		}
+	}
+
+	private void remove(String digest) {
+		byte[] previous = entries.remove(digest);
+		if (previous != null) {
+			memorySize -= previous.length;
+		}
+	}
+
+	private File diskFile(String digest) {
+		return new File(new File(directory, digest.substring(0, 2)), digest.substring(2));
+	}
+
+	private byte[] readFromDisk(String key, String digest) {
+		File file = diskFile(digest);
+		if (!file.isFile()) {
+			return null;
+		}
+		try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+			if (!key.equals(in.readUTF())) {
+				return null;
+			}
+			byte[] data = new byte[in.readInt()];
+			in.readFully(data);
+			return data;
+		} catch (IOException e) {
+			logger.warn(String.format("Could not read cached refactorings %s", file), e);
+			return null;
+		}
+	}
+
+	private void writeToDisk(String key, String digest, byte[] data) {
+		File file = diskFile(digest);
+		File folder = file.getParentFile();
+		try {
+			if (!folder.isDirectory() && !folder.mkdirs() && !folder.isDirectory()) {
+				throw new IOException("Could not create " + folder);
+			}
+			File temp = File.createTempFile(file.getName(), ".tmp", folder);
+			try {
+				try (DataOutputStream out = new DataOutputStream(new FileOutputStream(temp))) {
+					out.writeUTF(key);
+					out.writeInt(data.length);
+					out.write(data);
+				}
+				Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				Files.deleteIfExists(temp.toPath());
+			}
+		} catch (IOException e) {
+			logger.warn(String.format("Could not write cached refactorings %s", file), e);
+		}
+	}
+}
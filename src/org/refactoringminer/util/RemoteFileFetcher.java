@@ -0,0 +1,218 @@
+package org.refactoringminer.util;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.IOUtils;
+import org.eclipse.jgit.lib.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Downloads the contents of remote files in a bounded pool of threads shared by all the commits analyzed in the process,
+ * with at most a given number of concurrent downloads per host. The downloads failing with a transient error are retried
+ * with an exponential backoff, including those that exceed the connect or read timeout, and the downloaded contents
+ * are kept in a memory bounded LRU map keyed by repository, commit and path, so that the files shared by consecutive
+ * commits are downloaded once. Only the files of the commits referred to by their full SHA-1 are kept, since a branch,
+ * tag or abbreviated id may later resolve to another commit.
+ * Concurrent requests for the same file wait for a single download.
+ */
+public class RemoteFileFetcher {
+	private static final Logger logger = LoggerFactory.getLogger(RemoteFileFetcher.class);
+	private static RemoteFileFetcher shared;
+	private final ScheduledThreadPoolExecutor executor;
+	private final int maxDownloadsPerHost;
+	private final int maxAttempts;
+	private final long initialBackoffMillis;
+	private final long memoryLimit;
+	private final int connectTimeoutMillis;
+	private final int readTimeoutMillis;
+	private final Map<String, HostQueue> hosts = new HashMap<String, HostQueue>();
+	private final Map<String, CompletableFuture<String>> inProgress = new ConcurrentHashMap<String, CompletableFuture<String>>();
+	private final LinkedHashMap<String, String> contents = new LinkedHashMap<String, String>(16, 0.75f, true);
+	private long memorySize;
+
+	/**
+	 * @param threads The number of files downloaded concurrently from all hosts.
+	 * @param maxDownloadsPerHost The number of files downloaded concurrently from the same host.
+	 * @param maxAttempts The number of attempts to download a file before giving up.
+	 * @param initialBackoffMillis The delay before the second attempt, doubled before each of the following attempts.
+	 * @param memoryLimit The approximate maximum number of bytes of file contents kept in memory.
+	 */
+	public RemoteFileFetcher(int threads, int maxDownloadsPerHost, int maxAttempts, long initialBackoffMillis, long memoryLimit) {
+		this(threads, maxDownloadsPerHost, maxAttempts, initialBackoffMillis, memoryLimit, 10000, 30000);
+	}
+
+	/**
+	 * @param threads The number of files downloaded concurrently from all hosts.
+	 * @param maxDownloadsPerHost The number of files downloaded concurrently from the same host.
+	 * @param maxAttempts The number of attempts to download a file before giving up.
+	 * @param initialBackoffMillis The delay before the second attempt, doubled before each of the following attempts.
+	 * @param memoryLimit The approximate maximum number of bytes of file contents kept in memory.
+	 * @param connectTimeoutMillis The time to establish the connection of an attempt, 10 seconds by default.
+	 * @param readTimeoutMillis The time to wait for the data of an attempt without receiving any, 30 seconds by default.
+	 */
+	public RemoteFileFetcher(int threads, int maxDownloadsPerHost, int maxAttempts, long initialBackoffMillis, long memoryLimit,
+			int connectTimeoutMillis, int readTimeoutMillis) {
+		if (threads < 1 || maxDownloadsPerHost < 1 || maxAttempts < 1) {
+			throw new IllegalArgumentException("The number of threads, downloads per host and attempts must be positive");
+		}
+		//a download without timeouts could hold a thread of the pool forever
+		if (connectTimeoutMillis < 1 || readTimeoutMillis < 1) {
+			throw new IllegalArgumentException("The connect and read timeouts must be positive");
+		}
+		AtomicInteger threadCount = new AtomicInteger();
+		ThreadFactory threadFactory = r -> {
+			Thread thread = new Thread(r, "RemoteFileFetcher-" + threadCount.incrementAndGet());
+			//the pool lives as long as the process, and must not prevent it from exiting
+			thread.setDaemon(true);
+			return thread;
+		};
+		this.executor = new ScheduledThreadPoolExecutor(threads, threadFactory);
+		this.maxDownloadsPerHost = maxDownloadsPerHost;
+		this.maxAttempts = maxAttempts;
+		this.initialBackoffMillis = initialBackoffMillis;
+		this.memoryLimit = memoryLimit;
+		this.connectTimeoutMillis = connectTimeoutMillis;
+		this.readTimeoutMillis = readTimeoutMillis;
+	}
+
+	/**
+	 * @return The fetcher shared by the miners that are not given their own, with 16 threads, 8 downloads per host,
+	 * 3 attempts starting with a backoff of 500 milliseconds, and 64MB of cached contents.
+	 */
+	public static synchronized RemoteFileFetcher getShared() {
+		if (shared == null) {
+			shared = new RemoteFileFetcher(16, 8, 3, 500, 64L * 1024 * 1024);
+		}
+		return shared;
+	}
+
+	private static class HostQueue {
+		private int activeDownloads;
+		private final ArrayDeque<Runnable> pendingDownloads = new ArrayDeque<Runnable>();
+	}
+
+	/**
+	 * @param repository The name of the repository containing the file.
+	 * @param commitId The commit at which the file is downloaded.
+	 * @param path The path of the file in the repository.
+	 * @param rawURL The URL of the raw contents of the file at the commit.
+	 * @return The contents of the file, completed exceptionally with the {@link IOException} of the last attempt if the download failed.
+	 */
+	public CompletableFuture<String> fetch(String repository, String commitId, String path, URL rawURL) {
+		boolean cacheable = ObjectId.isId(commitId);
+		String key = repository + ":" + (cacheable ? ObjectId.fromString(commitId).name() : commitId) + ":" + path;
+		if (cacheable) {
+			String content;
+			synchronized (contents) {
+				content = contents.get(key);
+			}
+			if (content != null) {
+				return CompletableFuture.completedFuture(content);
+			}
+		}
+		CompletableFuture<String> future = new CompletableFuture<String>();
+		CompletableFuture<String> existing = inProgress.putIfAbsent(key, future);
+		if (existing != null) {
+			return existing;
+		}
+		submit(key, cacheable, rawURL, future, 1);
+		return future;
+	}
+
+	private void submit(String key, boolean cacheable, URL rawURL, CompletableFuture<String> future, int attempt) {
+		Runnable download = () -> download(key, cacheable, rawURL, future, attempt);
+		String host = rawURL.getHost();
+		synchronized (hosts) {
+			HostQueue hostQueue = hosts.get(host);
+			if (hostQueue == null) {
+				hostQueue = new HostQueue();
+				hosts.put(host, hostQueue);
+			}
+			//a download waiting for its host does not hold a thread, so the other hosts are not blocked
+			if (hostQueue.activeDownloads >= maxDownloadsPerHost) {
+				hostQueue.pendingDownloads.addLast(download);
+				return;
+			}
+			hostQueue.activeDownloads++;
+		}
+		executor.execute(download);
+	}
+
+	private void download(String key, boolean cacheable, URL rawURL, CompletableFuture<String> future, int attempt) {
+		try {
+			String content;
+			URLConnection connection = rawURL.openConnection();
+			connection.setConnectTimeout(connectTimeoutMillis);
+			connection.setReadTimeout(readTimeoutMillis);
+			//the raw contents served by GitHub are encoded in UTF-8, whatever the platform encoding
+			try (InputStream in = connection.getInputStream()) {
+				content = IOUtils.toString(in, StandardCharsets.UTF_8);
+			}
+			if (cacheable) {
+				store(key, content);
+			}
+			inProgress.remove(key, future);
+			future.complete(content);
+		} catch (IOException e) {
+			if (attempt < maxAttempts && !(e instanceof FileNotFoundException)) {
+				long backoff = initialBackoffMillis << (attempt - 1);
+				logger.debug("Retrying the download of {} in {} ms", rawURL, backoff, e);
+				executor.schedule(() -> submit(key, cacheable, rawURL, future, attempt + 1), backoff, TimeUnit.MILLISECONDS);
+			}
+			else {
+				inProgress.remove(key, future);
+				future.completeExceptionally(e);
+			}
+		} catch (RuntimeException e) {
+			inProgress.remove(key, future);
+			future.completeExceptionally(e);
+		} finally {
+			release(rawURL.getHost());
+		}
+	}
+
+	private void release(String host) {
+		Runnable next;
+		synchronized (hosts) {
+			HostQueue hostQueue = hosts.get(host);
+			next = hostQueue.pendingDownloads.pollFirst();
+			if (next == null) {
+				hostQueue.activeDownloads--;
+				return;
+			}
+		}
+		executor.execute(next);
+	}
+
+	private void store(String key, String content) {
+		synchronized (contents) {
+			String previous = contents.put(key, content);
+			if (previous != null) {
+				memorySize -= 2L * previous.length();
+			}
+			memorySize += 2L * content.length();
+			Iterator<Map.Entry<String, String>> it = contents.entrySet().iterator();
+			while (memorySize > memoryLimit && it.hasNext()) {
+				memorySize -= 2L * it.next().getValue().length();
+				it.remove();
+			}
+		}
+	}
+}
@@ -0,0 +1,45 @@
+package org.refactoringminer.util;
+
+import org.eclipse.jgit.diff.DiffConfig;
+import org.eclipse.jgit.diff.RenameDetector;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+
+/**
+ * The object database access of a single thread analyzing the commits of a repository. The object reader keeps
+ * its pack window and inflater between the reads of consecutive commits, which mostly touch the same packs in
+ * a history walk, and the rename detector is reset instead of being created for every commit.
+ * It is not thread-safe, so every worker uses its own instance.
+ */
+public class RepositoryReader implements AutoCloseable {
+	private final Repository repository;
+	private final ObjectReader reader;
+	private final RenameDetector renameDetector;
+
+	public RepositoryReader(Repository repository) {
+		this.repository = repository;
+		this.reader = repository.newObjectReader();
+		this.renameDetector = new RenameDetector(reader, repository.getConfig().get(DiffConfig.KEY));
+	}
+
+	public Repository getRepository() {
+		return repository;
+	}
+
+	public ObjectReader getObjectReader() {
+		return reader;
+	}
+
+	/**
+	 * @return The rename detector, cleared from the entries of its previous use.
+	 */
+	public RenameDetector getRenameDetector() {
+		renameDetector.reset();
+		return renameDetector;
+	}
+
+	@Override
+	public void close() {
+		reader.close();
+	}
+}
@@ -0,0 +1,315 @@
+package org.refactoringminer.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.refactoringminer.api.Refactoring;
+import org.refactoringminer.api.RefactoringType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stores the detected refactorings in an append-only log file, and indexes them in memory by commit,
+ * refactoring type and involved class, so that they can be queried without mining the repository again.
+ * The refactorings of a commit are written as one frame, headed by their number and the length of their records.
+ * Every record starts with the fields that are indexed, followed by the description, the involved classes and the JSON
+ * of the refactoring, which are skipped when the store is opened.
+ * The indexes are rebuilt by a sequential scan of the log when the store is opened, and a commit left
+ * incomplete by a crash is discarded.
+ */
+public class ResultStore implements Closeable {
+	private static final Logger logger = LoggerFactory.getLogger(ResultStore.class);
+	private static final int FRAME_HEADER_LENGTH = 8;
+	private final File file;
+	private final List<Long> offsets = new ArrayList<Long>();
+	private final List<RefactoringType> types = new ArrayList<RefactoringType>();
+	private final Map<String, List<Integer>> commitIndex = new HashMap<String, List<Integer>>();
+	private final Map<RefactoringType, List<Integer>> typeIndex = new EnumMap<RefactoringType, List<Integer>>(RefactoringType.class);
+	private final TreeMap<String, List<Integer>> classIndex = new TreeMap<String, List<Integer>>();
+	private final DataOutputStream out;
+	private final RandomAccessFile in;
+	private long length;
+
+	public ResultStore(File file) throws IOException {
+		this.file = file;
+		if (file.isFile()) {
+			load();
+		}
+		this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+		this.in = new RandomAccessFile(file, "r");
+	}
+
+	private void load() throws IOException {
+		long fileLength = file.length();
+		try (DataInputStream data = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			while (length + FRAME_HEADER_LENGTH <= fileLength) {
+				int count = data.readInt();
+				int frameLength = data.readInt();
+				//a frame is indexed only if all its records were written
+				if (count < 0 || frameLength < 0 || length + FRAME_HEADER_LENGTH + frameLength > fileLength) {
+					break;
+				}
+				long offset = length + FRAME_HEADER_LENGTH;
+				for (int i = 0; i < count; i++) {
+					int recordLength = data.readInt();
+					byte[] indexedFields = new byte[data.readInt()];
+					data.readFully(indexedFields);
+					skipFully(data, recordLength - 4 - indexedFields.length);
+					try (DataInputStream fields = new DataInputStream(new ByteArrayInputStream(indexedFields))) {
+						index(offset, fields.readUTF(), RefactoringType.valueOf(fields.readUTF()), readClassNames(fields));
+					}
+					offset += 4 + recordLength;
+				}
+				length += FRAME_HEADER_LENGTH + frameLength;
+			}
+		}
+		if (length < fileLength) {
+			logger.warn("Discarded incomplete last commit of {}", file);
+			try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+				raf.setLength(length);
+			}
+		}
+	}
+
+	/**
+	 * Appends the refactorings detected in a commit, unless the commit is already in the store.
+	 */
+	public synchronized void add(String commitId, List<Refactoring> refactorings) throws IOException {
+		if (refactorings.isEmpty() || commitIndex.containsKey(commitId)) {
+			return;
+		}
+		ByteArrayOutputStream frame = new ByteArrayOutputStream();
+		DataOutputStream frameData = new DataOutputStream(frame);
+		List<Integer> recordLengths = new ArrayList<Integer>(refactorings.size());
+		for (Refactoring refactoring : refactorings) {
+			byte[] record = encode(commitId, refactoring);
+			frameData.writeInt(record.length);
+			frameData.write(record);
+			recordLengths.add(record.length);
+		}
+		//the refactorings of a commit are flushed together, so that they survive a crash of the process
+		out.writeInt(refactorings.size());
+		out.writeInt(frame.size());
+		frame.writeTo(out);
+		out.flush();
+		long offset = length + FRAME_HEADER_LENGTH;
+		for (int i = 0; i < refactorings.size(); i++) {
+			Refactoring refactoring = refactorings.get(i);
+			index(offset, commitId, refactoring.getRefactoringType(), classNames(refactoring));
+			offset += 4 + recordLengths.get(i);
+		}
+		length += FRAME_HEADER_LENGTH + frame.size();
+	}
+
+	private void index(long offset, String commitId, RefactoringType type, Set<String> classNames) {
+		int recordNumber = offsets.size();
+		offsets.add(offset);
+		types.add(type);
+		addToIndex(commitIndex, commitId, recordNumber);
+		addToIndex(typeIndex, type, recordNumber);
+		for (String className : classNames) {
+			addToIndex(classIndex, className, recordNumber);
+		}
+	}
+
+	/**
+	 * @return The qualified names of the classes involved in the refactoring, before or after it.
+	 */
+	private static Set<String> classNames(Refactoring refactoring) {
+		Set<String> classNames = new LinkedHashSet<String>();
+		for (ImmutablePair<String, String> pair : refactoring.getInvolvedClassesBeforeRefactoring()) {
+			classNames.add(pair.getRight());
+		}
+		for (ImmutablePair<String, String> pair : refactoring.getInvolvedClassesAfterRefactoring()) {
+			classNames.add(pair.getRight());
+		}
+		return classNames;
+	}
+
+	private static <K> void addToIndex(Map<K, List<Integer>> index, K key, int recordNumber) {
+		List<Integer> recordNumbers = index.get(key);
+		if (recordNumbers == null) {
+			recordNumbers = new ArrayList<Integer>(2);
+			index.put(key, recordNumbers);
+		}
+		recordNumbers.add(recordNumber);
+	}
+
+	public synchronized boolean containsCommit(String commitId) {
+		return commitIndex.containsKey(commitId);
+	}
+
+	/**
+	 * @return The number of stored refactorings.
+	 */
+	public synchronized int size() {
+		return offsets.size();
+	}
+
+	public synchronized List<StoredRefactoring> findByCommit(String commitId) throws IOException {
+		return read(commitIndex.get(commitId));
+	}
+
+	public synchronized List<StoredRefactoring> findByType(RefactoringType type) throws IOException {
+		return read(typeIndex.get(type));
+	}
+
+	/**
+	 * @param className The qualified name of a class involved in the refactorings, before or after them.
+	 */
+	public synchronized List<StoredRefactoring> findByClass(String className) throws IOException {
+		return read(classIndex.get(className));
+	}
+
+	/**
+	 * Finds the refactorings involving the classes whose qualified name starts with a prefix, such as a package name
+	 * followed by a dot, in the order they were stored.
+	 *
+	 * @param type The type of the refactorings, or null for all types.
+	 */
+	public synchronized List<StoredRefactoring> find(RefactoringType type, String classNamePrefix) throws IOException {
+		SortedMap<String, List<Integer>> classes = classIndex.subMap(classNamePrefix, classNamePrefix + Character.MAX_VALUE);
+		Set<Integer> recordNumbers = new TreeSet<Integer>();
+		for (List<Integer> classRecordNumbers : classes.values()) {
+			for (Integer recordNumber : classRecordNumbers) {
+				if (type == null || types.get(recordNumber) == type) {
+					recordNumbers.add(recordNumber);
+				}
+			}
+		}
+		return read(recordNumbers);
+	}
+
+	private List<StoredRefactoring> read(Iterable<Integer> recordNumbers) throws IOException {
+		if (recordNumbers == null) {
+			return Collections.emptyList();
+		}
+		List<StoredRefactoring> refactorings = new ArrayList<StoredRefactoring>();
+		for (Integer recordNumber : recordNumbers) {
+			in.seek(offsets.get(recordNumber));
+			byte[] record = new byte[in.readInt()];
+			in.readFully(record);
+			refactorings.add(decode(record));
+		}
+		return refactorings;
+	}
+
+	private static byte[] encode(String commitId, Refactoring refactoring) throws IOException {
+		ByteArrayOutputStream indexedFields = new ByteArrayOutputStream();
+		try (DataOutputStream data = new DataOutputStream(indexedFields)) {
+			data.writeUTF(commitId);
+			data.writeUTF(refactoring.getRefactoringType().name());
+			Set<String> classNames = classNames(refactoring);
+			data.writeInt(classNames.size());
+			for (String className : classNames) {
+				writeString(data, className);
+			}
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream data = new DataOutputStream(bytes)) {
+			data.writeInt(indexedFields.size());
+			indexedFields.writeTo(data);
+			writeString(data, refactoring.toString());
+			writeClasses(data, refactoring.getInvolvedClassesBeforeRefactoring());
+			writeClasses(data, refactoring.getInvolvedClassesAfterRefactoring());
+			writeString(data, refactoring.toJSON());
+		}
+		return bytes.toByteArray();
+	}
+
+	private static StoredRefactoring decode(byte[] record) throws IOException {
+		try (DataInputStream data = new DataInputStream(new ByteArrayInputStream(record))) {
+			data.readInt();
+			String commitId = data.readUTF();
+			RefactoringType type = RefactoringType.valueOf(data.readUTF());
+			readClassNames(data);
+			String description = readString(data);
+			Set<ImmutablePair<String, String>> involvedClassesBefore = readClasses(data);
+			Set<ImmutablePair<String, String>> involvedClassesAfter = readClasses(data);
+			String json = readString(data);
+			return new StoredRefactoring(commitId, type, description, involvedClassesBefore, involvedClassesAfter, json);
+		}
+	}
+
+	private static Set<String> readClassNames(DataInputStream data) throws IOException {
+		int size = data.readInt();
+		Set<String> classNames = new LinkedHashSet<String>();
+		for (int i = 0; i < size; i++) {
+			classNames.add(readString(data));
+		}
+		return classNames;
+	}
+
+	private static void writeClasses(DataOutputStream data, Set<ImmutablePair<String, String>> classes) throws IOException {
+		data.writeInt(classes.size());
+		for (ImmutablePair<String, String> pair : classes) {
+			writeString(data, pair.getLeft());
+			writeString(data, pair.getRight());
+		}
+	}
+
+	private static Set<ImmutablePair<String, String>> readClasses(DataInputStream data) throws IOException {
+		int size = data.readInt();
+		Set<ImmutablePair<String, String>> classes = new LinkedHashSet<ImmutablePair<String, String>>();
+		for (int i = 0; i < size; i++) {
+			classes.add(ImmutablePair.of(readString(data), readString(data)));
+		}
+		return classes;
+	}
+
+	//writeUTF is limited to 64KB, which long descriptions and JSON documents may exceed
+	private static void writeString(DataOutputStream data, String s) throws IOException {
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		data.writeInt(bytes.length);
+		data.write(bytes);
+	}
+
+	private static String readString(DataInputStream data) throws IOException {
+		byte[] bytes = new byte[data.readInt()];
+		data.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static void skipFully(DataInputStream data, int length) throws IOException {
+		while (length > 0) {
+			int skipped = data.skipBytes(length);
+			if (skipped <= 0) {
+				throw new EOFException();
+			}
+			length -= skipped;
+		}
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		try {
+			out.close();
+		} finally {
+			in.close();
+		}
+	}
+}
@@ -0,0 +1,62 @@
+package org.refactoringminer.util;
+
+import java.util.Set;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.refactoringminer.api.RefactoringType;
+
+/**
+ * A refactoring read back from a {@link ResultStore}, with the commit it was detected in.
+ */
+public class StoredRefactoring {
+	private final String commitId;
+	private final RefactoringType refactoringType;
+	private final String description;
+	private final Set<ImmutablePair<String, String>> involvedClassesBefore;
+	private final Set<ImmutablePair<String, String>> involvedClassesAfter;
+	private final String json;
+
+	public StoredRefactoring(String commitId, RefactoringType refactoringType, String description,
+			Set<ImmutablePair<String, String>> involvedClassesBefore, Set<ImmutablePair<String, String>> involvedClassesAfter, String json) {
+		this.commitId = commitId;
+		this.refactoringType = refactoringType;
+		this.description = description;
+		this.involvedClassesBefore = involvedClassesBefore;
+		this.involvedClassesAfter = involvedClassesAfter;
+		this.json = json;
+	}
+
+	public String getCommitId() {
+		return commitId;
+	}
+
+	public RefactoringType getRefactoringType() {
+		return refactoringType;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+
+	/**
+	 * @return a Set of ImmutablePair where left is the file path of a program element, and right is the qualified name of the class containing the program element
+	 */
+	public Set<ImmutablePair<String, String>> getInvolvedClassesBeforeRefactoring() {
+		return involvedClassesBefore;
+	}
+
+	/**
+	 * @return a Set of ImmutablePair where left is the file path of a program element, and right is the qualified name of the class containing the program element
+	 */
+	public Set<ImmutablePair<String, String>> getInvolvedClassesAfterRefactoring() {
+		return involvedClassesAfter;
+	}
+
+	public String toJSON() {
+		return json;
+	}
+
+	public String toString() {
+		return description;
+	}
+}
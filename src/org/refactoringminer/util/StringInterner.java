@@ -0,0 +1,43 @@
+package org.refactoringminer.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+/**
+ * A table of canonical strings shared by the models of the two revisions of a commit, so that the statements
+ * and tokens extracted from the files of both revisions are stored once, and equal strings are usually
+ * the same instance. The table is attached to the parsed compilation units as a property, and is safe
+ * to use from the threads parsing files in parallel.
+ */
+public class StringInterner {
+	private static final String PROPERTY = StringInterner.class.getName();
+	private final ConcurrentHashMap<String, String> strings = new ConcurrentHashMap<String, String>();
+
+	public String intern(String s) {
+		if(s == null) {
+			return null;
+		}
+		String canonical = strings.putIfAbsent(s, s);
+		return canonical != null ? canonical : s;
+	}
+
+	public int size() {
+		return strings.size();
+	}
+
+	public void attachTo(CompilationUnit cu) {
+		cu.setProperty(PROPERTY, this);
+	}
+
+	/**
+	 * @return The table attached to the compilation unit, or null if the strings of the compilation unit are not interned.
+	 */
+	public static StringInterner of(CompilationUnit cu) {
+		return cu != null ? (StringInterner) cu.getProperty(PROPERTY) : null;
+	}
+
+	public static String intern(StringInterner interner, String s) {
+		return interner != null ? interner.intern(s) : s;
+	}
+}